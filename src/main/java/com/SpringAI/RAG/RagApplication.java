@@ -1,12 +1,41 @@
 package com.SpringAI.RAG;
 
+import com.SpringAI.RAG.config.AdminProperties;
+import com.SpringAI.RAG.config.AdmissionProperties;
+import com.SpringAI.RAG.config.BatchProperties;
+import com.SpringAI.RAG.config.ContextBudgetProperties;
+import com.SpringAI.RAG.config.ConversationProperties;
+import com.SpringAI.RAG.config.HedgingProperties;
+import com.SpringAI.RAG.config.ImageJobProperties;
+import com.SpringAI.RAG.config.LimiterProperties;
+import com.SpringAI.RAG.config.ModelRoutingProperties;
+import com.SpringAI.RAG.config.ModerationBatchProperties;
+import com.SpringAI.RAG.config.ModerationCacheProperties;
+import com.SpringAI.RAG.config.ModerationPolicyProperties;
+import com.SpringAI.RAG.config.ModerationPrefilterProperties;
 import com.SpringAI.RAG.config.ModerationThresholds;
+import com.SpringAI.RAG.config.RetrievalProperties;
+import com.SpringAI.RAG.config.SpeechProperties;
+import com.SpringAI.RAG.config.StreamingProperties;
+import com.SpringAI.RAG.config.TenantProperties;
+import com.SpringAI.RAG.config.VectorReplicaProperties;
+import com.SpringAI.RAG.config.VisionProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(ModerationThresholds.class)
+@EnableScheduling
+@EnableConfigurationProperties({ModerationThresholds.class, VectorReplicaProperties.class, ContextBudgetProperties.class,
+        RetrievalProperties.class, TenantProperties.class, StreamingProperties.class,
+        ConversationProperties.class, HedgingProperties.class,
+        LimiterProperties.class, AdmissionProperties.class, ModelRoutingProperties.class,
+        SpeechProperties.class, ImageJobProperties.class,
+        VisionProperties.class, BatchProperties.class,
+        ModerationCacheProperties.class, ModerationBatchProperties.class,
+        ModerationPrefilterProperties.class, ModerationPolicyProperties.class,
+        AdminProperties.class})
 public class RagApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,146 @@
+package com.SpringAI.RAG.admission;
+
+import com.SpringAI.RAG.config.AdmissionProperties;
+import com.SpringAI.RAG.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Admission control in front of the {@code /api} controllers, before any model call is made.
+ * <p>
+ * Each request spends its endpoint's cost from the client's {@link ClientBuckets bucket}. If the tokens are
+ * there it proceeds; if they will be there within {@code rag.admission.max-wait-ms} the request waits that
+ * long (a parked virtual thread) and proceeds; otherwise it is shed immediately with 429 and a
+ * {@code Retry-After} of the time until the bucket could serve it. Admin endpoints are not limited.
+ * <p>
+ * Buckets are keyed by a server-side identity: the configured client whose API key the request presents, or
+ * else the remote address. A self-chosen id would let a client rotate ids for fresh buckets or borrow another
+ * client's tier, so an unknown API key is rejected with 401 rather than trusted.
+ * <p>
+ * Metrics per tier: {@code rag.admission.requests} (outcome=admitted|delayed|shed), {@code rag.admission.wait}
+ * and {@code rag.admission.waiting}.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final ClientBuckets buckets;
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ApiClients apiClients;
+    private final Map<String, TierMetrics> metrics = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter(ClientBuckets buckets, AdmissionProperties properties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry, ApiClients apiClients) {
+        this.buckets = buckets;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.apiClients = apiClients;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathOf(request);
+        return !properties.enabled() || !path.startsWith("/api/") || path.startsWith("/api/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientName = apiClients.clientOf(request);
+        if (clientName == null && apiClients.presentsApiKey(request)) {
+            reject(response, HttpStatus.UNAUTHORIZED, "Unknown API key");
+            return;
+        }
+        String clientId = clientName != null ? "client:" + clientName : "address:" + request.getRemoteAddr();
+        String tier = clientName != null ? apiClients.tierOf(clientName) : AdmissionProperties.DEFAULT_TIER;
+        TierMetrics tierMetrics = metrics.computeIfAbsent(tier, this::register);
+        ClientBuckets.Reservation reservation = buckets.reserve(clientId, tier, costOf(pathOf(request)),
+                TimeUnit.MILLISECONDS.toNanos(properties.maxWaitMs()));
+        if (!reservation.admitted()) {
+            tierMetrics.shed.increment();
+            shed(response, reservation.waitNanos());
+            return;
+        }
+        if (reservation.waitNanos() > 0) {
+            tierMetrics.delayed.increment();
+            tierMetrics.waiting.incrementAndGet();
+            try {
+                long deadline = System.nanoTime() + reservation.waitNanos();
+                for (long remaining = reservation.waitNanos(); remaining > 0; remaining = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(remaining);
+                }
+            } finally {
+                tierMetrics.waiting.decrementAndGet();
+            }
+        } else {
+            tierMetrics.admitted.increment();
+        }
+        tierMetrics.waitTime.record(reservation.waitNanos(), TimeUnit.NANOSECONDS);
+        chain.doFilter(request, response);
+    }
+
+    private void shed(HttpServletResponse response, long retryAfterNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, retry after " + retryAfterSeconds + "s");
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, status.value()));
+    }
+
+    // Longest configured prefix wins, so a specific endpoint can override its controller's prefix.
+    private int costOf(String path) {
+        int cost = 1;
+        int matched = -1;
+        for (Map.Entry<String, Integer> entry : properties.endpointCosts().entrySet()) {
+            if (path.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                cost = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+        return cost;
+    }
+
+    // Decoded and normalised by the container, so "/api/admin/../chat/..." cannot skip the limit or its cost.
+    private static String pathOf(HttpServletRequest request) {
+        return request.getPathInfo() != null ? request.getServletPath() + request.getPathInfo() : request.getServletPath();
+    }
+
+    private TierMetrics register(String tier) {
+        TierMetrics tierMetrics = new TierMetrics(
+                Counter.builder("rag.admission.requests").tag("tier", tier).tag("outcome", "admitted").register(meterRegistry),
+                Counter.builder("rag.admission.requests").tag("tier", tier).tag("outcome", "delayed").register(meterRegistry),
+                Counter.builder("rag.admission.requests").tag("tier", tier).tag("outcome", "shed").register(meterRegistry),
+                Timer.builder("rag.admission.wait").tag("tier", tier).register(meterRegistry),
+                new AtomicInteger());
+        Gauge.builder("rag.admission.waiting", tierMetrics.waiting, AtomicInteger::get).tag("tier", tier).register(meterRegistry);
+        return tierMetrics;
+    }
+
+    private record TierMetrics(Counter admitted, Counter delayed, Counter shed, Timer waitTime, AtomicInteger waiting) {
+    }
+}
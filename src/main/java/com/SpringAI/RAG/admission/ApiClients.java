@@ -0,0 +1,46 @@
+package com.SpringAI.RAG.admission;
+
+import com.SpringAI.RAG.config.AdmissionProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Server-side identity of a request: the configured client ({@code rag.admission.clients.<name>}) whose API key
+ * it presents in {@code rag.admission.api-key-header}. Admission buckets, tenant binding and conversation
+ * sessions are all keyed by this name, never by an id the client chose for itself.
+ */
+@Component
+public class ApiClients {
+
+    private final AdmissionProperties properties;
+    private final Map<String, String> clientsByApiKey;
+
+    public ApiClients(AdmissionProperties properties) {
+        this.properties = properties;
+        this.clientsByApiKey = properties.clientsByApiKey();
+    }
+
+    /** Whether the request carries an API key at all, known or not. */
+    public boolean presentsApiKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.apiKeyHeader());
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /** Name of the client whose API key the request presents, or {@code null} for no key or an unknown one. */
+    public String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.apiKeyHeader());
+        return apiKey != null && !apiKey.isBlank() ? clientsByApiKey.get(apiKey.strip()) : null;
+    }
+
+    public String tierOf(String clientName) {
+        return properties.tierOf(clientName);
+    }
+
+    /** Tenant the client is bound to, or {@code null} if it only uses the shared store. */
+    public String tenantOf(String clientName) {
+        AdmissionProperties.Client client = properties.clients().get(clientName);
+        return client != null && client.tenant() != null && !client.tenant().isBlank() ? client.tenant() : null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.SpringAI.RAG.admission;
+
+import com.SpringAI.RAG.config.AdmissionProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets in GCRA form: a bucket is one {@code AtomicLong} holding its theoretical arrival
+ * time, so taking tokens is a single CAS loop with no lock and no timer. The map is a {@link ConcurrentHashMap}
+ * (per-bin locking only on insert); full buckets are indistinguishable from absent ones and are dropped by the
+ * periodic sweep, so idle clients cost nothing.
+ */
+@Component
+public class ClientBuckets {
+
+    /** Outcome of a reservation: wait this long before proceeding, or (if not admitted) retry after it. */
+    public record Reservation(boolean admitted, long waitNanos) {
+    }
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AdmissionProperties properties;
+
+    public ClientBuckets(AdmissionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Takes {@code cost} tokens from the client's bucket if they are available within {@code maxWaitNanos}.
+     * An admitted reservation is already charged; the caller waits {@code waitNanos} and proceeds. A rejected
+     * one charges nothing and reports how long until the tokens would be there.
+     */
+    public Reservation reserve(String clientId, String tier, int cost, long maxWaitNanos) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / properties.rateFor(tier));
+        long tolerance = interval * properties.burstFor(tier);
+        AtomicLong bucket = buckets.computeIfAbsent(clientId, id -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long next = start + interval * cost;
+            long wait = next - tolerance - now;
+            if (wait > maxWaitNanos) {
+                return new Reservation(false, wait);
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return new Reservation(true, Math.max(0, wait));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now < 0);
+    }
+}
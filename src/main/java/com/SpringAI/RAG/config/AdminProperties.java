@@ -0,0 +1,22 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the {@code /api/admin} endpoints. Callers must send {@code token} in the
+ * {@code header}; with no token configured the admin endpoints reject every request.
+ */
+@ConfigurationProperties(prefix = "rag.admin")
+@Validated
+public record AdminProperties(
+        @NotBlank String header,
+        String token
+) {
+    // Constructor with default values
+    public AdminProperties {
+        header = header != null ? header : "X-Admin-Token";
+        token = token != null && !token.isBlank() ? token : null;
+    }
+}
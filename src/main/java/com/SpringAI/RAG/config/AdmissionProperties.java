@@ -0,0 +1,90 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for inbound admission control. Each client gets a token bucket refilled at its
+ * tier's rate; a request spends the cost of its endpoint (longest matching path prefix, default 1). Requests
+ * that would wait longer than {@code maxWaitMs} for their tokens are shed with 429. No endpoint may cost more
+ * than the smallest tier burst: a bucket never holds more than its burst, so such a request could never be
+ * admitted for that tier, however long the client waited.
+ * <p>
+ * Identity and tier are never taken from the request as-is: a request carrying one of the configured
+ * {@code clients.<name>.api-key} values in {@code apiKeyHeader} is that client, at that client's tier; any
+ * other request is limited by remote address at the default tier.
+ */
+@ConfigurationProperties(prefix = "rag.admission")
+@Validated
+public record AdmissionProperties(
+        Boolean enabled,
+        String apiKeyHeader,
+        Map<String, Double> tierRates,
+        Map<String, Integer> tierBursts,
+        Map<String, Client> clients,
+        Map<String, Integer> endpointCosts,
+        @Min(0) Long maxWaitMs
+) {
+    public static final String DEFAULT_TIER = "default";
+
+    /**
+     * A known API client: the key it authenticates with, the tier it is billed at and, with tenancy enabled,
+     * the tenant whose store it uses (none for the shared store).
+     */
+    public record Client(String apiKey, String tier, String tenant) {
+    }
+
+    // Constructor with default values
+    public AdmissionProperties {
+        enabled = enabled != null ? enabled : true;
+        apiKeyHeader = apiKeyHeader != null ? apiKeyHeader : "X-Api-Key";
+        tierRates = tierRates != null ? Map.copyOf(tierRates) : Map.of(DEFAULT_TIER, 2.0, "premium", 10.0);
+        tierBursts = tierBursts != null ? Map.copyOf(tierBursts) : Map.of(DEFAULT_TIER, 30, "premium", 150);
+        clients = clients != null ? Map.copyOf(clients) : Map.of();
+        endpointCosts = endpointCosts != null ? Map.copyOf(endpointCosts) : Map.of(
+                "/api/chat/imageGenerationBot", 25,
+                "/api/chat/voiceGenerationBot", 15,
+                "/api/chat/imageDetectionBot", 5,
+                "/api/chat/blogGenerationBot", 3,
+                "/api/chat/crawlWeb", 10,
+                "/api/chat/pdfStore", 10);
+        maxWaitMs = maxWaitMs != null ? maxWaitMs : 2000L;
+        Map<String, Integer> bursts = tierBursts;
+        int smallestBurst = tierRates.keySet().stream().mapToInt(tier -> bursts.getOrDefault(tier, 30)).min().orElse(30);
+        endpointCosts.forEach((path, cost) -> {
+            if (cost > smallestBurst) {
+                throw new IllegalArgumentException("rag.admission.endpoint-costs[" + path + "]=" + cost
+                        + " exceeds the smallest tier burst (" + smallestBurst + ") and could never be admitted");
+            }
+        });
+    }
+
+    /** Client names by API key; built once by {@code ApiClients}. */
+    public Map<String, String> clientsByApiKey() {
+        Map<String, String> byKey = new HashMap<>();
+        clients.forEach((name, client) -> {
+            if (client.apiKey() != null && !client.apiKey().isBlank()) {
+                byKey.put(client.apiKey(), name);
+            }
+        });
+        return Map.copyOf(byKey);
+    }
+
+    public String tierOf(String clientName) {
+        Client client = clients.get(clientName);
+        String tier = client != null && client.tier() != null ? client.tier() : DEFAULT_TIER;
+        return tierRates.containsKey(tier) ? tier : DEFAULT_TIER;
+    }
+
+    public double rateFor(String tier) {
+        return tierRates.getOrDefault(tier, 2.0);
+    }
+
+    public int burstFor(String tier) {
+        return tierBursts.getOrDefault(tier, 30);
+    }
+}
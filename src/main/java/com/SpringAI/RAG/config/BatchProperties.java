@@ -0,0 +1,23 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the batch question API: the most questions one request may carry and how
+ * many of its completions run at the same time.
+ */
+@ConfigurationProperties(prefix = "rag.batch")
+@Validated
+public record BatchProperties(
+        @Min(1) @Max(2048) Integer maxQuestions,
+        @Min(1) @Max(64) Integer concurrency
+) {
+    // Constructor with default values
+    public BatchProperties {
+        maxQuestions = maxQuestions != null ? maxQuestions : 200;
+        concurrency = concurrency != null ? concurrency : 8;
+    }
+}
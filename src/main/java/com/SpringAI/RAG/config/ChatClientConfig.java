@@ -0,0 +1,16 @@
+package com.SpringAI.RAG.config;
+
+import com.SpringAI.RAG.utils.PromptCacheMetricsAdvisor;
+import org.springframework.ai.chat.client.ChatClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChatClientConfig {
+
+    // Applied to every ChatClient.Builder the services receive
+    @Bean
+    public ChatClientCustomizer promptCacheMetricsCustomizer(PromptCacheMetricsAdvisor promptCacheMetricsAdvisor) {
+        return builder -> builder.defaultAdvisors(promptCacheMetricsAdvisor);
+    }
+}
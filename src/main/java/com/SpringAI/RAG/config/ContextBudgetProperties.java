@@ -0,0 +1,34 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Token budgets for the retrieved context spliced into RAG prompts.
+ * Budgets are keyed by bot name (chat, blog, web); bots without an entry use the default budget.
+ */
+@ConfigurationProperties(prefix = "rag.context")
+@Validated
+public record ContextBudgetProperties(
+        Map<String, Integer> budgets,
+        @Min(1) Integer defaultBudget,
+        @DecimalMin(value = "0.0") @DecimalMax(value = "1.0") Double overlapThreshold,
+        @Min(0) Integer minPartialChunkTokens
+) {
+    // Constructor with default values
+    public ContextBudgetProperties {
+        budgets = budgets != null ? Map.copyOf(budgets) : Map.of("chat", 3000, "blog", 2500, "web", 3000);
+        defaultBudget = defaultBudget != null ? defaultBudget : 3000;
+        overlapThreshold = overlapThreshold != null ? overlapThreshold : 0.8;
+        minPartialChunkTokens = minPartialChunkTokens != null ? minPartialChunkTokens : 64;
+    }
+
+    public int budgetFor(String bot) {
+        return budgets.getOrDefault(bot, defaultBudget);
+    }
+}
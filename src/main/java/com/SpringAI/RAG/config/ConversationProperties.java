@@ -0,0 +1,29 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for server-side conversation sessions: the token budget of the verbatim turn
+ * window sent with each prompt, the size of the rolling summary that replaces older turns, how many
+ * sessions stay in memory, and how long idle sessions are kept in Postgres.
+ */
+@ConfigurationProperties(prefix = "rag.conversation")
+@Validated
+public record ConversationProperties(
+        @Min(100) Integer windowTokens,
+        @Min(50) Integer summaryMaxTokens,
+        @Min(0) Integer minRecentTurns,
+        @Min(1) Integer hotSessions,
+        @Min(1) Integer retentionDays
+) {
+    // Constructor with default values
+    public ConversationProperties {
+        windowTokens = windowTokens != null ? windowTokens : 1500;
+        summaryMaxTokens = summaryMaxTokens != null ? summaryMaxTokens : 300;
+        minRecentTurns = minRecentTurns != null ? minRecentTurns : 2;
+        hotSessions = hotSessions != null ? hotSessions : 10_000;
+        retentionDays = retentionDays != null ? retentionDays : 30;
+    }
+}
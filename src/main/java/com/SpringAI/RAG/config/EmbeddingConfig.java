@@ -1,9 +1,15 @@
 package com.SpringAI.RAG.config;
 
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import com.SpringAI.RAG.vectorstore.HnswVectorReplica;
+import com.SpringAI.RAG.vectorstore.ReplicatedVectorStore;
+import com.SpringAI.RAG.vectorstore.TenantVectorStoreRouter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.transformer.splitter.TokenTextSplitter;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -12,12 +18,30 @@ import org.springframework.jdbc.core.JdbcTemplate;
 public class EmbeddingConfig {
 
     @Bean(name = "customVectorStore")
-    public VectorStore vectorStore(EmbeddingModel embeddingClient, JdbcTemplate jdbcTemplate) {
-        return PgVectorStore.builder(jdbcTemplate, embeddingClient).build();
+    public VectorStore vectorStore(EmbeddingModel embeddingClient, JdbcTemplate jdbcTemplate,
+                                   ObjectProvider<HnswVectorReplica> replica, MeterRegistry meterRegistry,
+                                   TenantRegistry tenantRegistry) {
+        VectorStore shared = sharedVectorStore(embeddingClient, jdbcTemplate, replica.getIfAvailable(), meterRegistry);
+        // Route tenant requests to their own tables when rag.tenancy.enabled=true
+        if (!tenantRegistry.isEnabled()) {
+            return shared;
+        }
+        return new TenantVectorStoreRouter(shared, tenantRegistry, jdbcTemplate, embeddingClient);
+    }
+
+    private VectorStore sharedVectorStore(EmbeddingModel embeddingClient, JdbcTemplate jdbcTemplate,
+                                          HnswVectorReplica hnswReplica, MeterRegistry meterRegistry) {
+        PgVectorStore pgVectorStore = PgVectorStore.builder(jdbcTemplate, embeddingClient).build();
+        // Serve reads from the in-process HNSW replica when rag.replica.enabled=true
+        if (hnswReplica == null) {
+            return pgVectorStore;
+        }
+        pgVectorStore.afterPropertiesSet();
+        return new ReplicatedVectorStore(pgVectorStore, hnswReplica, embeddingClient, meterRegistry);
     }
 
     @Bean
     public TokenTextSplitter tokenTextSplitter() {
         return new TokenTextSplitter();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Set;
+
+/**
+ * Configuration properties for hedged model calls. Bots listed in {@code bots} fire a duplicate request when
+ * the first has not answered by the given percentile of their recent latency; the hedge budget allows that
+ * for at most {@code budgetPercent} of requests (with bursts up to {@code budgetBurst} hedges).
+ */
+@ConfigurationProperties(prefix = "rag.hedging")
+@Validated
+public record HedgingProperties(
+        Set<String> bots,
+        @DecimalMin(value = "0.5") @DecimalMax(value = "0.999") Double percentile,
+        @DecimalMin(value = "0.0") @DecimalMax(value = "100.0") Double budgetPercent,
+        @Min(1) Integer budgetBurst,
+        @Min(1) Integer minSamples,
+        @Min(0) Long minDelayMs,
+        @Min(10) Long windowSeconds
+) {
+    // Constructor with default values
+    public HedgingProperties {
+        bots = bots != null ? Set.copyOf(bots) : Set.of();
+        percentile = percentile != null ? percentile : 0.95;
+        budgetPercent = budgetPercent != null ? budgetPercent : 5.0;
+        budgetBurst = budgetBurst != null ? budgetBurst : 10;
+        minSamples = minSamples != null ? minSamples : 50;
+        minDelayMs = minDelayMs != null ? minDelayMs : 250L;
+        windowSeconds = windowSeconds != null ? windowSeconds : 300L;
+    }
+}
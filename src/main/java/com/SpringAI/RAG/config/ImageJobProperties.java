@@ -0,0 +1,35 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for asynchronous image generation. {@code workers} images are generated at once
+ * and at most {@code maxQueuedJobs} wait for a worker; generated images are kept in {@code storageDir} for
+ * {@code cacheRetentionDays} after their last use, and finished jobs are forgotten after
+ * {@code jobRetentionMinutes}.
+ */
+@ConfigurationProperties(prefix = "rag.images")
+@Validated
+public record ImageJobProperties(
+        String model,
+        String quality,
+        @Min(1) @Max(32) Integer workers,
+        @Min(0) Integer maxQueuedJobs,
+        String storageDir,
+        @Min(1) Integer cacheRetentionDays,
+        @Min(1) Integer jobRetentionMinutes
+) {
+    // Constructor with default values
+    public ImageJobProperties {
+        model = model != null ? model : "dall-e-3";
+        quality = quality != null ? quality : "standard";
+        workers = workers != null ? workers : 2;
+        maxQueuedJobs = maxQueuedJobs != null ? maxQueuedJobs : 50;
+        storageDir = storageDir != null ? storageDir : "data/images";
+        cacheRetentionDays = cacheRetentionDays != null ? cacheRetentionDays : 30;
+        jobRetentionMinutes = jobRetentionMinutes != null ? jobRetentionMinutes : 60;
+    }
+}
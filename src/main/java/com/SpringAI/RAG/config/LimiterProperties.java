@@ -0,0 +1,50 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Configuration properties for the adaptive concurrency limiter in front of the OpenAI API and the retry
+ * policy of the calls that pass through it. Initial limits are keyed by model family (chat, embedding,
+ * moderation, image, audio); families without an entry start at {@code defaultInitialLimit}.
+ */
+@ConfigurationProperties(prefix = "rag.limiter")
+@Validated
+public record LimiterProperties(
+        Boolean enabled,
+        Map<String, Integer> initialLimits,
+        @Min(1) Integer defaultInitialLimit,
+        @Min(1) Integer minLimit,
+        @Min(1) Integer maxLimit,
+        @Min(0) Integer maxQueue,
+        @Min(0) Long queueTimeoutMs,
+        @DecimalMin(value = "0.1") @DecimalMax(value = "0.9") Double backoffRatio,
+        @Min(0) Integer maxRetries,
+        @Min(1) Long retryInitialIntervalMs,
+        @Min(1) Long retryMaxIntervalMs
+) {
+    // Constructor with default values
+    public LimiterProperties {
+        enabled = enabled != null ? enabled : true;
+        initialLimits = initialLimits != null ? Map.copyOf(initialLimits)
+                : Map.of("chat", 16, "embedding", 32, "moderation", 32, "image", 4, "audio", 4);
+        defaultInitialLimit = defaultInitialLimit != null ? defaultInitialLimit : 8;
+        minLimit = minLimit != null ? minLimit : 1;
+        maxLimit = maxLimit != null ? maxLimit : 128;
+        maxQueue = maxQueue != null ? maxQueue : 256;
+        queueTimeoutMs = queueTimeoutMs != null ? queueTimeoutMs : 30_000L;
+        backoffRatio = backoffRatio != null ? backoffRatio : 0.5;
+        maxRetries = maxRetries != null ? maxRetries : 3;
+        retryInitialIntervalMs = retryInitialIntervalMs != null ? retryInitialIntervalMs : 500L;
+        retryMaxIntervalMs = retryMaxIntervalMs != null ? retryMaxIntervalMs : 10_000L;
+    }
+
+    public int initialLimitFor(String family) {
+        return initialLimits.getOrDefault(family, defaultInitialLimit);
+    }
+}
@@ -0,0 +1,51 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for the complexity-based model router: the fast and strong model profiles, the
+ * size thresholds above which a request counts as complex, per-bot score offsets (positive leans strong),
+ * the keywords that suggest deeper reasoning, and the markers of an uncertain fast answer that trigger a
+ * retry on the strong model.
+ */
+@ConfigurationProperties(prefix = "rag.routing")
+@Validated
+public record ModelRoutingProperties(
+        Boolean enabled,
+        String fastModel,
+        String strongModel,
+        @Min(0) Integer strongScore,
+        @Min(1) Integer maxFastQuestionTokens,
+        @Min(1) Integer maxFastContextTokens,
+        Map<String, Integer> botBias,
+        List<String> complexKeywords,
+        List<String> uncertaintyMarkers,
+        @Min(0) Integer minAnswerLength
+) {
+    // Constructor with default values
+    public ModelRoutingProperties {
+        enabled = enabled != null ? enabled : true;
+        fastModel = fastModel != null ? fastModel : "gpt-4o-mini";
+        strongModel = strongModel != null ? strongModel : "gpt-4o";
+        strongScore = strongScore != null ? strongScore : 2;
+        maxFastQuestionTokens = maxFastQuestionTokens != null ? maxFastQuestionTokens : 60;
+        maxFastContextTokens = maxFastContextTokens != null ? maxFastContextTokens : 1500;
+        botBias = botBias != null ? Map.copyOf(botBias) : Map.of("blog", 2, "code", 2, "weather", -1);
+        complexKeywords = complexKeywords != null ? List.copyOf(complexKeywords) : List.of(
+                "compare", "analy", "explain why", "step by step", "derive", "prove", "trade-off", "tradeoff",
+                "pros and cons", "design", "architecture", "evaluate", "optimi", "debug", "refactor", "implications");
+        uncertaintyMarkers = uncertaintyMarkers != null ? List.copyOf(uncertaintyMarkers) : List.of(
+                "i'm not sure", "i am not sure", "i don't know", "i do not know", "cannot be determined",
+                "i'm unable to", "i am unable to", "unclear from");
+        minAnswerLength = minAnswerLength != null ? minAnswerLength : 20;
+    }
+
+    public int biasFor(String bot) {
+        return botBias.getOrDefault(bot, 0);
+    }
+}
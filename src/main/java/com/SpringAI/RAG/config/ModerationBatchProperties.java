@@ -0,0 +1,28 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for micro-batched moderation. Concurrent checks are sent together, up to
+ * {@code maxBatchSize} texts per request; a check waits at most {@code maxWaitMs} for companions, and only
+ * while {@code maxInFlight} batches are already on their way.
+ */
+@ConfigurationProperties(prefix = "rag.moderation-batch")
+@Validated
+public record ModerationBatchProperties(
+        Boolean enabled,
+        @Min(1) @Max(256) Integer maxBatchSize,
+        @Min(0) @Max(1000) Integer maxWaitMs,
+        @Min(1) Integer maxInFlight
+) {
+    // Constructor with default values
+    public ModerationBatchProperties {
+        enabled = enabled != null ? enabled : true;
+        maxBatchSize = maxBatchSize != null ? maxBatchSize : 32;
+        maxWaitMs = maxWaitMs != null ? maxWaitMs : 20;
+        maxInFlight = maxInFlight != null ? maxInFlight : 1;
+    }
+}
@@ -0,0 +1,26 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the moderation score cache: up to {@code size} entries in memory for
+ * {@code ttlMinutes}, optionally backed by a Postgres table shared by all instances ({@code sharedEnabled}).
+ */
+@ConfigurationProperties(prefix = "rag.moderation-cache")
+@Validated
+public record ModerationCacheProperties(
+        Boolean enabled,
+        @Min(1) Integer size,
+        @Min(1) Integer ttlMinutes,
+        Boolean sharedEnabled
+) {
+    // Constructor with default values
+    public ModerationCacheProperties {
+        enabled = enabled != null ? enabled : true;
+        size = size != null ? size : 10_000;
+        ttlMinutes = ttlMinutes != null ? ttlMinutes : 1440;
+        sharedEnabled = sharedEnabled != null ? sharedEnabled : false;
+    }
+}
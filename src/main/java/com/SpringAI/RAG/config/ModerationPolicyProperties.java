@@ -0,0 +1,21 @@
+package com.SpringAI.RAG.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for per-bot moderation profiles: the properties file they are read from and
+ * whether changes to it are picked up while running.
+ */
+@ConfigurationProperties(prefix = "rag.moderation-policy")
+@Validated
+public record ModerationPolicyProperties(
+        String location,
+        Boolean reloadEnabled
+) {
+    // Constructor with default values
+    public ModerationPolicyProperties {
+        location = location != null ? location : "classpath:moderation/policies.properties";
+        reloadEnabled = reloadEnabled != null ? reloadEnabled : true;
+    }
+}
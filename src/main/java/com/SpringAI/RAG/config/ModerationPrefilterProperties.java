@@ -0,0 +1,38 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+/**
+ * Configuration properties for the local moderation prefilter. Terms come from {@code blocklistLocation}
+ * plus {@code blocklist}; inputs of at most {@code safeMaxChars} without any term from
+ * {@code sensitiveTermsLocation} count as clearly safe when {@code allowShortInputs} is on. In
+ * {@code SHADOW} mode the local decisions are only compared with the remote verdicts; {@code ENFORCE}
+ * acts on them.
+ */
+@ConfigurationProperties(prefix = "rag.moderation-prefilter")
+@Validated
+public record ModerationPrefilterProperties(
+        @NotNull Mode mode,
+        String blocklistLocation,
+        List<String> blocklist,
+        Boolean allowShortInputs,
+        String sensitiveTermsLocation,
+        @Min(1) Integer safeMaxChars
+) {
+    public enum Mode { OFF, SHADOW, ENFORCE }
+
+    // Constructor with default values
+    public ModerationPrefilterProperties {
+        mode = mode != null ? mode : Mode.SHADOW;
+        blocklistLocation = blocklistLocation != null ? blocklistLocation : "classpath:moderation/blocklist.txt";
+        blocklist = blocklist != null ? blocklist : List.of();
+        allowShortInputs = allowShortInputs != null ? allowShortInputs : true;
+        sensitiveTermsLocation = sensitiveTermsLocation != null ? sensitiveTermsLocation : "classpath:moderation/sensitive-terms.txt";
+        safeMaxChars = safeMaxChars != null ? safeMaxChars : 80;
+    }
+}
@@ -0,0 +1,119 @@
+package com.SpringAI.RAG.config;
+
+import com.SpringAI.RAG.utils.AdaptiveConcurrencyLimiter;
+import com.SpringAI.RAG.utils.AdaptiveConcurrencyLimiter.Permit;
+import com.SpringAI.RAG.utils.AdaptiveConcurrencyLimiter.Signal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+/**
+ * Puts every OpenAI call made by the Spring AI models behind the {@link AdaptiveConcurrencyLimiter}. The models
+ * are built from the Boot {@code RestClient}/{@code WebClient} builders, so the customizers here reach chat,
+ * embedding, moderation, image and speech calls; other hosts (the weather API) pass through untouched.
+ * <p>
+ * The {@link RetryTemplate} replaces Spring AI's default: it retries transient errors and 429s (with
+ * {@code spring.ai.retry.on-http-codes=429}) using jittered exponential backoff, and since each attempt is a
+ * new HTTP exchange, every retry waits for a permit like any other call.
+ */
+@Configuration
+public class OpenAiClientConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenAiClientConfig.class);
+
+    @Bean
+    public RestClientCustomizer limitedOpenAiRestClient(AdaptiveConcurrencyLimiter limiter) {
+        return builder -> builder.requestInterceptor((request, body, execution) -> {
+            String family = AdaptiveConcurrencyLimiter.familyOf(request.getURI());
+            if (family == null || !limiter.isEnabled()) {
+                return execution.execute(request, body);
+            }
+            Permit permit = limiter.acquire(family);
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                permit.release(signalFor(response.getStatusCode().value()));
+                return response;
+            } catch (SocketTimeoutException | HttpTimeoutException e) {
+                permit.release(Signal.DROPPED);
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                permit.release(Signal.IGNORE);
+                throw e;
+            }
+        });
+    }
+
+    // Streaming chat: the permit is held until the streamed body ends, latency is measured to the headers.
+    @Bean
+    public WebClientCustomizer limitedOpenAiWebClient(AdaptiveConcurrencyLimiter limiter) {
+        return builder -> builder.filter((request, next) -> {
+            String family = AdaptiveConcurrencyLimiter.familyOf(request.url());
+            if (family == null || !limiter.isEnabled()) {
+                return next.exchange(request);
+            }
+            // Queued without a thread: cancelling the exchange cancels the wait and frees the queue slot
+            return Mono.fromFuture(() -> limiter.acquireAsync(family))
+                    .flatMap(permit -> next.exchange(request)
+                            .map(response -> holdUntilBodyEnds(response, permit))
+                            .doOnError(e -> permit.release(Signal.IGNORE))
+                            .doOnCancel(() -> permit.release(Signal.IGNORE)));
+        });
+    }
+
+    @Bean
+    public RetryTemplate retryTemplate(LimiterProperties properties, MeterRegistry meterRegistry) {
+        Counter failures = Counter.builder("rag.limiter.attempt-failures").register(meterRegistry);
+        return RetryTemplate.builder()
+                .maxAttempts(properties.maxRetries() + 1)
+                .retryOn(TransientAiException.class)
+                .retryOn(ResourceAccessException.class)
+                .exponentialBackoff(Duration.ofMillis(properties.retryInitialIntervalMs()), 2.0,
+                        Duration.ofMillis(properties.retryMaxIntervalMs()), true)
+                .withListener(new RetryListener() {
+                    @Override
+                    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                        failures.increment();
+                        log.warn("OpenAI call attempt {} failed: {}", context.getRetryCount(), throwable.getMessage());
+                    }
+                })
+                .build();
+    }
+
+    private static ClientResponse holdUntilBodyEnds(ClientResponse response, Permit permit) {
+        permit.responded();
+        Signal signal = signalFor(response.statusCode().value());
+        if (signal != Signal.SUCCESS) {
+            permit.release(signal);
+            return response;
+        }
+        return response.mutate()
+                .body(body -> body.doFinally(type -> permit.release(Signal.SUCCESS)))
+                .build();
+    }
+
+    private static Signal signalFor(int status) {
+        if (status == 429 || status == 503) {
+            return Signal.DROPPED;
+        }
+        return status >= 400 ? Signal.IGNORE : Signal.SUCCESS;
+    }
+}
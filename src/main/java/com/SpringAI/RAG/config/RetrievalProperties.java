@@ -0,0 +1,45 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the retrieval pipeline: how many candidates to over-fetch from the
+ * vector store, how many survive lexical reranking, the BM25 / boost parameters used to rank them, and
+ * the optional document-summary tier searched before the chunks.
+ */
+@ConfigurationProperties(prefix = "rag.retrieval")
+@Validated
+public record RetrievalProperties(
+        Boolean rerankEnabled,
+        @Min(1) Integer candidateCount,
+        @Min(1) Integer finalTopK,
+        @Min(256) Integer rerankMaxChars,
+        @DecimalMin(value = "0.0") Double bm25K1,
+        @DecimalMin(value = "0.0") @DecimalMax(value = "1.0") Double bm25B,
+        @DecimalMin(value = "0.0") @DecimalMax(value = "1.0") Double vectorWeight,
+        @DecimalMin(value = "0.0") Double headingBoost,
+        @DecimalMin(value = "0.0") Double metadataBoost,
+        Boolean twoTierEnabled,
+        @Min(1) Integer summaryTopK,
+        @Min(16) Integer summaryMaxTokens
+) {
+    // Constructor with default values
+    public RetrievalProperties {
+        rerankEnabled = rerankEnabled != null ? rerankEnabled : true;
+        candidateCount = candidateCount != null ? candidateCount : 50;
+        finalTopK = finalTopK != null ? finalTopK : 6;
+        rerankMaxChars = rerankMaxChars != null ? rerankMaxChars : 8192;
+        bm25K1 = bm25K1 != null ? bm25K1 : 1.2;
+        bm25B = bm25B != null ? bm25B : 0.75;
+        vectorWeight = vectorWeight != null ? vectorWeight : 0.5;
+        headingBoost = headingBoost != null ? headingBoost : 0.3;
+        metadataBoost = metadataBoost != null ? metadataBoost : 0.2;
+        twoTierEnabled = twoTierEnabled != null ? twoTierEnabled : false;
+        summaryTopK = summaryTopK != null ? summaryTopK : 8;
+        summaryMaxTokens = summaryMaxTokens != null ? summaryMaxTokens : 256;
+    }
+}
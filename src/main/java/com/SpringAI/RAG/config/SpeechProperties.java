@@ -0,0 +1,28 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the streamed voice pipeline. The script is cut into segments of at least
+ * {@code minSegmentChars} (ending on a sentence boundary) and at most {@code maxSegmentChars}; up to
+ * {@code maxInFlight} segments per request are synthesized or waiting to be written at any time.
+ */
+@ConfigurationProperties(prefix = "rag.speech")
+@Validated
+public record SpeechProperties(
+        String model,
+        @Min(1) @Max(16) Integer maxInFlight,
+        @Min(1) Integer minSegmentChars,
+        @Min(50) @Max(4096) Integer maxSegmentChars
+) {
+    // Constructor with default values
+    public SpeechProperties {
+        model = model != null ? model : "tts-1-hd";
+        maxInFlight = maxInFlight != null ? maxInFlight : 3;
+        minSegmentChars = minSegmentChars != null ? minSegmentChars : 40;
+        maxSegmentChars = maxSegmentChars != null ? maxSegmentChars : 600;
+    }
+}
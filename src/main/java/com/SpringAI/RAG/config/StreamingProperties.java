@@ -0,0 +1,22 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for the SSE streaming endpoints: how long a stream may stay open and how often
+ * an idle stream sends a heartbeat comment so proxies do not close it while the model is still thinking.
+ */
+@ConfigurationProperties(prefix = "rag.streaming")
+@Validated
+public record StreamingProperties(
+        @Min(1000) Long timeoutMs,
+        @Min(1000) Long heartbeatIntervalMs
+) {
+    // Constructor with default values
+    public StreamingProperties {
+        timeoutMs = timeoutMs != null ? timeoutMs : 300_000L;
+        heartbeatIntervalMs = heartbeatIntervalMs != null ? heartbeatIntervalMs : 15_000L;
+    }
+}
@@ -0,0 +1,26 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for tenant-partitioned vector storage. Each registered tenant gets its own
+ * table (and HNSW index) named {@code tablePrefix + tenantId}. A request's tenant is the one its API client
+ * is bound to; {@code header} may only repeat it. Clients without a tenant keep using the shared vector_store
+ * table.
+ */
+@ConfigurationProperties(prefix = "rag.tenancy")
+@Validated
+public record TenantProperties(
+        Boolean enabled,
+        @NotBlank String header,
+        @NotBlank String tablePrefix
+) {
+    // Constructor with default values
+    public TenantProperties {
+        enabled = enabled != null ? enabled : false;
+        header = header != null ? header : "X-Tenant-Id";
+        tablePrefix = tablePrefix != null ? tablePrefix : "vector_store_t_";
+    }
+}
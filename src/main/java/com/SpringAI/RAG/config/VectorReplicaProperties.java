@@ -0,0 +1,45 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+/**
+ * Configuration properties for the optional in-process HNSW replica of vector_store.
+ * Postgres stays the source of truth; the replica only serves reads it fully covers.
+ */
+@ConfigurationProperties(prefix = "rag.replica")
+@Validated
+public record VectorReplicaProperties(
+        Boolean enabled,
+        List<String> collections,
+        @Min(2) Integer maxConnections,
+        @Min(1) Integer efConstruction,
+        @Min(1) Integer efSearch,
+        @Min(100) Long pollIntervalMs,
+        @Min(1) Integer changeLogRetentionMinutes,
+        @DecimalMin(value = "0.0") @DecimalMax(value = "1.0") Double rebuildDeletedRatio
+) {
+    // Constructor with default values
+    public VectorReplicaProperties {
+        enabled = enabled != null ? enabled : false;
+        collections = collections != null ? List.copyOf(collections) : List.of();
+        maxConnections = maxConnections != null ? maxConnections : 16;
+        efConstruction = efConstruction != null ? efConstruction : 200;
+        efSearch = efSearch != null ? efSearch : 64;
+        pollIntervalMs = pollIntervalMs != null ? pollIntervalMs : 2000L;
+        changeLogRetentionMinutes = changeLogRetentionMinutes != null ? changeLogRetentionMinutes : 60;
+        rebuildDeletedRatio = rebuildDeletedRatio != null ? rebuildDeletedRatio : 0.25;
+    }
+
+    /**
+     * An empty collection list means the replica mirrors the whole table and serves unfiltered searches.
+     */
+    public boolean mirrorsWholeTable() {
+        return collections.isEmpty();
+    }
+}
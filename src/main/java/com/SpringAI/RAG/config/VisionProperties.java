@@ -0,0 +1,34 @@
+package com.SpringAI.RAG.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration properties for imageDetectionBot uploads. Images are scaled down to fit
+ * {@code maxLongSide} x {@code maxShortSide} (what the vision model resizes to anyway) and re-encoded;
+ * uploads above {@code maxPixels} are rejected before decoding. Analyses are cached for
+ * {@code cacheTtlMinutes}, at most {@code cacheSize} of them.
+ */
+@ConfigurationProperties(prefix = "rag.vision")
+@Validated
+public record VisionProperties(
+        @Min(64) Integer maxLongSide,
+        @Min(64) Integer maxShortSide,
+        @Min(1) Long maxPixels,
+        @DecimalMin(value = "0.1") @DecimalMax(value = "1.0") Float jpegQuality,
+        @Min(0) Integer cacheSize,
+        @Min(1) Long cacheTtlMinutes
+) {
+    // Constructor with default values
+    public VisionProperties {
+        maxLongSide = maxLongSide != null ? maxLongSide : 2048;
+        maxShortSide = maxShortSide != null ? maxShortSide : 768;
+        maxPixels = maxPixels != null ? maxPixels : 60_000_000L;
+        jpegQuality = jpegQuality != null ? jpegQuality : 0.85f;
+        cacheSize = cacheSize != null ? cacheSize : 1000;
+        cacheTtlMinutes = cacheTtlMinutes != null ? cacheTtlMinutes : 1440L;
+    }
+}
@@ -1,16 +1,30 @@
 package com.SpringAI.RAG.controller;
 
+import com.SpringAI.RAG.dto.BatchQuestionRequest;
 import com.SpringAI.RAG.dto.BlogPostResponseDTO;
+import com.SpringAI.RAG.dto.ImageJobResponse;
+import com.SpringAI.RAG.dto.SessionResponse;
 import com.SpringAI.RAG.dto.WebDataRequest;
+import com.SpringAI.RAG.image.ImageJobService;
+import com.SpringAI.RAG.image.ImageStore;
 import com.SpringAI.RAG.service.ChatService;
 import com.SpringAI.RAG.service.WebDataService;
+import com.SpringAI.RAG.utils.SseStreamer;
+import com.SpringAI.RAG.vectorstore.ChunkMetadata;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -19,29 +33,80 @@ public class ChatController {
 
     private final ChatService chatService;
    private final WebDataService webDataService;
+    private final SseStreamer sseStreamer;
+    private final ImageJobService imageJobService;
+    private final ImageStore imageStore;
 
-    public ChatController(ChatService chatService, WebDataService webDataService) {
+    public ChatController(ChatService chatService, WebDataService webDataService, SseStreamer sseStreamer,
+                          ImageJobService imageJobService, ImageStore imageStore) {
         this.chatService = chatService;
         this.webDataService = webDataService;
+        this.sseStreamer = sseStreamer;
+        this.imageJobService = imageJobService;
+        this.imageStore = imageStore;
     }
 
     @PostMapping("/pdfStore")
     @Operation(summary = "Initialize the vector_store with PDF data", description = "Uploads a PDF file and processes it into the vector store.")
-    public ResponseEntity<String> initializeVectorStore(@RequestParam("file") MultipartFile file) {
-        chatService.initializeVectorStore(file);
+    public ResponseEntity<String> initializeVectorStore(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(value = "collection", defaultValue = ChunkMetadata.DOCS_COLLECTION) String collection) {
+        chatService.initializeVectorStore(file, collection);
         return ResponseEntity.ok("Vector store initialized with the PDF data successfully.");
     }
 
     @PostMapping("/chatBot")
-    @Operation(summary = "Query the chatBot", description = "Send a query to the chatbot and get a response.")
-    public ResponseEntity<String> queryChat(@RequestParam("message") String message) {
-        return chatService.chatBotForVectorStore(message);
+    @Operation(summary = "Query the chatBot", description = "Send a query to the chatbot and get a response. "
+            + "An optional filter narrows retrieval, e.g. collection == 'docs' && page_number >= 10, "
+            + "over source, page_number, section_path, ingested_at and collection. "
+            + "With a sessionId from POST /sessions the server keeps the conversation, so only the new message needs to be sent.")
+    public ResponseEntity<String> queryChat(@RequestParam("message") String message,
+                                            @RequestParam(value = "filter", required = false) String filter,
+                                            @RequestParam(value = "sessionId", required = false) String sessionId) {
+        return chatService.chatBotForVectorStore(message, filter, sessionId);
+    }
+
+    @PostMapping(value = "/chatBot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the chatBot answer", description = "Same as /chatBot, streamed as SSE token events ({\"text\": \"...\"}) followed by a usage event.")
+    public SseEmitter streamChat(@RequestParam("message") String message,
+                                 @RequestParam(value = "filter", required = false) String filter,
+                                 @RequestParam(value = "sessionId", required = false) String sessionId) {
+        return sseStreamer.stream("chatBot", () -> chatService.chatBotStream(message, filter, sessionId));
+    }
+
+    @PostMapping(value = "/chatBot/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Ask the chatBot many questions",
+            description = "Answers up to rag.batch.max-questions questions with one moderation call and one retrieval query. "
+                    + "Streams NDJSON lines {index, question, answer | error} as answers complete.")
+    public ResponseEntity<StreamingResponseBody> batchChat(@RequestBody BatchQuestionRequest request) {
+        return chatService.chatBotBatch(request.getQuestions(), request.getFilter());
+    }
+
+    @PostMapping("/sessions")
+    @Operation(summary = "Start a chatBot conversation", description = "Issues a session id to pass as sessionId to /chatBot and /chatBot/stream.")
+    public ResponseEntity<SessionResponse> createSession() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(new SessionResponse(chatService.createSession()));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    @Operation(summary = "End a chatBot conversation", description = "Deletes the stored history and summary of a conversation session.")
+    public ResponseEntity<Void> deleteSession(@PathVariable String sessionId) {
+        chatService.deleteSession(sessionId);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/blogGenerationBot")
     @Operation(summary = "Query the blogGenerationBot", description = "Send a query to the blogGenerationBot and get a response.")
-    public BlogPostResponseDTO blogGenerationBot(@RequestParam("message") String message) {
-        return chatService.blogPostBot(message);
+    public BlogPostResponseDTO blogGenerationBot(@RequestParam("message") String message,
+                                                 @RequestParam(value = "filter", required = false) String filter) {
+        return chatService.blogPostBot(message, filter);
+    }
+
+    @PostMapping(value = "/blogGenerationBot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the blogGenerationBot post",
+            description = "Same as /blogGenerationBot, streamed as SSE field events (one per completed field), a result event with the validated post and a usage event.")
+    public SseEmitter streamBlogGeneration(@RequestParam("message") String message,
+                                           @RequestParam(value = "filter", required = false) String filter) {
+        return sseStreamer.streamStructured("blogBot", () -> chatService.blogPostBotStream(message, filter), BlogPostResponseDTO.class);
     }
 
     @PostMapping(value = "/imageDetectionBot", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -58,12 +123,51 @@ public class ChatController {
         return chatService.ImageGenerationBot(message);
     }
 
+    @PostMapping("/imageJobs")
+    @Operation(summary = "Submit an image generation job",
+            description = "Returns 202 with the job to poll, or 200 with a completed job when the image is already cached.")
+    public ResponseEntity<ImageJobResponse> submitImageJob(@RequestParam("message") String message) {
+        ImageJobResponse job = imageJobService.describe(imageJobService.submit(message));
+        if ("COMPLETED".equals(job.status())) {
+            return ResponseEntity.ok(job);
+        }
+        return ResponseEntity.accepted().location(URI.create("/api/chat/imageJobs/" + job.id())).body(job);
+    }
+
+    @GetMapping("/imageJobs/{id}")
+    @Operation(summary = "Poll an image generation job")
+    public ImageJobResponse imageJob(@PathVariable String id) {
+        return imageJobService.describe(imageJobService.find(id));
+    }
+
+    @GetMapping(value = "/imageJobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Wait for an image generation job", description = "SSE status events: the current state, then the final one.")
+    public SseEmitter imageJobEvents(@PathVariable String id) {
+        return imageJobService.events(id);
+    }
+
+    @GetMapping(value = "/images/{fileName}", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(summary = "Download a generated image")
+    public ResponseEntity<Resource> image(@PathVariable String fileName) {
+        // Names are content hashes, so a stored image never changes
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePublic().immutable())
+                .body(imageStore.load(fileName));
+    }
+
     @PostMapping("/voiceGenerationBot")
     @Operation(summary = "Query the voiceGenerationBot", description = "Send a query to the voiceGenerationBot and get a response.")
     public ResponseEntity<byte[]> voiceGenerationBot(@RequestParam("message") String message) {
         return chatService.VoiceGenerationBot(message);
     }
 
+    @PostMapping(value = "/voiceGenerationBot/stream", produces = "audio/mpeg")
+    @Operation(summary = "Stream the voiceGenerationBot audio",
+            description = "Same as /voiceGenerationBot, but the MP3 is streamed sentence by sentence as it is synthesized.")
+    public ResponseEntity<StreamingResponseBody> streamVoiceGeneration(@RequestParam("message") String message) {
+        return chatService.voiceGenerationStream(message);
+    }
+
     @PostMapping("/codeBot")
     @Operation(summary = "Query the codeGenerationBot to generate code", description = "Send a prompt to the codeGenerationBot to generate code")
     public ResponseEntity<String> codeGenerationBot(@RequestParam("prompt") String prompt) {
@@ -71,12 +175,19 @@ public class ChatController {
         return ResponseEntity.ok(code);
     }
 
+    @PostMapping(value = "/codeBot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream generated code", description = "Same as /codeBot, streamed as SSE token events ({\"text\": \"...\"}) followed by a usage event.")
+    public SseEmitter streamCodeGeneration(@RequestParam("prompt") String prompt) {
+        return sseStreamer.stream("codeBot", () -> chatService.codeGeneratorBotStream(prompt));
+    }
+
     @PostMapping("/crawlWeb/store")
     @Operation(summary = "Crawl a website and store content in vector_store",
             description = "Crawl a website and store the extracted content")
     public ResponseEntity<String> crawlAndStoreContent(@RequestBody WebDataRequest request) throws IOException {
         List<String> contentList = webDataService.crawlAndExtractContent(request.getUrl());
-        webDataService.storeContent(contentList);
+        String collection = request.getCollection() != null ? request.getCollection() : ChunkMetadata.WEB_COLLECTION;
+        webDataService.storeContent(contentList, request.getUrl(), collection);
         return ResponseEntity.ok("Content crawled and stored successfully.");
     }
 
@@ -84,7 +195,14 @@ public class ChatController {
     @Operation(summary = "Search for relevant content in vector_store based on the query",
             description = "Search for content in the stored data and provide a relevant response")
     public ResponseEntity<String> queryContent(@RequestBody WebDataRequest request) {
-        String response = webDataService.queryContent(request.getQuery());
+        String response = webDataService.queryContent(request.getQuery(), request.getFilter());
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping(value = "/query/webContent/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the answer for stored web content",
+            description = "Same as /query/webContent, streamed as SSE token events ({\"text\": \"...\"}) followed by a usage event.")
+    public SseEmitter streamQueryContent(@RequestBody WebDataRequest request) {
+        return sseStreamer.stream("webContent", () -> webDataService.queryContentStream(request.getQuery(), request.getFilter()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.SpringAI.RAG.controller;
+
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import com.SpringAI.RAG.vectorstore.TenantVectorStoreRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/tenants")
+public class TenantAdminController {
+
+    private final VectorStore vectorStore;
+    private final TenantRegistry tenantRegistry;
+
+    public TenantAdminController(@Qualifier("customVectorStore") VectorStore vectorStore, TenantRegistry tenantRegistry) {
+        this.vectorStore = vectorStore;
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    @GetMapping
+    @Operation(summary = "List tenants", description = "Lists tenants that own a vector partition.")
+    public ResponseEntity<List<String>> listTenants() {
+        return ResponseEntity.ok(tenantRegistry.list());
+    }
+
+    @PostMapping("/{tenantId}")
+    @Operation(summary = "Create a tenant partition", description = "Creates the tenant's vector table and indexes. Safe to repeat.")
+    public ResponseEntity<String> createTenant(@PathVariable String tenantId) {
+        String id = tenantRegistry.normalize(tenantId);
+        router().createPartition(id);
+        return ResponseEntity.ok("Partition " + tenantRegistry.tableFor(id) + " is ready.");
+    }
+
+    @DeleteMapping("/{tenantId}")
+    @Operation(summary = "Drop a tenant partition", description = "Stops routing to the tenant and drops its vector table.")
+    public ResponseEntity<String> dropTenant(@PathVariable String tenantId) {
+        String id = tenantRegistry.normalize(tenantId);
+        router().dropPartition(id);
+        return ResponseEntity.ok("Partition " + tenantRegistry.tableFor(id) + " dropped.");
+    }
+
+    private TenantVectorStoreRouter router() {
+        if (vectorStore instanceof TenantVectorStoreRouter router) {
+            return router;
+        }
+        throw new IllegalStateException("Tenant partitioning is disabled (rag.tenancy.enabled=false)");
+    }
+}
@@ -1,8 +1,13 @@
 package com.SpringAI.RAG.controller;
 
+import com.SpringAI.RAG.dto.WeatherComparison;
 import com.SpringAI.RAG.service.serviceImpl.WeatherServiceImpl;
+import com.SpringAI.RAG.service.serviceImpl.WeatherTools;
+import com.SpringAI.RAG.utils.SseStreamer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/weather")
@@ -10,66 +15,43 @@ import org.springframework.web.bind.annotation.*;
 public class WeatherController {
 
     private final WeatherServiceImpl weatherService;
+    private final SseStreamer sseStreamer;
 
-    public WeatherController(WeatherServiceImpl weatherService) {
+    public WeatherController(WeatherServiceImpl weatherService, SseStreamer sseStreamer) {
         this.weatherService = weatherService;
+        this.sseStreamer = sseStreamer;
     }
 
     @GetMapping("/current")
-    public ResponseEntity<String> getCurrentWeather(
+    public ResponseEntity<WeatherTools.CurrentWeather> getCurrentWeather(
             @RequestParam(required = false, defaultValue = "Bangalore") String city) {
-        try {
-            String weather = weatherService.getCurrentWeatherForCity(city);
-            return ResponseEntity.ok(weather);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+        return ResponseEntity.ok(weatherService.getCurrentWeatherForCity(city));
     }
 
     @GetMapping("/forecast")
-    public ResponseEntity<String> getWeatherForecast(
+    public ResponseEntity<WeatherTools.ForecastResponse> getWeatherForecast(
             @RequestParam(required = false, defaultValue = "Bangalore") String city) {
-        try {
-            String forecast = weatherService.getWeatherForecast(city);
-            return ResponseEntity.ok(forecast);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+        return ResponseEntity.ok(weatherService.getWeatherForecast(city));
     }
 
     @GetMapping("/air-quality")
-    public ResponseEntity<String> getAirQuality(
+    public ResponseEntity<WeatherTools.AirQuality> getAirQuality(
             @RequestParam(required = false, defaultValue = "Bangalore") String city) {
-        try {
-            String airQuality = weatherService.getAirQualityInfo(city);
-            return ResponseEntity.ok(airQuality);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+        return ResponseEntity.ok(weatherService.getAirQualityInfo(city));
     }
 
     @GetMapping("/compare")
-    public ResponseEntity<String> compareWeather(
+    public ResponseEntity<WeatherComparison> compareWeather(
             @RequestParam(required = false, defaultValue = "Bangalore") String city1,
             @RequestParam(required = false, defaultValue = "Delhi") String city2) {
-        try {
-            String comparison = weatherService.compareWeatherBetweenCities(city1, city2);
-            return ResponseEntity.ok(comparison);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+        return ResponseEntity.ok(weatherService.compareWeatherBetweenCities(city1, city2));
     }
 
     @GetMapping("/coordinates")
-    public ResponseEntity<String> getWeatherByCoordinates(
+    public ResponseEntity<WeatherTools.CurrentWeather> getWeatherByCoordinates(
             @RequestParam double latitude,
             @RequestParam double longitude) {
-        try {
-            String weather = weatherService.getWeatherByCoordinates(latitude, longitude);
-            return ResponseEntity.ok(weather);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+        return ResponseEntity.ok(weatherService.getWeatherByCoordinates(latitude, longitude));
     }
 
     @PostMapping("/query")
@@ -82,19 +64,24 @@ public class WeatherController {
         }
     }
 
+    @PostMapping(value = "/query/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWeatherQuery(@RequestBody String query) {
+        return sseStreamer.stream("weatherQuery", () -> weatherService.processWeatherQueryStream(query));
+    }
+
     // Bangalore specific endpoints
     @GetMapping("/bangalore/current")
-    public ResponseEntity<String> getBangaloreWeather() {
+    public ResponseEntity<WeatherTools.CurrentWeather> getBangaloreWeather() {
         return getCurrentWeather("Bangalore,Karnataka,IN");
     }
 
     @GetMapping("/bangalore/forecast")
-    public ResponseEntity<String> getBangaloreForecast() {
+    public ResponseEntity<WeatherTools.ForecastResponse> getBangaloreForecast() {
         return getWeatherForecast("Bangalore,Karnataka,IN");
     }
 
     @GetMapping("/bangalore/air-quality")
-    public ResponseEntity<String> getBangaloreAirQuality() {
+    public ResponseEntity<WeatherTools.AirQuality> getBangaloreAirQuality() {
         return getAirQuality("Bangalore");
     }
 }
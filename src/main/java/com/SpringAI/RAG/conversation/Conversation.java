@@ -0,0 +1,106 @@
+package com.SpringAI.RAG.conversation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory state of one session: the rolling summary plus the verbatim turns not yet folded into it.
+ * Every change bumps {@code version}, which keeps out-of-order write-behind updates from overwriting newer
+ * rows in Postgres.
+ */
+final class Conversation {
+
+    record Snapshot(String summary, List<ConversationTurn> turns, long version) {
+    }
+
+    private final ArrayDeque<ConversationTurn> turns = new ArrayDeque<>();
+    private String summary;
+    private int windowTokens;
+    private long version;
+    private boolean compacting;
+
+    Conversation(String summary, List<ConversationTurn> turns, long version) {
+        this.summary = summary == null ? "" : summary;
+        this.version = version;
+        for (ConversationTurn turn : turns) {
+            this.turns.addLast(turn);
+            windowTokens += turn.tokens();
+        }
+    }
+
+    static Conversation empty() {
+        return new Conversation("", List.of(), 0);
+    }
+
+    synchronized Snapshot append(ConversationTurn turn) {
+        turns.addLast(turn);
+        windowTokens += turn.tokens();
+        version++;
+        return snapshot();
+    }
+
+    /**
+     * Summary plus the newest turns that fit in {@code maxTokens}, oldest first. Caps the prompt even while a
+     * compaction is still running or has failed.
+     */
+    synchronized Snapshot recent(int maxTokens) {
+        List<ConversationTurn> recent = new ArrayList<>();
+        int used = 0;
+        var iterator = turns.descendingIterator();
+        while (iterator.hasNext()) {
+            ConversationTurn turn = iterator.next();
+            if (used + turn.tokens() > maxTokens) {
+                break;
+            }
+            used += turn.tokens();
+            recent.add(0, turn);
+        }
+        return new Snapshot(summary, recent, version);
+    }
+
+    /**
+     * Claims the compaction of this session when the window is over {@code budgetTokens}: returns the oldest
+     * turns to fold into the summary (leaving at most half the budget and at least {@code minRecentTurns}
+     * turns verbatim), or an empty list when there is nothing to do or a compaction is already running.
+     */
+    synchronized List<ConversationTurn> beginCompaction(int budgetTokens, int minRecentTurns) {
+        if (compacting || windowTokens <= budgetTokens) {
+            return List.of();
+        }
+        List<ConversationTurn> oldest = new ArrayList<>();
+        int remaining = windowTokens;
+        for (ConversationTurn turn : turns) {
+            if (remaining <= budgetTokens / 2 || turns.size() - oldest.size() <= minRecentTurns) {
+                break;
+            }
+            oldest.add(turn);
+            remaining -= turn.tokens();
+        }
+        compacting = !oldest.isEmpty();
+        return oldest;
+    }
+
+    /** Replaces the {@code compacted} oldest turns by {@code newSummary}; turns appended meanwhile are kept. */
+    synchronized Snapshot completeCompaction(int compacted, String newSummary) {
+        for (int i = 0; i < compacted; i++) {
+            windowTokens -= turns.removeFirst().tokens();
+        }
+        summary = newSummary;
+        compacting = false;
+        version++;
+        return snapshot();
+    }
+
+    synchronized void abortCompaction() {
+        compacting = false;
+    }
+
+    synchronized String summary() {
+        return summary;
+    }
+
+    private Snapshot snapshot() {
+        return new Snapshot(summary, List.copyOf(turns), version);
+    }
+}
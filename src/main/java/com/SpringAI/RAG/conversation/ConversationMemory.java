@@ -0,0 +1,289 @@
+package com.SpringAI.RAG.conversation;
+
+import com.SpringAI.RAG.config.ConversationProperties;
+import com.SpringAI.RAG.exception.SessionNotFoundException;
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.SpringAI.RAG.utils.PromptCacheMetricsAdvisor;
+import com.SpringAI.RAG.utils.PromptTemplate;
+import com.SpringAI.RAG.utils.PromptTemplateRegistry;
+import com.SpringAI.RAG.utils.TokenCounter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Server-side conversation sessions, so clients send only the new message instead of the whole history.
+ * <p>
+ * Each prompt carries the rolling summary plus the newest turns that fit in {@code rag.conversation.window-tokens},
+ * which keeps the history part of the prompt bounded however long the conversation runs. Once the verbatim
+ * window exceeds that budget, the oldest turns are folded into the summary on a virtual thread, off the
+ * request path; until that finishes the window is simply cut at the budget.
+ * <p>
+ * Sessions live in an LRU hot tier and are written behind to {@code rag_conversations} (summary plus the
+ * remaining turns as compact jsonb), so a restart or an evicted session resumes from Postgres. The hot copy
+ * is trusted, so a session should stick to one instance at a time.
+ * <p>
+ * Session ids are issued by {@link #create()} as random UUIDs and scoped by tenant; an id that was not issued
+ * (or has been purged) is rejected rather than opened, so a caller cannot read or delete another caller's
+ * conversation by guessing a short id.
+ */
+@Component
+public class ConversationMemory {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationMemory.class);
+    private static final Pattern SESSION_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
+    private static final TypeReference<List<ConversationTurn>> TURNS = new TypeReference<>() {
+    };
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS rag_conversations (
+                session_id text PRIMARY KEY,
+                summary text NOT NULL,
+                turns jsonb NOT NULL,
+                version bigint NOT NULL,
+                updated_at timestamptz NOT NULL DEFAULT now()
+            )""";
+    private static final String UPSERT = """
+            INSERT INTO rag_conversations (session_id, summary, turns, version, updated_at)
+            VALUES (?, ?, ?::jsonb, ?, now())
+            ON CONFLICT (session_id) DO UPDATE
+            SET summary = EXCLUDED.summary, turns = EXCLUDED.turns, version = EXCLUDED.version, updated_at = now()
+            WHERE rag_conversations.version < EXCLUDED.version""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatClient chatClient;
+    private final TokenCounter tokenCounter;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ObjectMapper objectMapper;
+    private final ConversationProperties properties;
+    private final Map<String, Conversation> hot;
+    private final Counter compactions;
+    private final Counter compactionFailures;
+    private final DistributionSummary historyTokens;
+    private volatile boolean schemaReady;
+
+    public ConversationMemory(JdbcTemplate jdbcTemplate, ChatClient.Builder chatClientBuilder, TokenCounter tokenCounter,
+                              PromptTemplateRegistry promptTemplates, ObjectMapper objectMapper,
+                              ConversationProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chatClient = chatClientBuilder.build();
+        this.tokenCounter = tokenCounter;
+        this.promptTemplates = promptTemplates;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        int capacity = properties.hotSessions();
+        this.hot = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Conversation> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.compactions = Counter.builder("rag.conversation.compactions").tag("outcome", "success").register(meterRegistry);
+        this.compactionFailures = Counter.builder("rag.conversation.compactions").tag("outcome", "failure").register(meterRegistry);
+        this.historyTokens = DistributionSummary.builder("rag.conversation.history.tokens").register(meterRegistry);
+    }
+
+    /** Starts an empty session for the current tenant and returns its id. */
+    public String create() {
+        String sessionId = UUID.randomUUID().toString();
+        String key = scoped(sessionId);
+        Conversation conversation = Conversation.empty();
+        hot.put(key, conversation);
+        persist(key, conversation.recent(properties.windowTokens()));
+        return sessionId;
+    }
+
+    /**
+     * Resolves an issued session id to its key in the current tenant. Resolve the key on the request thread;
+     * it is what the other methods take, including from stream callbacks on other threads.
+     *
+     * @throws SessionNotFoundException if the id was never issued in this tenant or has been purged
+     */
+    public String sessionKey(String sessionId) {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches()) {
+            throw new SessionNotFoundException("Unknown session: " + sessionId);
+        }
+        String key = scoped(sessionId);
+        if (!exists(key)) {
+            throw new SessionNotFoundException("Unknown session: " + sessionId);
+        }
+        return key;
+    }
+
+    /**
+     * Messages to place between the system instructions and the new question: the rolling summary (as a
+     * system message) followed by the recent turns as user/assistant pairs.
+     */
+    public List<Message> history(String key) {
+        Conversation.Snapshot snapshot = conversation(key).recent(properties.windowTokens());
+        List<Message> messages = new ArrayList<>(snapshot.turns().size() * 2 + 1);
+        int tokens = 0;
+        if (!snapshot.summary().isEmpty()) {
+            messages.add(new SystemMessage("Summary of the conversation so far:\n" + snapshot.summary()));
+            tokens += tokenCounter.count(snapshot.summary());
+        }
+        for (ConversationTurn turn : snapshot.turns()) {
+            messages.add(new UserMessage(turn.question()));
+            messages.add(new AssistantMessage(turn.answer()));
+            tokens += turn.tokens();
+        }
+        historyTokens.record(tokens);
+        return messages;
+    }
+
+    /** Appends a finished exchange, persists it behind the request and compacts the window if it is over budget. */
+    public void record(String key, String question, String answer) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        Conversation conversation = conversation(key);
+        int tokens = tokenCounter.count(question) + tokenCounter.count(answer);
+        Conversation.Snapshot snapshot = conversation.append(new ConversationTurn(question, answer, tokens));
+        Thread.ofVirtual().name("conversation-store").start(() -> persist(key, snapshot));
+        List<ConversationTurn> oldest = conversation.beginCompaction(properties.windowTokens(), properties.minRecentTurns());
+        if (!oldest.isEmpty()) {
+            Thread.ofVirtual().name("conversation-compaction").start(() -> compact(key, conversation, oldest));
+        }
+    }
+
+    public void delete(String key) {
+        hot.remove(key);
+        ensureSchema();
+        jdbcTemplate.update("DELETE FROM rag_conversations WHERE session_id = ?", key);
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeIdleSessions() {
+        if (!schemaReady) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM rag_conversations WHERE updated_at < now() - make_interval(days => ?)",
+                    properties.retentionDays());
+            if (purged > 0) {
+                log.info("Purged {} idle conversation sessions", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Conversation purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static String scoped(String sessionId) {
+        String tenantId = TenantContext.current();
+        return tenantId == null ? sessionId : tenantId + ":" + sessionId;
+    }
+
+    // Fails closed: a session that cannot be confirmed is not opened
+    private boolean exists(String key) {
+        if (hot.containsKey(key)) {
+            return true;
+        }
+        try {
+            ensureSchema();
+            Integer rows = jdbcTemplate.queryForObject("SELECT count(*) FROM rag_conversations WHERE session_id = ?", Integer.class, key);
+            return rows != null && rows > 0;
+        } catch (Exception e) {
+            log.warn("Could not look up conversation {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private Conversation conversation(String key) {
+        Conversation conversation = hot.get(key);
+        if (conversation != null) {
+            return conversation;
+        }
+        Conversation loaded = load(key);
+        // Two first requests of one session may race here; the first cached instance wins
+        Conversation existing = hot.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Conversation load(String key) {
+        try {
+            ensureSchema();
+            List<Conversation> rows = jdbcTemplate.query("SELECT summary, turns, version FROM rag_conversations WHERE session_id = ?",
+                    (rs, rowNum) -> new Conversation(rs.getString("summary"),
+                            readTurns(rs.getString("turns")), rs.getLong("version")), key);
+            return rows.isEmpty() ? Conversation.empty() : rows.get(0);
+        } catch (Exception e) {
+            log.warn("Could not load conversation {}, starting it empty: {}", key, e.getMessage());
+            return Conversation.empty();
+        }
+    }
+
+    private void compact(String key, Conversation conversation, List<ConversationTurn> oldest) {
+        try {
+            PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.CONVERSATION_SUMMARY);
+            StringBuilder turns = new StringBuilder();
+            for (ConversationTurn turn : oldest) {
+                turns.append("User: ").append(turn.question()).append("\nAssistant: ").append(turn.answer()).append("\n\n");
+            }
+            String previous = conversation.summary();
+            String summary = chatClient.prompt()
+                    .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.CONVERSATION_SUMMARY))
+                    .system(template.instructions())
+                    .user(template.render(Map.of("summary", previous.isEmpty() ? "(none)" : previous, "turns", turns.toString())))
+                    .call()
+                    .content();
+            if (summary == null || summary.isBlank()) {
+                throw new IllegalStateException("empty summary");
+            }
+            Conversation.Snapshot snapshot = conversation.completeCompaction(oldest.size(),
+                    tokenCounter.truncate(summary.strip(), properties.summaryMaxTokens()));
+            persist(key, snapshot);
+            compactions.increment();
+            log.debug("Compacted {} turns of conversation {}", oldest.size(), key);
+        } catch (Exception e) {
+            // The window stays capped by recent(); the next recorded turn retries
+            conversation.abortCompaction();
+            compactionFailures.increment();
+            log.warn("Compaction of conversation {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    private void persist(String key, Conversation.Snapshot snapshot) {
+        try {
+            ensureSchema();
+            jdbcTemplate.update(UPSERT, key, snapshot.summary(), objectMapper.writeValueAsString(snapshot.turns()),
+                    snapshot.version());
+        } catch (Exception e) {
+            log.warn("Could not persist conversation {}, it is kept in memory only: {}", key, e.getMessage());
+        }
+    }
+
+    private List<ConversationTurn> readTurns(String json) {
+        try {
+            return objectMapper.readValue(json, TURNS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable conversation turns", e);
+        }
+    }
+
+    private void ensureSchema() {
+        if (!schemaReady) {
+            jdbcTemplate.execute(CREATE_TABLE);
+            schemaReady = true;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.SpringAI.RAG.conversation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One question/answer exchange with its token count. Field names are shortened in the stored JSON since
+ * every turn of the window is rewritten on each update.
+ */
+public record ConversationTurn(
+        @JsonProperty("q") String question,
+        @JsonProperty("a") String answer,
+        @JsonProperty("n") int tokens
+) {
+}
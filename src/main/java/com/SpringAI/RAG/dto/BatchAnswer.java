@@ -0,0 +1,16 @@
+package com.SpringAI.RAG.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** One line of a batch response: the answer to the question at {@code index}, or why there is none. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchAnswer(int index, String question, String answer, String error) {
+
+    public static BatchAnswer answered(int index, String question, String answer) {
+        return new BatchAnswer(index, question, answer, null);
+    }
+
+    public static BatchAnswer failed(int index, String question, String error) {
+        return new BatchAnswer(index, question, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.SpringAI.RAG.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchQuestionRequest {
+
+    private List<String> questions;
+    private String filter;
+
+}
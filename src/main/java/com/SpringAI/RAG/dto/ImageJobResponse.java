@@ -0,0 +1,12 @@
+package com.SpringAI.RAG.dto;
+
+/**
+ * State of an image generation job. {@code imageUrl} is set once the job has completed and stays valid
+ * while the image is cached; {@code error} is set if it failed.
+ */
+public record ImageJobResponse(
+        String id,
+        String status,
+        String imageUrl,
+        String error
+) {}
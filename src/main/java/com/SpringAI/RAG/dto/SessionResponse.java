@@ -0,0 +1,8 @@
+package com.SpringAI.RAG.dto;
+
+/**
+ * A conversation session issued by the server; pass {@code sessionId} to the chatBot endpoints.
+ */
+public record SessionResponse(
+        String sessionId
+) {}
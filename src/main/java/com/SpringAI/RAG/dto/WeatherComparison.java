@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.dto;
+
+import com.SpringAI.RAG.service.serviceImpl.WeatherTools;
+
+/** Current weather for two cities, side by side. */
+public record WeatherComparison(WeatherTools.CurrentWeather first, WeatherTools.CurrentWeather second) {
+}
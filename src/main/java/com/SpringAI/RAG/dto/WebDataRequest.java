@@ -7,5 +7,7 @@ public class WebDataRequest {
 
     private String url;
     private String query;
+    private String collection;
+    private String filter;
 
 }
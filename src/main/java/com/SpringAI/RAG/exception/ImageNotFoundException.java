@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class ImageNotFoundException extends RuntimeException {
+    public ImageNotFoundException(String message) {
+        super(message);
+    }
+}
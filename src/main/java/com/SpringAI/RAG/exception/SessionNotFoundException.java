@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class SessionNotFoundException extends RuntimeException {
+    public SessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class TenantAccessDeniedException extends RuntimeException {
+    public TenantAccessDeniedException(String message) {
+        super(message);
+    }
+}
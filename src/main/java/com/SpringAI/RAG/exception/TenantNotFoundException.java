@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class TenantNotFoundException extends RuntimeException {
+    public TenantNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class UpstreamOverloadedException extends RuntimeException {
+    public UpstreamOverloadedException(String message) {
+        super(message);
+    }
+}
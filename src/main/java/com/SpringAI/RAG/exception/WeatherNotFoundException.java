@@ -0,0 +1,7 @@
+package com.SpringAI.RAG.exception;
+
+public class WeatherNotFoundException extends RuntimeException {
+    public WeatherNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,66 @@
+package com.SpringAI.RAG.image;
+
+import com.SpringAI.RAG.config.VisionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * imageDetectionBot answers by image and question, so a re-upload of the same picture with the same question
+ * skips the model. Keys combine the tenant, the {@link ImagePreprocessor.PreparedImage#key() image key} (a hash
+ * of the exact bytes the model sees) and the question (trimmed, lower-cased, whitespace collapsed), so an entry
+ * is only served for the same picture asked about by the same tenant. Entries live in an LRU of {@code rag.vision.cache-size} for
+ * {@code rag.vision.cache-ttl-minutes}. Metrics: {@code rag.vision.cache} (outcome=hit|miss).
+ */
+@Component
+public class ImageAnalysisCache {
+
+    private record Entry(String analysis, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ImageAnalysisCache(VisionProperties properties, MeterRegistry meterRegistry) {
+        int capacity = properties.cacheSize();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.ttlNanos = Duration.ofMinutes(properties.cacheTtlMinutes()).toNanos();
+        this.hits = Counter.builder("rag.vision.cache").tag("outcome", "hit").register(meterRegistry);
+        this.misses = Counter.builder("rag.vision.cache").tag("outcome", "miss").register(meterRegistry);
+    }
+
+    public static String keyOf(String tenantId, String imageKey, String question) {
+        return (tenantId != null ? tenantId : "") + '\u0000' + imageKey + '\u0000' + question.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** The cached analysis, or {@code null}. */
+    public String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.expiresAt() > 0) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.analysis();
+    }
+
+    public void put(String key, String analysis) {
+        entries.put(key, new Entry(analysis, System.nanoTime() + ttlNanos));
+    }
+}
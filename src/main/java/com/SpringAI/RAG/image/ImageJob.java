@@ -0,0 +1,75 @@
+package com.SpringAI.RAG.image;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One image generation request. Requests for the same image while it is being generated share the job;
+ * {@link #done()} completes when the image is stored (or fails with the generation error).
+ */
+public final class ImageJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String key;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean started;
+    private volatile Instant finishedAt;
+
+    ImageJob(String key) {
+        this.key = key;
+    }
+
+    static ImageJob completed(String key) {
+        ImageJob job = new ImageJob(key);
+        job.complete();
+        return job;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /** Cache key of the image, also its file name in the {@link ImageStore}. */
+    public String key() {
+        return key;
+    }
+
+    public CompletableFuture<Void> done() {
+        return done;
+    }
+
+    public Status status() {
+        if (done.isCompletedExceptionally()) {
+            return Status.FAILED;
+        }
+        if (done.isDone()) {
+            return Status.COMPLETED;
+        }
+        return started ? Status.RUNNING : Status.QUEUED;
+    }
+
+    public String error() {
+        return done.isCompletedExceptionally() ? done.exceptionNow().getMessage() : null;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    void start() {
+        started = true;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        done.complete(null);
+    }
+
+    void fail(Throwable error) {
+        finishedAt = Instant.now();
+        done.completeExceptionally(error);
+    }
+}
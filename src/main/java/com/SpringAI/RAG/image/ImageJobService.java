@@ -0,0 +1,212 @@
+package com.SpringAI.RAG.image;
+
+import com.SpringAI.RAG.config.ImageJobProperties;
+import com.SpringAI.RAG.config.StreamingProperties;
+import com.SpringAI.RAG.dto.ImageJobResponse;
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.exception.ImageNotFoundException;
+import com.SpringAI.RAG.exception.UpstreamOverloadedException;
+import com.SpringAI.RAG.utils.ModerationService;
+import com.SpringAI.RAG.utils.PromptTemplateRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.image.ImagePrompt;
+import org.springframework.ai.image.ImageResponse;
+import org.springframework.ai.openai.OpenAiImageModel;
+import org.springframework.ai.openai.OpenAiImageOptions;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Image generation as background jobs, so no request thread waits on DALL-E.
+ * <p>
+ * A job's cache key is a SHA-256 of the image options and the briefing rendered from the normalized request
+ * (trimmed, lower-cased, whitespace collapsed). A key already in the {@link ImageStore} completes at once
+ * without a model call; a key being generated joins the running job. Otherwise the job queues for one of
+ * {@code rag.images.workers} workers, which request the image as base64 and store it, so the result does not
+ * depend on OpenAI's expiring URL. When {@code rag.images.max-queued-jobs} jobs are already waiting, new ones
+ * are refused with {@link UpstreamOverloadedException}.
+ * <p>
+ * Metrics: {@code rag.images.requests} (outcome=cached|joined|generated), {@code rag.images.queued} and
+ * {@code rag.images.generation}.
+ */
+@Service
+public class ImageJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageJobService.class);
+
+    public static final String IMAGE_PATH = "/api/chat/images/";
+
+    private final OpenAiImageModel imageModel;
+    private final ModerationService moderationService;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ImageStore imageStore;
+    private final ImageJobProperties properties;
+    private final StreamingProperties streamingProperties;
+    private final MeterRegistry meterRegistry;
+    private final OpenAiImageOptions options;
+    private final ExecutorService workers;
+    private final Map<String, ImageJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ImageJob> running = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ImageJobService(OpenAiImageModel imageModel, ModerationService moderationService, PromptTemplateRegistry promptTemplates,
+                           ImageStore imageStore, ImageJobProperties properties, StreamingProperties streamingProperties,
+                           MeterRegistry meterRegistry) {
+        this.imageModel = imageModel;
+        this.moderationService = moderationService;
+        this.promptTemplates = promptTemplates;
+        this.imageStore = imageStore;
+        this.properties = properties;
+        this.streamingProperties = streamingProperties;
+        this.meterRegistry = meterRegistry;
+        this.options = OpenAiImageOptions.builder()
+                .model(properties.model())
+                .quality(properties.quality())
+                .responseFormat("b64_json")
+                .build();
+        this.workers = Executors.newFixedThreadPool(properties.workers(), Thread.ofVirtual().name("image-worker-", 0).factory());
+        Gauge.builder("rag.images.queued", pending, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public ImageJob submit(String request) {
+        // Check for content violations with the image-generation profile
+        moderationService.validate("image-generation", request);
+        String normalized = request.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        String key = keyOf(promptTemplates.get(PromptTemplateRegistry.IMAGE_GENERATION).renderFull(Map.of("request", normalized)));
+        ImageJob job;
+        if (imageStore.contains(key)) {
+            count("cached");
+            job = ImageJob.completed(key);
+        } else {
+            String prompt = promptTemplates.get(PromptTemplateRegistry.IMAGE_GENERATION).renderFull(Map.of("request", request));
+            ImageJob created = new ImageJob(key);
+            job = running.computeIfAbsent(key, k -> enqueue(created, prompt));
+            count(job == created ? "generated" : "joined");
+        }
+        jobs.put(job.id(), job);
+        return job;
+    }
+
+    public ImageJob find(String id) {
+        ImageJob job = jobs.get(id);
+        if (job == null) {
+            throw new ImageNotFoundException("No image job " + id);
+        }
+        return job;
+    }
+
+    public ImageJobResponse describe(ImageJob job) {
+        ImageJob.Status status = job.status();
+        return new ImageJobResponse(job.id(), status.name(),
+                status == ImageJob.Status.COMPLETED ? IMAGE_PATH + ImageStore.fileName(job.key()) : null, job.error());
+    }
+
+    /** Sends the job's current state, then its final state once it finishes, as {@code status} events. */
+    public SseEmitter events(String id) {
+        ImageJob job = find(id);
+        SseEmitter emitter = new SseEmitter(streamingProperties.timeoutMs());
+        if (!job.done().isDone() && !send(emitter, job)) {
+            return emitter;
+        }
+        job.done().whenComplete((result, error) -> {
+            if (send(emitter, job)) {
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void forgetFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(properties.jobRetentionMinutes()));
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private ImageJob enqueue(ImageJob job, String prompt) {
+        if (pending.get() >= properties.workers() + properties.maxQueuedJobs()) {
+            throw new UpstreamOverloadedException("too many queued image jobs");
+        }
+        pending.incrementAndGet();
+        workers.execute(() -> generate(job, prompt));
+        return job;
+    }
+
+    private void generate(ImageJob job, String prompt) {
+        job.start();
+        try {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            ImageResponse response = imageModel.call(new ImagePrompt(prompt, options));
+            sample.stop(Timer.builder("rag.images.generation").register(meterRegistry));
+            String image = response.getResult() != null ? response.getResult().getOutput().getB64Json() : null;
+            if (image == null || image.isEmpty()) {
+                throw new ChatServiceException("Image generation service returned no image data");
+            }
+            imageStore.save(job.key(), Base64.getDecoder().decode(image));
+            job.complete();
+            log.info("Image job {} completed", job.id());
+        } catch (Exception e) {
+            log.error("Image job {} failed: {}", job.id(), e.getMessage());
+            job.fail(e);
+        } finally {
+            pending.decrementAndGet();
+            running.remove(job.key(), job);
+        }
+    }
+
+    private String keyOf(String briefing) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((options.getModel() + '\u0000' + options.getQuality() + '\u0000' + options.getWidth() + 'x'
+                + options.getHeight() + '\u0000').getBytes(StandardCharsets.UTF_8));
+        digest.update(briefing.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void count(String outcome) {
+        Counter.builder("rag.images.requests").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+
+    // A failed send means the client is gone; completing with the error releases the emitter.
+    private boolean send(SseEmitter emitter, ImageJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(describe(job), MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.SpringAI.RAG.image;
+
+import com.SpringAI.RAG.config.VisionProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * Prepares an imageDetectionBot upload for the vision model.
+ * <p>
+ * The format is detected from the file's magic bytes, not its declared content type. Decodable images are
+ * read with source subsampling, so a 48-megapixel photo is decoded at a fraction of its size instead of into
+ * a full raster, then scaled to fit {@code rag.vision.max-long-side} x {@code max-short-side} (the
+ * resolution the model works at), turned upright by their EXIF orientation and re-encoded as JPEG (PNG if
+ * they have transparency). Images that already fit are sent as uploaded. WebP and other images ImageIO
+ * cannot decode are sent as is.
+ * <p>
+ * Every prepared image carries a cache key: the SHA-256 of the bytes sent to the model. It is exact on purpose;
+ * a perceptual hash maps different pictures (a chart with other numbers, a screenshot with other text) to the
+ * same key and would serve one upload's analysis for another. Metrics: {@code rag.vision.bytes}
+ * (kind=uploaded|sent).
+ */
+@Component
+public class ImagePreprocessor {
+
+    public record PreparedImage(byte[] bytes, MimeType mimeType, String key) {
+
+        public Resource resource() {
+            return new ByteArrayResource(bytes);
+        }
+    }
+
+    private static final MimeType WEBP = MimeType.valueOf("image/webp");
+
+    private final VisionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ImagePreprocessor(VisionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the upload is not a supported image or is too large to decode
+     */
+    public PreparedImage prepare(InputStreamSource upload) throws IOException {
+        byte[] header = new byte[12];
+        int headerLength;
+        try (InputStream input = upload.getInputStream()) {
+            headerLength = input.readNBytes(header, 0, header.length);
+        }
+        MimeType detected = detect(header, headerLength);
+        if (detected == null) {
+            throw new IllegalArgumentException("Unsupported image format; use JPEG, PNG, GIF or WebP");
+        }
+        if (WEBP.equals(detected)) {
+            return asUploaded(upload, detected);
+        }
+
+        BufferedImage image;
+        boolean scaled;
+        long uploadedBytes;
+        try (InputStream input = upload.getInputStream(); ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unreadable " + detected.getSubtype() + " image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                boolean jpeg = MimeTypeUtils.IMAGE_JPEG.equals(detected);
+                // Only JPEG metadata is needed (for the EXIF orientation)
+                reader.setInput(stream, true, !jpeg);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > properties.maxPixels()) {
+                    throw new IllegalArgumentException("Image of " + width + "x" + height + " pixels is too large");
+                }
+                double scale = scaleFor(width, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = (int) Math.floor(1 / scale);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                int orientation;
+                try {
+                    orientation = jpeg ? exifOrientation(reader.getImageMetadata(0)) : 1;
+                    image = reader.read(0, param);
+                } catch (IIOException e) {
+                    // e.g. CMYK JPEGs, which ImageIO cannot decode but the model can
+                    return asUploaded(upload, detected);
+                }
+                scaled = scale < 1;
+                if (scaled) {
+                    image = resize(image, (int) Math.round(width * scale), (int) Math.round(height * scale));
+                }
+                if (orientation != 1) {
+                    image = orient(image, orientation);
+                }
+                uploadedBytes = stream.getStreamPosition();
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        if (!scaled) {
+            byte[] bytes;
+            try (InputStream input = upload.getInputStream()) {
+                bytes = input.readAllBytes();
+            }
+            record(bytes.length, bytes.length);
+            return new PreparedImage(bytes, detected, "sha256:" + sha256(bytes));
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        byte[] bytes = alpha ? encode(image, "png", null) : encode(image, "jpeg", properties.jpegQuality());
+        record(uploadedBytes, bytes.length);
+        return new PreparedImage(bytes, alpha ? MimeTypeUtils.IMAGE_PNG : MimeTypeUtils.IMAGE_JPEG, "sha256:" + sha256(bytes));
+    }
+
+    private PreparedImage asUploaded(InputStreamSource upload, MimeType mimeType) throws IOException {
+        byte[] bytes;
+        try (InputStream input = upload.getInputStream()) {
+            bytes = input.readAllBytes();
+        }
+        record(bytes.length, bytes.length);
+        return new PreparedImage(bytes, mimeType, "sha256:" + sha256(bytes));
+    }
+
+    private double scaleFor(int width, int height) {
+        int longSide = Math.max(width, height);
+        int shortSide = Math.min(width, height);
+        return Math.min(1.0, Math.min((double) properties.maxLongSide() / longSide, (double) properties.maxShortSide() / shortSide));
+    }
+
+    private static MimeType detect(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return MimeTypeUtils.IMAGE_JPEG;
+        }
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return MimeTypeUtils.IMAGE_PNG;
+        }
+        if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return MimeTypeUtils.IMAGE_GIF;
+        }
+        if (length >= 12 && new String(header, 0, 4, StandardCharsets.US_ASCII).equals("RIFF")
+                && new String(header, 8, 4, StandardCharsets.US_ASCII).equals("WEBP")) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(Math.max(1, width), Math.max(1, height), type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // EXIF orientations 3, 6 and 8 are the rotations cameras write; the mirrored ones are left as they are.
+    private static BufferedImage orient(BufferedImage source, int orientation) {
+        int quadrants = switch (orientation) {
+            case 3 -> 2;
+            case 6 -> 1;
+            case 8 -> 3;
+            default -> 0;
+        };
+        if (quadrants == 0) {
+            return source;
+        }
+        boolean swap = quadrants % 2 == 1;
+        int width = swap ? source.getHeight() : source.getWidth();
+        int height = swap ? source.getWidth() : source.getHeight();
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            AffineTransform transform = new AffineTransform();
+            transform.translate(width / 2.0, height / 2.0);
+            transform.quadrantRotate(quadrants);
+            transform.translate(-source.getWidth() / 2.0, -source.getHeight() / 2.0);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /** Orientation tag (0x0112) from the EXIF APP1 segment, or 1 if there is none. */
+    private static int exifOrientation(IIOMetadata metadata) {
+        if (metadata == null) {
+            return 1;
+        }
+        Node markers = ((IIOMetadataNode) metadata.getAsTree("javax_imageio_jpeg_image_1.0")).getElementsByTagName("markerSequence").item(0);
+        for (Node marker = markers != null ? markers.getFirstChild() : null; marker != null; marker = marker.getNextSibling()) {
+            NamedNodeMap attributes = marker.getAttributes();
+            Node tag = attributes != null ? attributes.getNamedItem("MarkerTag") : null;
+            if ("unknown".equals(marker.getNodeName()) && tag != null && "225".equals(tag.getNodeValue())
+                    && ((IIOMetadataNode) marker).getUserObject() instanceof byte[] exif) {
+                return orientationTag(exif);
+            }
+        }
+        return 1;
+    }
+
+    private static int orientationTag(byte[] exif) {
+        // "Exif\0\0", then a TIFF header: byte order, 42, offset of the first IFD
+        int tiff = 6;
+        if (exif.length < tiff + 8 || exif[0] != 'E' || exif[1] != 'x' || exif[2] != 'i' || exif[3] != 'f') {
+            return 1;
+        }
+        boolean little = exif[tiff] == 'I';
+        int ifd = tiff + readInt(exif, tiff + 4, little);
+        if (ifd + 2 > exif.length) {
+            return 1;
+        }
+        int entries = readShort(exif, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > exif.length) {
+                break;
+            }
+            if (readShort(exif, entry, little) == 0x0112) {
+                return readShort(exif, entry + 8, little);
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] bytes, int offset, boolean little) {
+        int a = bytes[offset] & 0xFF;
+        int b = bytes[offset + 1] & 0xFF;
+        return little ? a | b << 8 : a << 8 | b;
+    }
+
+    private static int readInt(byte[] bytes, int offset, boolean little) {
+        int high = readShort(bytes, offset + (little ? 2 : 0), little);
+        int low = readShort(bytes, offset + (little ? 0 : 2), little);
+        return high << 16 | low;
+    }
+
+    private static byte[] encode(BufferedImage image, String format, Float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (quality != null) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void record(long uploaded, long sent) {
+        DistributionSummary.builder("rag.vision.bytes").tag("kind", "uploaded").baseUnit("bytes").register(meterRegistry).record(uploaded);
+        DistributionSummary.builder("rag.vision.bytes").tag("kind", "sent").baseUnit("bytes").register(meterRegistry).record(sent);
+    }
+}
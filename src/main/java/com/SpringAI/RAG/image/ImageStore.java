@@ -0,0 +1,104 @@
+package com.SpringAI.RAG.image;
+
+import com.SpringAI.RAG.config.ImageJobProperties;
+import com.SpringAI.RAG.exception.ImageNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Generated images on local disk, one PNG per cache key, so results outlive the expiring OpenAI URLs.
+ * A cache hit refreshes the file's modification time; files unused for {@code rag.images.cache-retention-days}
+ * are deleted by an hourly sweep. Writes go through a temporary file and an atomic move, so a reader never
+ * sees a half-written image.
+ */
+@Component
+public class ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.png");
+
+    private final Path directory;
+    private final ImageJobProperties properties;
+
+    public ImageStore(ImageJobProperties properties) {
+        this.directory = Paths.get(properties.storageDir()).toAbsolutePath();
+        this.properties = properties;
+    }
+
+    public static String fileName(String key) {
+        return key + ".png";
+    }
+
+    /** Whether the image is stored; a hit counts as a use for retention. */
+    public boolean contains(String key) {
+        Path file = directory.resolve(fileName(key));
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Could not touch cached image {}: {}", file, e.getMessage());
+            return Files.exists(file);
+        }
+    }
+
+    public void save(String key, byte[] png) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, png);
+            Files.move(temp, directory.resolve(fileName(key)), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store generated image " + key, e);
+        }
+    }
+
+    public Resource load(String fileName) {
+        // Only names this store produced, so the path cannot leave the directory
+        if (!FILE_NAME.matcher(fileName).matches() || !Files.isRegularFile(directory.resolve(fileName))) {
+            throw new ImageNotFoundException("No stored image " + fileName);
+        }
+        return new FileSystemResource(directory.resolve(fileName));
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeUnusedImages() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofDays(properties.cacheRetentionDays()));
+        int purged = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Image cache purge failed: {}", e.getMessage());
+        }
+        if (purged > 0) {
+            log.info("Purged {} unused cached images", purged);
+        }
+    }
+}
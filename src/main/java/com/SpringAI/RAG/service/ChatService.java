@@ -1,25 +1,58 @@
 package com.SpringAI.RAG.service;
 
 import com.SpringAI.RAG.dto.BlogPostResponseDTO;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
 
 public interface ChatService {
 
     /**
      * Initializes the vector store with the content of a PDF.
      *
-     * @param file The PDF file to be processed.
+     * @param file       The PDF file to be processed.
+     * @param collection The collection the pages are stored under; only this collection is replaced.
      */
-    void initializeVectorStore(MultipartFile file);
+    void initializeVectorStore(MultipartFile file, String collection);
 
     /**
      * Handles a query by searching the vector store and generating a response from the chatbot.
      *
-     * @param question The query to be asked to the chatbot.
+     * @param question  The query to be asked to the chatbot.
+     * @param filter    Optional metadata filter expression, e.g. {@code collection == 'docs'}.
+     * @param sessionId Optional conversation session; its history is sent with the question and the answer is added to it.
      * @return The chatbot's response.
      */
-    ResponseEntity<String> chatBotForVectorStore(String question);
+    ResponseEntity<String> chatBotForVectorStore(String question, String filter, String sessionId);
+
+    /**
+     * Streaming variant of {@link #chatBotForVectorStore}. Moderation and retrieval run when called;
+     * the model call starts on subscription and is cancelled when the subscription is disposed.
+     * The answer is added to the session only once the stream completes.
+     */
+    Flux<ChatResponse> chatBotStream(String question, String filter, String sessionId);
+
+    /**
+     * Answers many questions against the store in one request. All questions are moderated in one call and
+     * retrieved in one search, then answered at most {@code rag.batch.concurrency} at a time. The body is
+     * NDJSON, one {@link com.SpringAI.RAG.dto.BatchAnswer} per line in completion order; a flagged or failed
+     * question gets an error line instead of failing the batch.
+     */
+    ResponseEntity<StreamingResponseBody> chatBotBatch(List<String> questions, String filter);
+
+    /**
+     * Starts a conversation session and returns its server-issued id.
+     */
+    String createSession();
+
+    /**
+     * Drops a conversation session from memory and from Postgres.
+     */
+    void deleteSession(String sessionId);
 
     /**
      * Generates code based on the provided prompt.
@@ -29,11 +62,28 @@ public interface ChatService {
      */
     String codeGeneratorBot(String prompt);
 
+    /**
+     * Streaming variant of {@link #codeGeneratorBot}.
+     */
+    Flux<ChatResponse> codeGeneratorBotStream(String prompt);
+
     ResponseEntity<String> ImageDetectionBot(MultipartFile image, String question);
 
     ResponseEntity<byte[]> VoiceGenerationBot(String text);
 
+    /**
+     * Streaming variant of {@link #VoiceGenerationBot}: the script is streamed, spoken sentence by sentence and
+     * written as MP3 while later sentences are still being written and synthesized.
+     */
+    ResponseEntity<StreamingResponseBody> voiceGenerationStream(String text);
+
     ResponseEntity<String> ImageGenerationBot(String prompt);
 
-    BlogPostResponseDTO blogPostBot(String question);
+    BlogPostResponseDTO blogPostBot(String question, String filter);
+
+    /**
+     * Streaming variant of {@link #blogPostBot}: the model writes the same JSON object, streamed as it is
+     * generated so each field can be shown as soon as it is complete.
+     */
+    Flux<ChatResponse> blogPostBotStream(String question, String filter);
 }
\ No newline at end of file
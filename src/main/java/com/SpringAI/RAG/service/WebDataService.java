@@ -1,12 +1,17 @@
 package com.SpringAI.RAG.service;
 
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+
 import java.util.List;
 
 public interface WebDataService {
 
     List<String> crawlAndExtractContent(String url);
 
-    void storeContent(List<String> contentList);
+    void storeContent(List<String> contentList, String source, String collection);
+
+    String queryContent(String query, String filter);
 
-    String queryContent(String query);
+    Flux<ChatResponse> queryContentStream(String query, String filter);
 }
@@ -1,23 +1,46 @@
 package com.SpringAI.RAG.service.serviceImpl;
 
+import com.SpringAI.RAG.config.BatchProperties;
 import com.SpringAI.RAG.config.ModerationThresholds;
+import com.SpringAI.RAG.conversation.ConversationMemory;
+import com.SpringAI.RAG.dto.BatchAnswer;
 import com.SpringAI.RAG.dto.BlogPostResponseDTO;
 import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.exception.ContentModerationException;
+import com.SpringAI.RAG.exception.InvalidFilterException;
+import com.SpringAI.RAG.exception.UpstreamOverloadedException;
+import com.SpringAI.RAG.image.ImageAnalysisCache;
+import com.SpringAI.RAG.image.ImageJob;
+import com.SpringAI.RAG.image.ImageJobService;
+import com.SpringAI.RAG.image.ImagePreprocessor;
 import com.SpringAI.RAG.service.ChatService;
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import com.SpringAI.RAG.utils.ContextAssembler;
+import com.SpringAI.RAG.utils.ModelRouter;
 import com.SpringAI.RAG.utils.ModerationService;
+import com.SpringAI.RAG.utils.PromptCacheMetricsAdvisor;
+import com.SpringAI.RAG.utils.PromptTemplate;
+import com.SpringAI.RAG.utils.PromptTemplateRegistry;
+import com.SpringAI.RAG.utils.RequestCoalescer;
+import com.SpringAI.RAG.utils.RequestHedger;
+import com.SpringAI.RAG.utils.RequestPipeline;
+import com.SpringAI.RAG.utils.SpeechPipeline;
+import com.SpringAI.RAG.vectorstore.ChunkMetadata;
+import com.SpringAI.RAG.vectorstore.SummaryIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.image.ImageOptions;
-import org.springframework.ai.image.ImagePrompt;
-import org.springframework.ai.image.ImageResponse;
 import org.springframework.ai.moderation.*;
 import org.springframework.ai.openai.OpenAiAudioSpeechModel;
 import org.springframework.ai.openai.OpenAiAudioSpeechOptions;
-import org.springframework.ai.openai.OpenAiImageModel;
-import org.springframework.ai.openai.OpenAiImageOptions;
 import org.springframework.ai.openai.api.OpenAiAudioApi;
 import org.springframework.ai.openai.audio.speech.SpeechPrompt;
 import org.springframework.ai.openai.audio.speech.SpeechResponse;
@@ -32,32 +55,60 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class ChatServiceImpl implements ChatService {
 
     private final ChatClient chatClient;
-    private final OpenAiImageModel imageModel;
+    private final ImageJobService imageJobService;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ImageAnalysisCache imageAnalysisCache;
     private final OpenAiAudioSpeechModel speechModel;
     private final ModerationService moderationService;
+    private final ContextAssembler contextAssembler;
+    private final RequestPipeline requestPipeline;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ConversationMemory conversationMemory;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final ModelRouter modelRouter;
+    private final SpeechPipeline speechPipeline;
+    private final SummaryIndex summaryIndex;
+    private final TenantRegistry tenantRegistry;
+    private final BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Autowired
     @Qualifier("customVectorStore")
@@ -67,20 +118,39 @@ public class ChatServiceImpl implements ChatService {
 
     private static final Logger log = LoggerFactory.getLogger(ChatServiceImpl.class);
 
-    public ChatServiceImpl(ChatClient.Builder chatClientBuilder, OpenAiImageModel imageModel, OpenAiAudioSpeechModel speechModel, ModerationService moderationService, VectorStore vectorStore, JdbcTemplate jdbcTemplate) {
+    private static final String BLOG_POST_FORMAT = new BeanOutputConverter<>(BlogPostResponseDTO.class).getFormat();
+
+    public ChatServiceImpl(ChatClient.Builder chatClientBuilder, ImageJobService imageJobService, ImagePreprocessor imagePreprocessor, ImageAnalysisCache imageAnalysisCache, OpenAiAudioSpeechModel speechModel, ModerationService moderationService, ContextAssembler contextAssembler, RequestPipeline requestPipeline, PromptTemplateRegistry promptTemplates, ConversationMemory conversationMemory, RequestCoalescer requestCoalescer, RequestHedger requestHedger, ModelRouter modelRouter, SpeechPipeline speechPipeline, SummaryIndex summaryIndex, TenantRegistry tenantRegistry, BatchProperties batchProperties, ObjectMapper objectMapper, VectorStore vectorStore, JdbcTemplate jdbcTemplate) {
         this.chatClient = chatClientBuilder.build();
-        this.imageModel = imageModel;
+        this.imageJobService = imageJobService;
+        this.imagePreprocessor = imagePreprocessor;
+        this.imageAnalysisCache = imageAnalysisCache;
         this.speechModel = speechModel;
         this.moderationService = moderationService;
+        this.contextAssembler = contextAssembler;
+        this.requestPipeline = requestPipeline;
+        this.promptTemplates = promptTemplates;
+        this.conversationMemory = conversationMemory;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.modelRouter = modelRouter;
+        this.speechPipeline = speechPipeline;
+        this.summaryIndex = summaryIndex;
+        this.tenantRegistry = tenantRegistry;
+        this.batchProperties = batchProperties;
+        this.objectMapper = objectMapper;
         this.vectorStore = vectorStore;
         this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
-    public void initializeVectorStore(MultipartFile file) {
+    public void initializeVectorStore(MultipartFile file, String collection) {
         try {
-            log.info("Starting vector store initialization");
-            jdbcTemplate.update("delete from vector_store");
+            log.info("Starting vector store initialization for collection {}", collection);
+            // Replace this collection only; rows from before collections existed are cleared as well
+            jdbcTemplate.update("delete from " + tenantRegistry.currentTable() + " where metadata::jsonb ->> 'collection' = ? "
+                    + "or metadata::jsonb ->> 'collection' is null", collection);
+            summaryIndex.clear(collection);
             Resource resource = new InputStreamResource(file.getInputStream());
             // Configure PDF reader to process the file
             PdfDocumentReaderConfig config = PdfDocumentReaderConfig.builder()
@@ -93,6 +163,8 @@ public class ChatServiceImpl implements ChatService {
                     .build();
             PagePdfDocumentReader pdfReader = new PagePdfDocumentReader(resource, config);
             List<Document> textContent = pdfReader.get();
+            String source = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.pdf";
+            Instant ingestedAt = Instant.now();
             // Detect URLs in the extracted text
             List<Document> enhancedContent = textContent.stream()
                     .map(document -> {
@@ -103,11 +175,16 @@ public class ChatServiceImpl implements ChatService {
                             content += "\nExtracted URLs:\n" + String.join("\n", urls);
                         }
                         assert content != null;
-                        return new Document(content);
+                        Object page = document.getMetadata().get(PagePdfDocumentReader.METADATA_START_PAGE_NUMBER);
+                        return new Document(content, ChunkMetadata.of(source, collection,
+                                page instanceof Number number ? number.intValue() : null, null, ingestedAt));
                     }).toList();
+            // Tag each page with a document_id, inherited by its chunks and shared with its summary
+            List<Document> pages = summaryIndex.assignDocumentIds(enhancedContent);
             // Split extracted text into tokens and store in vector_store
             TokenTextSplitter textSplitter = new TokenTextSplitter();
-            vectorStore.accept(textSplitter.apply(enhancedContent));
+            vectorStore.accept(textSplitter.apply(pages));
+            summaryIndex.index(pages);
             log.info("Vector store initialized successfully");
         } catch (Exception e) {
             log.error("Unexpected error during vector store initialization", e);
@@ -126,69 +203,25 @@ public class ChatServiceImpl implements ChatService {
     }
 
     @Override
-    public ResponseEntity<String> chatBotForVectorStore(String question) {
+    public ResponseEntity<String> chatBotForVectorStore(String question, String filter, String sessionId) {
         log.info("Received query to ChatBot: {}", question);
         try {
 
-            // Check for content violations with custom thresholds
-            moderationService.validate(question);
-
-            List<Document> similarDocuments = this.vectorStore.similaritySearch(question);
-            assert similarDocuments != null;
-            String documents = similarDocuments.stream()
-                    .map(Document::getText)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            // Prepare prompt for code generation
-            String template = """
-                You are an expert document analyst specializing in accurate information retrieval and contextual analysis.
-                
-                PRIMARY ROLE:
-                Provide precise, comprehensive answers based on the DOCUMENTS below while maintaining complete transparency about information sources.
-                
-                RESPONSE GUIDELINES:
-                
-                1. DOCUMENT-AVAILABLE INFORMATION:
-                   - Answer confidently using document content
-                   - Synthesize information from multiple sections when relevant
-                   - Provide comprehensive details without citing "according to the document"
-                   - Maintain original context and meaning
-                
-                2. DOCUMENT-UNAVAILABLE INFORMATION:
-                   - State clearly: "This information is not in the provided documents."
-                   - Optionally add: "Based on general knowledge: [your answer]"
-                   - Distinguish between document facts and external knowledge
-                
-                3. PARTIAL INFORMATION:
-                   - Prioritize document data first
-                   - Supplement with general knowledge only when necessary
-                   - Format: "The documents show [fact]. Additionally, [supplementary info]."
-                
-                4. RESPONSE QUALITY:
-                   - Use clear, professional language
-                   - Structure complex answers with bullet points or numbered lists
-                   - Include relevant examples and context
-                   - Ensure accuracy without speculation
-                
-                5. SPECIAL HANDLING:
-                   - Ambiguous queries: Request clarification while providing available information
-                   - Conflicting information: Present both perspectives and note discrepancies
-                   - Sensitive topics: Maintain objectivity and factual presentation
-                
-                DOCUMENTS:
-                {documents}
-                """;
-
-            SystemMessage systemMessage = new SystemMessage(template.replace("{documents}", documents));
-            UserMessage userMessage = new UserMessage(question);
-            Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+            String sessionKey = sessionId != null ? conversationMemory.sessionKey(sessionId) : null;
+            RoutedPrompt routed = chatBotPrompt(question, filter, sessionKey);
             log.info("Prompt sent");
-            var response = chatClient.prompt(prompt).call();
-            var result = response.content();
+            var result = complete("chat", PromptTemplateRegistry.CHAT, routed,
+                    ChatClient.CallResponseSpec::content, modelRouter::isConfident);
             if (result == null) {
                 throw new ChatServiceException("OpenAI returned null or empty content");
             }
             log.info("OpenAI returned: {}", result);
+            if (sessionKey != null) {
+                conversationMemory.record(sessionKey, question, result);
+            }
             return ResponseEntity.ok().body(result);
+        } catch (ContentModerationException | InvalidFilterException | UpstreamOverloadedException | IllegalArgumentException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             log.error("OpenAI HTTP error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new ChatServiceException("OpenAI API error: " + e.getStatusCode(), e);
@@ -202,71 +235,148 @@ public class ChatServiceImpl implements ChatService {
     }
 
     @Override
-    public BlogPostResponseDTO blogPostBot(String question) {
+    public Flux<ChatResponse> chatBotStream(String question, String filter, String sessionId) {
+        log.info("Received streaming query to ChatBot: {}", question);
+        String sessionKey = sessionId != null ? conversationMemory.sessionKey(sessionId) : null;
+        RoutedPrompt routed = chatBotPrompt(question, filter, sessionKey);
+        Flux<ChatResponse> responses = chatClient.prompt(routed.prompt())
+                .options(modelRouter.options(routed.route()))
+                .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.CHAT)
+                        .param(ModelRouter.ROUTE, routed.route().name()))
+                .stream()
+                .chatResponse();
+        if (sessionKey == null) {
+            return responses;
+        }
+        // Only a fully streamed answer becomes part of the session; cancelled streams are dropped
+        StringBuilder answer = new StringBuilder();
+        return responses
+                .doOnNext(response -> {
+                    if (response.getResult() != null && response.getResult().getOutput().getText() != null) {
+                        answer.append(response.getResult().getOutput().getText());
+                    }
+                })
+                .doOnComplete(() -> conversationMemory.record(sessionKey, question, answer.toString()));
+    }
+
+    @Override
+    public String createSession() {
+        return conversationMemory.create();
+    }
+
+    @Override
+    public void deleteSession(String sessionId) {
+        conversationMemory.delete(conversationMemory.sessionKey(sessionId));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> chatBotBatch(List<String> questions, String filter) {
+        if (questions == null || questions.isEmpty() || questions.size() > batchProperties.maxQuestions()) {
+            throw new IllegalArgumentException("A batch needs between 1 and " + batchProperties.maxQuestions() + " questions");
+        }
+        if (questions.stream().anyMatch(question -> question == null || question.isBlank())) {
+            throw new IllegalArgumentException("questions must not be blank");
+        }
+        log.info("Received batch of {} questions for ChatBot", questions.size());
+        // One moderation call and one retrieval query for the whole batch
+        RequestPipeline.BatchRetrieval retrieval = requestPipeline.screenAndRetrieveAll("batch", questions, filter);
+        BlockingQueue<BatchAnswer> answers = new LinkedBlockingQueue<>();
+        Semaphore permits = new Semaphore(batchProperties.concurrency());
+        List<Future<?>> completions = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            int index = i;
+            String question = questions.get(i);
+            ContentModerationException violation = retrieval.violations().get(i);
+            if (violation != null) {
+                answers.add(BatchAnswer.failed(index, question, violation.getMessage()));
+                continue;
+            }
+            List<Document> documents = retrieval.documents().get(i);
+            // Started now, while the tenant is bound; the response body only drains the results
+            completions.add(batchExecutor.submit(TenantContext.wrap(() -> {
+                permits.acquire();
+                try {
+                    answers.put(batchAnswer(index, question, documents));
+                } finally {
+                    permits.release();
+                }
+                return null;
+            })));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                for (int written = 0; written < questions.size(); written++) {
+                    out.write(objectMapper.writeValueAsBytes(answers.take()));
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ChatServiceException("Interrupted while streaming batch answers", e);
+            } finally {
+                // Stops the remaining completions if the client went away
+                completions.forEach(completion -> completion.cancel(true));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private BatchAnswer batchAnswer(int index, String question, List<Document> documents) {
+        try {
+            ContextAssembler.AssembledContext context = contextAssembler.assemble("chat", documents);
+            PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.CHAT);
+            Prompt prompt = new Prompt(List.of(new SystemMessage(template.instructions()),
+                    new UserMessage(template.render(Map.of("documents", context.text(), "question", question)))));
+            RoutedPrompt routed = new RoutedPrompt(prompt, modelRouter.classify("chat", question, context.tokensUsed()));
+            String answer = complete("batch", PromptTemplateRegistry.CHAT, routed,
+                    ChatClient.CallResponseSpec::content, modelRouter::isConfident);
+            if (answer == null) {
+                return BatchAnswer.failed(index, question, "OpenAI returned null or empty content");
+            }
+            return BatchAnswer.answered(index, question, answer);
+        } catch (RuntimeException e) {
+            log.warn("Batch question {} failed: {}", index, e.getMessage());
+            return BatchAnswer.failed(index, question, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    private RoutedPrompt chatBotPrompt(String question, String filter, String sessionKey) {
+        // Check for content violations with custom thresholds while retrieval runs
+        List<Document> similarDocuments = requestPipeline.moderateAndRetrieve("chat", question, filter);
+        ContextAssembler.AssembledContext context = contextAssembler.assemble("chat", similarDocuments);
+        String documents = context.text();
+        PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.CHAT);
+        // Static instructions first so they form a cacheable prefix; session history and the request come after
+        List<Message> messages = new ArrayList<>();
+        messages.add(new SystemMessage(template.instructions()));
+        if (sessionKey != null) {
+            messages.addAll(conversationMemory.history(sessionKey));
+        }
+        messages.add(new UserMessage(template.render(Map.of("documents", documents, "question", question))));
+        return new RoutedPrompt(new Prompt(messages), modelRouter.classify("chat", question, context.tokensUsed()));
+    }
+
+    @Override
+    public BlogPostResponseDTO blogPostBot(String question, String filter) {
         log.info("Received query for BlogBot: {}", question);
         try {
 
-            // Check for content violations with custom thresholds
-            moderationService.validate(question);
-
-            List<Document> similarDocuments = this.vectorStore.similaritySearch(question);
-            assert similarDocuments != null;
-            String documents = similarDocuments.stream()
-                    .map(Document::getText)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            // Prepare prompt for Blog generation
-            String template = """
-                        You are an expert technical blog writer and educator, skilled in transforming raw material into engaging, high-quality posts.
-                    
-                        PRIMARY ROLE:
-                        Create blog posts based exclusively on the DOCUMENTS and TOPIC provided, ensuring clarity, engagement, and authoritative value.
-                    
-                        RESPONSE GUIDELINES:
-                    
-                        1. INFORMATION SOURCES:
-                           - Rely solely on the DOCUMENTS for technical details
-                           - Where information is missing, begin with: "This topic is not fully covered in the provided documents. Based on general knowledge:"
-                           - Clearly distinguish document-based points from external info
-                    
-                        2. BLOG STRUCTURE:
-                           - Introduction: Grab attention, establish relevance, preview takeaways (75-100 words)
-                           - Body: Three clear, well-defined sections with subheadings, amounting to 300-350 words in total
-                           - Each section: Explain with examples, analogies, and facts
-                           - Conclusion: Synthesize main points and add a call-to-action (75-100 words)
-                    
-                        3. STYLE AND CLARITY:
-                           - Use conversational, professional language
-                           - Break up text with headings and short paragraphs
-                           - Explain technical terms simply for a broader audience
-                           - Avoid jargon unless explained
-                    
-                        4. RESPONSE QUALITY:
-                           - Integrate facts and numbers for credibility
-                           - Use bullet points or numbered lists for complex info
-                           - Ensure the writing is informative, actionable, and engaging
-                    
-                        5. SPECIAL HANDLING:
-                           - For ambiguous topics: Request clarification and provide your best response
-                           - If document info conflicts with general knowledge, note the discrepancy
-                    
-                        DOCUMENTS:
-                        {documents}
-                    
-                        TOPIC:
-                        {topic}
-                        """;
-
-            SystemMessage systemMessage = new SystemMessage(template.replace("{documents}", documents));
-            UserMessage userMessage = new UserMessage(question);
-            Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+            RoutedPrompt routed = blogPostPrompt(question, filter);
             log.info("Prompt sent");
-            var response = chatClient.prompt(prompt).call();
-            var result = response.entity(BlogPostResponseDTO.class);
+            var result = complete("blog", PromptTemplateRegistry.BLOG, routed,
+                    spec -> spec.entity(BlogPostResponseDTO.class), Objects::nonNull);
             if (result == null) {
                 throw new ChatServiceException("OpenAI returned null or empty content");
             }
             log.info("OpenAI returned: {}", result);
             return result;
+        } catch (ContentModerationException | InvalidFilterException | UpstreamOverloadedException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             log.error("OpenAI HTTP error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new ChatServiceException("OpenAI API error: " + e.getStatusCode(), e);
@@ -279,65 +389,63 @@ public class ChatServiceImpl implements ChatService {
         }
     }
 
+    @Override
+    public Flux<ChatResponse> blogPostBotStream(String question, String filter) {
+        log.info("Received streaming query for BlogBot: {}", question);
+        RoutedPrompt routed = blogPostPrompt(question, filter);
+        // entity() appends the converter's format instructions to the user message; a stream has to do it itself
+        Prompt prompt = routed.prompt().augmentUserMessage(message -> message.mutate()
+                .text(message.getText() + System.lineSeparator() + BLOG_POST_FORMAT)
+                .build());
+        return chatClient.prompt(prompt)
+                .options(modelRouter.options(routed.route()))
+                .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.BLOG)
+                        .param(ModelRouter.ROUTE, routed.route().name()))
+                .stream()
+                .chatResponse();
+    }
+
+    private RoutedPrompt blogPostPrompt(String question, String filter) {
+        // Check for content violations with custom thresholds while retrieval runs
+        List<Document> similarDocuments = requestPipeline.moderateAndRetrieve("blog", question, filter);
+        ContextAssembler.AssembledContext context = contextAssembler.assemble("blog", similarDocuments);
+        PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.BLOG);
+        Prompt prompt = new Prompt(List.of(new SystemMessage(template.instructions()),
+                new UserMessage(template.render(Map.of("documents", context.text(), "topic", question)))));
+        return new RoutedPrompt(prompt, modelRouter.classify("blog", question, context.tokensUsed()));
+    }
+
     @Override
     public ResponseEntity<String> ImageDetectionBot(MultipartFile image, String question) {
         log.info("Received query for imageDetection");
         try {
-            String template = """
-                You are a computer vision expert specializing in detailed image analysis.
-            
-                PRIMARY ROLE:
-                Perform thorough analysis and interpretation of the given image, answering the USER QUESTION if one is provided.
-            
-                RESPONSE GUIDELINES:
-            
-                1. OBJECTIVE OBSERVATIONS:
-                   - Describe the overall composition, key elements, and context
-                   - Identify objects, people, text, and activities
-                   - Assess environmental cues (location, time of day, weather, etc.)
-            
-                2. QUESTION-FOCUSED ANALYSIS:
-                   - If a USER QUESTION is provided, tailor your analysis directly to address it
-                   - If unclear or not answerable, state your uncertainty clearly
-            
-                3. CONFIDENCE LEVELS:
-                   - Indicate your confidence as High, Medium, Low, or Unable to determine for relevant points
-                   - Avoid speculation and clearly separate observations from interpretations
-            
-                4. RESPONSE QUALITY:
-                   - Use clear, professional language
-                   - Present complex findings in bullet points if needed
-                   - Focus on actionable, reliable detail
-            
-                5. SPECIAL HANDLING:
-                   - For ambiguous images or missing details, state limitations
-                   - For technical/scientific images, explain the content as far as possible
-            
-                USER QUESTION:
-                {question}
-                """;
-
-            String formattedTemplate = "";
-            if(question != null) {
-                formattedTemplate = template.replace("{question}", question);
+            PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.IMAGE_DETECTION);
+            String userQuestion = question != null ? question : "";
+            // Downscaled and re-encoded to what the model actually looks at, with its real content type
+            ImagePreprocessor.PreparedImage prepared = imagePreprocessor.prepare(image);
+            String cacheKey = ImageAnalysisCache.keyOf(TenantContext.current(), prepared.key(), userQuestion);
+            String cached = imageAnalysisCache.get(cacheKey);
+            if (cached != null) {
+                log.info("Image analysis served from cache");
+                return ResponseEntity.ok().body(cached);
             }
-            var response = chatClient.prompt()
-                    .system(formattedTemplate)
-                    .user(userSpec -> {
-                                assert question != null;
-                                userSpec
-                                        .text(question)
-                                        .media(MimeTypeUtils.IMAGE_JPEG, image.getResource());
-                            }
-                    )
-                    .call();
-            String result = response.content();
+            String result = requestCoalescer.coalesce("image-detection", cacheKey, () -> chatClient.prompt()
+                    .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.IMAGE_DETECTION))
+                    .system(template.instructions())
+                    .user(userSpec -> userSpec
+                            .text(template.render(Map.of("question", userQuestion)))
+                            .media(prepared.mimeType(), prepared.resource()))
+                    .call()
+                    .content());
             if (result == null || result.isEmpty()) {
                 throw new ChatServiceException("OpenAI returned null or empty content");
             }
+            imageAnalysisCache.put(cacheKey, result);
             log.info("Image analysis completed");
             log.info("OpenAI returned: {}", result);
             return ResponseEntity.ok().body(result);
+        } catch (IllegalArgumentException | UpstreamOverloadedException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             log.error("OpenAI HTTP error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new ChatServiceException("OpenAI API error: " + e.getStatusCode(), e);
@@ -355,54 +463,20 @@ public class ChatServiceImpl implements ChatService {
         log.info("Received query for imageGeneration");
         try {
 
-            // Check for content violations with custom thresholds
-            moderationService.validate(prompt);
-
-            String template = """
-                    You are an Image Generation Briefing Specialist skilled at producing precise, creative prompts for DALL-E 3 based on user requests.
-                
-                    PRIMARY ROLE:
-                    Convert the USER REQUEST below into a detailed, artistically rich prompt that can be used to generate a high-quality image.
-                
-                    RESPONSE GUIDELINES:
-                
-                    1. PROMPT STRUCTURE:
-                       - Clearly identify the main subject, visual style, setting, mood, lighting, colors, and any specific requirements
-                       - Use descriptive adjectives and creative detail
-                       - If non-image requests are received, respond: "This bot generates images only. Please use ChatBot for non-image queries."
-                
-                    2. EXAMPLES AND MODIFIERS:
-                       - Include style modifiers (e.g., 'photorealistic', 'minimalist', 'futuristic')
-                       - Suggest camera perspective or composition when relevant
-                
-                    3. OUTPUT FORMAT:
-                       - Output a single, flowing text prompt suitable for direct input to DALL-E 3
-                       - Do not use bullet points or lists in the output prompt
-                
-                    4. RESPONSE QUALITY:
-                       - Be specific, imaginative, and concise
-                       - Avoid ambiguity or mutually conflicting instructions
-                       - Focus on visual and stylistic clarity
-                
-                    USER REQUEST:
-                    {userPrompt}
-                    """;
-
-            String formattedTemplate = template.replace("{prompt}", prompt);
-
-            ImageOptions options = OpenAiImageOptions.builder()
-                    .model("dall-e-3")
-                    .build();
-
-            ImagePrompt imagePrompt = new ImagePrompt(formattedTemplate, options);
-            ImageResponse imageResponse = imageModel.call(imagePrompt);
-
-            String imageUrl = imageResponse.getResult().getOutput().getUrl();
-            if (imageUrl == null || imageUrl.isEmpty()) {
-                throw new ChatServiceException("Image generation service returned no image url");
+            // Same job and cache as /imageJobs (moderation included), waited for here
+            ImageJob job = imageJobService.submit(prompt);
+            try {
+                job.done().get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
             }
+            String imageUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path(imageJobService.describe(job).imageUrl())
+                    .toUriString();
             log.info("Image generation completed - URL: {}", imageUrl);
             return ResponseEntity.ok().body(imageUrl);
+        } catch (ContentModerationException | UpstreamOverloadedException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             log.error("Image generation HTTP error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new ChatServiceException("Image generation API error: " + e.getStatusCode(), e);
@@ -419,56 +493,14 @@ public class ChatServiceImpl implements ChatService {
     public ResponseEntity<byte[]> VoiceGenerationBot(String text) {
         log.info("Received query for voiceGeneration");
         try {
-            // Check for content violations with custom thresholds
-            moderationService.validate(text);
-
-            String template = """
-                You are an expert document analyst specializing in accurate information retrieval and contextual analysis.
-                
-                PRIMARY ROLE:
-                Provide precise, comprehensive answers based on the DOCUMENTS below while maintaining complete transparency about information sources.
-                
-                RESPONSE GUIDELINES:
-                
-                1. DOCUMENT-AVAILABLE INFORMATION:
-                   - Answer confidently using document content
-                   - Synthesize information from multiple sections when relevant
-                   - Provide comprehensive details without citing "according to the document"
-                   - Maintain original context and meaning
-                
-                2. DOCUMENT-UNAVAILABLE INFORMATION:
-                   - State clearly: "This information is not in the provided documents."
-                   - Optionally add: "Based on general knowledge: [your answer]"
-                   - Distinguish between document facts and external knowledge
-                
-                3. PARTIAL INFORMATION:
-                   - Prioritize document data first
-                   - Supplement with general knowledge only when necessary
-                   - Format: "The documents show [fact]. Additionally, [supplementary info]."
-                
-                4. RESPONSE QUALITY:
-                   - Use clear, professional language
-                   - Structure complex answers with bullet points or numbered lists
-                   - Include relevant examples and context
-                   - Ensure accuracy without speculation
-                
-                5. SPECIAL HANDLING:
-                   - Ambiguous queries: Request clarification while providing available information
-                   - Conflicting information: Present both perspectives and note discrepancies
-                   - Sensitive topics: Maintain objectivity and factual presentation
-                
-                DOCUMENTS:
-                {prompt}
-                """;
+            // Check for content violations with the voice profile
+            moderationService.validate("voice", text);
 
             var voiceScript ="";
             if(text != null && !text.isEmpty()) {
-                SystemMessage systemMessage = new SystemMessage(template.replace("{prompt}", text));
-                UserMessage userMessage = new UserMessage(text);
-                Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
                 log.info("Prompt sent");
-                var response = chatClient.prompt(prompt).call();
-                voiceScript = response.content();
+                voiceScript = complete("voice", PromptTemplateRegistry.CHAT, voicePrompt(text),
+                        ChatClient.CallResponseSpec::content, modelRouter::isConfident);
             }
 
             if (voiceScript == null) {
@@ -495,6 +527,8 @@ public class ChatServiceImpl implements ChatService {
                     .header(HttpHeaders.CONTENT_TYPE, "audio/mpeg")
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"Response.mp3\"")
                     .body(audioBytes);
+        } catch (ContentModerationException | UpstreamOverloadedException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             log.error("Voice generation HTTP error {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
             throw new ChatServiceException("Voice generation API error: " + e.getStatusCode(), e);
@@ -507,60 +541,91 @@ public class ChatServiceImpl implements ChatService {
         }
     }
 
+    @Override
+    public ResponseEntity<StreamingResponseBody> voiceGenerationStream(String text) {
+        log.info("Received streaming query for voiceGeneration");
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("message must not be blank");
+        }
+        // Check for content violations with the voice profile
+        moderationService.validate("voice", text);
+        RoutedPrompt routed = voicePrompt(text);
+        Flux<ChatResponse> script = chatClient.prompt(routed.prompt())
+                .options(modelRouter.options(routed.route()))
+                .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.CHAT)
+                        .param(ModelRouter.ROUTE, routed.route().name()))
+                .stream()
+                .chatResponse();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, "audio/mpeg")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"Response.mp3\"")
+                .body(speechPipeline.stream(script));
+    }
+
+    // The voice script is answered with the chat instructions, so it shares their cached prefix
+    private RoutedPrompt voicePrompt(String text) {
+        PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.CHAT);
+        Prompt prompt = new Prompt(List.of(new SystemMessage(template.instructions()),
+                new UserMessage(template.render(Map.of("documents", text, "question", text)))));
+        return new RoutedPrompt(prompt, modelRouter.classify("voice", text, 0));
+    }
+
     @Override
     public String codeGeneratorBot(String prompt) {
         log.info("Received code generation prompt: {}", prompt);
         try {
 
-            // Check for content violations with custom thresholds
-            moderationService.validate(prompt);
-
-            // Prepare prompt for code generation
-            String template = """
-                    You are a production-grade Code Generator and Software Architect.
-                
-                    PRIMARY ROLE:
-                    Output correct, efficient, and maintainable code according to the USER REQUEST below, following best practices for language and framework.
-                
-                    RESPONSE GUIDELINES:
-                
-                    1. CODE CONTENT:
-                       - Generate complete code, including all imports, class definitions, functions, comments, configuration, and usage where needed
-                       - Default to Java with Spring Boot and Maven unless another language or framework is requested
-                
-                    2. CODE QUALITY:
-                       - Use consistent naming conventions and formatting
-                       - Include meaningful inline comments for complex logic
-                       - Implement error handling and validation
-                       - Cover edge cases
-                
-                    3. RESPONSE STRUCTURE:
-                       - Output only code (no explanations or additional text unless explicitly requested)
-                       - For non-code requests, respond: "This is the Code Generator Bot. Please use ChatBot for information and explanations."
-                       - If the request is ambiguous, ask for clarification before providing output
-                
-                    4. SPECIAL HANDLING:
-                       - For requests specifying particular versions or frameworks, comply exactly
-                       - If the task cannot be solved, output a clear, helpful error message
-                
-                    USER REQUEST:
-                    {userRequest}
-                    """;
-
-            String formattedPrompt = template.replace("{prompt}", prompt);
-            SystemMessage systemMessage = new SystemMessage(formattedPrompt);
-            UserMessage userMessage = new UserMessage(prompt);
-            Prompt codePrompt = new Prompt(List.of(systemMessage, userMessage));
+            RoutedPrompt codePrompt = codeGeneratorPrompt(prompt);
             log.info("Sending code generation prompt to ChatClient...");
-            String generatedCode = chatClient.prompt(codePrompt).call().content();
+            String generatedCode = complete("code", PromptTemplateRegistry.CODE, codePrompt,
+                    ChatClient.CallResponseSpec::content, code -> !code.isBlank());
             if (generatedCode == null || generatedCode.trim().isEmpty()) {
                 throw new ChatServiceException("No response received from the Code Generator bot.");
             }
             log.info("Generated code: {}", generatedCode);
             return generatedCode;
+        } catch (ContentModerationException | UpstreamOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error during code generation", e);
             throw new ChatServiceException("Unexpected error during code generation", e);
         }
     }
+
+    @Override
+    public Flux<ChatResponse> codeGeneratorBotStream(String prompt) {
+        log.info("Received streaming code generation prompt: {}", prompt);
+        RoutedPrompt routed = codeGeneratorPrompt(prompt);
+        return chatClient.prompt(routed.prompt())
+                .options(modelRouter.options(routed.route()))
+                .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.CODE)
+                        .param(ModelRouter.ROUTE, routed.route().name()))
+                .stream()
+                .chatResponse();
+    }
+
+    private RoutedPrompt codeGeneratorPrompt(String prompt) {
+        // Check for content violations with the code profile
+        moderationService.validate("code", prompt);
+
+        PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.CODE);
+        Prompt codePrompt = new Prompt(List.of(new SystemMessage(template.instructions()),
+                new UserMessage(template.render(Map.of("request", prompt)))));
+        return new RoutedPrompt(codePrompt, modelRouter.classify("code", prompt, 0));
+    }
+
+    // Blocking model call: coalesced per prompt, sent to the routed model (with a strong fallback) and hedged
+    private <T> T complete(String bot, String template, RoutedPrompt routed,
+                           Function<ChatClient.CallResponseSpec, T> extract, Predicate<T> acceptable) {
+        return requestCoalescer.coalesce(bot, routed.prompt(), () -> modelRouter.call(bot, routed.route(),
+                route -> requestHedger.call(bot, () -> extract.apply(chatClient.prompt(routed.prompt())
+                        .options(modelRouter.options(route))
+                        .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, template)
+                                .param(ModelRouter.ROUTE, route.name()))
+                        .call())),
+                acceptable));
+    }
+
+    private record RoutedPrompt(Prompt prompt, ModelRouter.Route route) {
+    }
 }
\ No newline at end of file
@@ -1,69 +1,108 @@
 package com.SpringAI.RAG.service.serviceImpl;
 
+import com.SpringAI.RAG.dto.WeatherComparison;
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.utils.ModelRouter;
+import com.SpringAI.RAG.utils.RequestCoalescer;
+import com.SpringAI.RAG.utils.RequestHedger;
+import jakarta.annotation.PreDestroy;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public class WeatherServiceImpl {
 
+    private static final String DIRECT = "weather-direct";
+
     private final ChatClient chatClient;
     private final WeatherTools weatherTools;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final ModelRouter modelRouter;
+    private final ExecutorService lookups = Executors.newVirtualThreadPerTaskExecutor();
 
-    public WeatherServiceImpl(ChatClient.Builder chatClient, WeatherTools weatherTools) {
+    public WeatherServiceImpl(ChatClient.Builder chatClient, WeatherTools weatherTools, RequestCoalescer requestCoalescer, RequestHedger requestHedger, ModelRouter modelRouter) {
         this.chatClient = chatClient.build();
         this.weatherTools = weatherTools;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.modelRouter = modelRouter;
     }
 
-    public String getCurrentWeatherForCity(String city) {
-        String prompt = city != null && !city.trim().isEmpty() ? "Get current weather for " + city : "Get current weather for Bangalore";
-        return chatClient.prompt()
-                .tools(weatherTools)
-                .user(prompt)
-                .call()
-                .content();
+    // The structured endpoints read OpenWeather directly; only free-form queries go through the model
+
+    public WeatherTools.CurrentWeather getCurrentWeatherForCity(String city) {
+        return requestCoalescer.coalesce(DIRECT, "current " + city, () -> weatherTools.fetchCurrentWeather(city));
     }
 
-    public String getWeatherForecast(String city) {
-        String prompt = city != null && !city.trim().isEmpty() ? "Get 5-day weather forecast for " + city : "Get 5-day weather forecast for Bangalore";
-        return chatClient.prompt()
-                .tools(weatherTools)
-                .user(prompt)
-                .call()
-                .content();
+    public WeatherTools.ForecastResponse getWeatherForecast(String city) {
+        return requestCoalescer.coalesce(DIRECT, "forecast " + city, () -> weatherTools.fetchForecast(city));
     }
 
-    public String getAirQualityInfo(String city) {
-        String prompt = city != null && !city.trim().isEmpty() ? "Get air quality information for " + city : "Get air quality information for Bangalore";
-        return chatClient.prompt()
-                .tools(weatherTools)
-                .user(prompt)
-                .call()
-                .content();
+    public WeatherTools.AirQuality getAirQualityInfo(String city) {
+        return requestCoalescer.coalesce(DIRECT, "air-quality " + city, () -> weatherTools.fetchAirQuality(city));
     }
 
-    public String compareWeatherBetweenCities(String city1, String city2) {
-        String prompt = String.format("Compare weather between %s and %s", city1 != null ? city1 : "Bangalore", city2 != null ? city2 : "Delhi");
-        return chatClient.prompt()
-                .tools(weatherTools)
-                .user(prompt)
-                .call()
-                .content();
+    public WeatherComparison compareWeatherBetweenCities(String city1, String city2) {
+        // Both lookups run at once, so a comparison costs one upstream round trip
+        Future<WeatherTools.CurrentWeather> first = lookups.submit(() -> getCurrentWeatherForCity(city1 != null ? city1 : "Bangalore"));
+        WeatherTools.CurrentWeather second = getCurrentWeatherForCity(city2 != null ? city2 : "Delhi");
+        try {
+            return new WeatherComparison(first.get(), second);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatServiceException("Weather lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            first.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Interrupted while comparing weather", e);
+        }
     }
 
-    public String getWeatherByCoordinates(double latitude, double longitude) {
-        String prompt = String.format("Get weather for coordinates latitude %.6f and longitude %.6f", latitude, longitude);
-        return chatClient.prompt()
-                .tools(weatherTools)
-                .user(prompt)
-                .call()
-                .content();
+    public WeatherTools.CurrentWeather getWeatherByCoordinates(double latitude, double longitude) {
+        return weatherTools.fetchWeatherByCoordinates(latitude, longitude);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookups.shutdownNow();
     }
 
     public String processWeatherQuery(String query) {
+        return ask(query);
+    }
+
+    // Identical in-flight questions share one completion and its tool calls
+    private String ask(String prompt) {
+        ModelRouter.Route route = modelRouter.classify("weather", prompt, 0);
+        return requestCoalescer.coalesce("weather", prompt, () -> modelRouter.call("weather", route,
+                selected -> requestHedger.call("weather", () -> chatClient.prompt()
+                        .options(modelRouter.options(selected))
+                        .advisors(a -> a.param(ModelRouter.ROUTE, selected.name()))
+                        .tools(weatherTools)
+                        .user(prompt)
+                        .call()
+                        .content()),
+                modelRouter::isConfident));
+    }
+
+    public Flux<ChatResponse> processWeatherQueryStream(String query) {
+        ModelRouter.Route route = modelRouter.classify("weather", query, 0);
         return chatClient.prompt()
+                .options(modelRouter.options(route))
+                .advisors(a -> a.param(ModelRouter.ROUTE, route.name()))
                 .tools(weatherTools)
                 .user(query)
-                .call()
-                .content();
+                .stream()
+                .chatResponse();
     }
 }
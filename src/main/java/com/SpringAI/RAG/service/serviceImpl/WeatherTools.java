@@ -1,5 +1,6 @@
 package com.SpringAI.RAG.service.serviceImpl;
 
+import com.SpringAI.RAG.exception.WeatherNotFoundException;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.ai.tool.annotation.Tool;
@@ -111,25 +112,78 @@ public class WeatherTools {
             @JsonProperty("state") String state
     ) {}
 
+    /** Air quality at the best geocoding match for a city; {@code level} is the AQI in words. */
+    public record AirQuality(
+            GeoLocation location,
+            Integer aqi,
+            String level,
+            Map<String, Double> components
+    ) {}
+
+    // Typed lookups, used directly by the structured endpoints and formatted for the model by the tools below
+
+    public CurrentWeather fetchCurrentWeather(String city) {
+        String query = orDefault(city, "Bangalore,Karnataka,IN");
+        return require(restClient.get()
+                .uri(BASE_URL + "/weather?q={city}&appid={apiKey}&units=metric", query, API_KEY)
+                .retrieve()
+                .onStatus(status -> status.value() == 404, (request, response) -> {
+                    throw new WeatherNotFoundException("No weather data for " + query);
+                })
+                .body(CurrentWeather.class), "No weather data for " + query);
+    }
+
+    public ForecastResponse fetchForecast(String city) {
+        String query = orDefault(city, "Bangalore,Karnataka,IN");
+        return require(restClient.get()
+                .uri(BASE_URL + "/forecast?q={city}&appid={apiKey}&units=metric", query, API_KEY)
+                .retrieve()
+                .onStatus(status -> status.value() == 404, (request, response) -> {
+                    throw new WeatherNotFoundException("No forecast data for " + query);
+                })
+                .body(ForecastResponse.class), "No forecast data for " + query);
+    }
+
+    public AirQuality fetchAirQuality(String city) {
+        String query = orDefault(city, "Bangalore");
+        // Use ParameterizedTypeReference for proper generic type handling
+        List<GeoLocation> locations = restClient.get()
+                .uri(GEO_URL + "/direct?q={city}&limit=1&appid={apiKey}", query, API_KEY)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<GeoLocation>>() {});
+        if (locations == null || locations.isEmpty()) {
+            throw new WeatherNotFoundException("No location found for " + query);
+        }
+        GeoLocation location = locations.getFirst();
+        AirPollution airData = restClient.get()
+                .uri(BASE_URL + "/air_pollution?lat={lat}&lon={lon}&appid={apiKey}", location.lat(), location.lon(), API_KEY)
+                .retrieve()
+                .body(AirPollution.class);
+        if (airData == null || airData.list() == null || airData.list().isEmpty()) {
+            throw new WeatherNotFoundException("No air quality data for " + query);
+        }
+        AirPollution.AirData data = airData.list().getFirst();
+        Integer aqi = data.main() != null ? data.main().aqi() : null;
+        return new AirQuality(location, aqi, aqiLevel(aqi), data.components() != null ? data.components() : Map.of());
+    }
+
+    public CurrentWeather fetchWeatherByCoordinates(double latitude, double longitude) {
+        return require(restClient.get()
+                .uri(BASE_URL + "/weather?lat={lat}&lon={lon}&appid={apiKey}&units=metric",
+                        latitude, longitude, API_KEY)
+                .retrieve()
+                .body(CurrentWeather.class), "No weather data for coordinates: " + latitude + ", " + longitude);
+    }
+
     // Tool methods
     @Tool(description = "Get current weather for Bangalore or any city")
     public String getCurrentWeather(
             @ToolParam(description = "City name (default: Bangalore)") String city) {
 
-        if (city == null || city.trim().isEmpty()) {
-            city = "Bangalore,Karnataka,IN";
-        }
-
         try {
-            CurrentWeather weather = restClient.get()
-                    .uri(BASE_URL + "/weather?q={city}&appid={apiKey}&units=metric", city, API_KEY)
-                    .retrieve()
-                    .body(CurrentWeather.class);
-
-            if (weather != null) {
-                return formatCurrentWeather(weather);
-            }
-            return "Unable to fetch weather data for " + city;
+            return formatCurrentWeather(fetchCurrentWeather(city));
+        } catch (WeatherNotFoundException e) {
+            return "Unable to fetch weather data for " + orDefault(city, "Bangalore,Karnataka,IN");
         } catch (Exception e) {
             return "Error fetching weather: " + e.getMessage();
         }
@@ -139,20 +193,10 @@ public class WeatherTools {
     public String getWeatherForecast(
             @ToolParam(description = "City name (default: Bangalore)") String city) {
 
-        if (city == null || city.trim().isEmpty()) {
-            city = "Bangalore,Karnataka,IN";
-        }
-
         try {
-            ForecastResponse forecast = restClient.get()
-                    .uri(BASE_URL + "/forecast?q={city}&appid={apiKey}&units=metric", city, API_KEY)
-                    .retrieve()
-                    .body(ForecastResponse.class);
-
-            if (forecast != null) {
-                return formatForecast(forecast);
-            }
-            return "Unable to fetch forecast data for " + city;
+            return formatForecast(fetchForecast(city));
+        } catch (WeatherNotFoundException e) {
+            return "Unable to fetch forecast data for " + orDefault(city, "Bangalore,Karnataka,IN");
         } catch (Exception e) {
             return "Error fetching forecast: " + e.getMessage();
         }
@@ -162,32 +206,10 @@ public class WeatherTools {
     public String getAirQuality(
             @ToolParam(description = "City name (default: Bangalore)") String city) {
 
-        if (city == null || city.trim().isEmpty()) {
-            city = "Bangalore";
-        }
-
         try {
-            // Use ParameterizedTypeReference for proper generic type handling
-            List<GeoLocation> locations = restClient.get()
-                    .uri(GEO_URL + "/direct?q={city}&limit=1&appid={apiKey}", city, API_KEY)
-                    .retrieve()
-                    .body(new ParameterizedTypeReference<List<GeoLocation>>() {});
-
-            if (locations != null && !locations.isEmpty()) {
-                GeoLocation location = locations.getFirst();
-                Double lat = location.lat();
-                Double lon = location.lon();
-
-                AirPollution airData = restClient.get()
-                        .uri(BASE_URL + "/air_pollution?lat={lat}&lon={lon}&appid={apiKey}", lat, lon, API_KEY)
-                        .retrieve()
-                        .body(AirPollution.class);
-
-                if (airData != null) {
-                    return formatAirQuality(airData, city);
-                }
-            }
-            return "Unable to fetch air quality data for " + city;
+            return formatAirQuality(fetchAirQuality(city), orDefault(city, "Bangalore"));
+        } catch (WeatherNotFoundException e) {
+            return "Unable to fetch air quality data for " + orDefault(city, "Bangalore");
         } catch (Exception e) {
             return "Error fetching air quality: " + e.getMessage();
         }
@@ -199,15 +221,8 @@ public class WeatherTools {
             @ToolParam(description = "Longitude") double longitude) {
 
         try {
-            CurrentWeather weather = restClient.get()
-                    .uri(BASE_URL + "/weather?lat={lat}&lon={lon}&appid={apiKey}&units=metric",
-                            latitude, longitude, API_KEY)
-                    .retrieve()
-                    .body(CurrentWeather.class);
-
-            if (weather != null) {
-                return formatCurrentWeather(weather);
-            }
+            return formatCurrentWeather(fetchWeatherByCoordinates(latitude, longitude));
+        } catch (WeatherNotFoundException e) {
             return "Unable to fetch weather data for coordinates: " + latitude + ", " + longitude;
         } catch (Exception e) {
             return "Error fetching weather: " + e.getMessage();
@@ -270,12 +285,7 @@ public class WeatherTools {
         return sb.toString();
     }
 
-    private String formatAirQuality(AirPollution airData, String city) {
-        AirPollution.AirData data = airData.list().getFirst();
-        String[] aqiLevels = {"Good", "Fair", "Moderate", "Poor", "Very Poor"};
-        String aqiDescription = data.main().aqi() <= aqiLevels.length ?
-                aqiLevels[data.main().aqi() - 1] : "Unknown";
-
+    private String formatAirQuality(AirQuality airQuality, String city) {
         return String.format("""
                 Air Quality in %s:
                 AQI: %d (%s)
@@ -286,13 +296,29 @@ public class WeatherTools {
                 PM10: %.2f μg/m³
                 """,
                 city,
-                data.main().aqi(),
-                aqiDescription,
-                data.components().getOrDefault("co", 0.0),
-                data.components().getOrDefault("no2", 0.0),
-                data.components().getOrDefault("o3", 0.0),
-                data.components().getOrDefault("pm2_5", 0.0),
-                data.components().getOrDefault("pm10", 0.0)
+                airQuality.aqi(),
+                airQuality.level(),
+                airQuality.components().getOrDefault("co", 0.0),
+                airQuality.components().getOrDefault("no2", 0.0),
+                airQuality.components().getOrDefault("o3", 0.0),
+                airQuality.components().getOrDefault("pm2_5", 0.0),
+                airQuality.components().getOrDefault("pm10", 0.0)
         );
     }
-}
\ No newline at end of file
+
+    private static String aqiLevel(Integer aqi) {
+        String[] aqiLevels = {"Good", "Fair", "Moderate", "Poor", "Very Poor"};
+        return aqi != null && aqi >= 1 && aqi <= aqiLevels.length ? aqiLevels[aqi - 1] : "Unknown";
+    }
+
+    private static String orDefault(String city, String fallback) {
+        return city == null || city.trim().isEmpty() ? fallback : city;
+    }
+
+    private static <T> T require(T body, String message) {
+        if (body == null) {
+            throw new WeatherNotFoundException(message);
+        }
+        return body;
+    }
+}
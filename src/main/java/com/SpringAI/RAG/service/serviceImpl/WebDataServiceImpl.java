@@ -3,27 +3,45 @@ package com.SpringAI.RAG.service.serviceImpl;
 import com.SpringAI.RAG.exception.CrawlException;
 import com.SpringAI.RAG.exception.ContentExtractionException;
 import com.SpringAI.RAG.exception.DatabaseException;
+import com.SpringAI.RAG.exception.InvalidFilterException;
+import com.SpringAI.RAG.exception.UpstreamOverloadedException;
 import com.SpringAI.RAG.service.ChatService;
 import com.SpringAI.RAG.service.WebDataService;
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import com.SpringAI.RAG.utils.ContextAssembler;
+import com.SpringAI.RAG.utils.ModelRouter;
+import com.SpringAI.RAG.utils.PromptCacheMetricsAdvisor;
+import com.SpringAI.RAG.utils.PromptTemplate;
+import com.SpringAI.RAG.utils.PromptTemplateRegistry;
+import com.SpringAI.RAG.utils.RequestCoalescer;
+import com.SpringAI.RAG.utils.RequestHedger;
 import com.SpringAI.RAG.utils.WebDataUtils;
+import com.SpringAI.RAG.vectorstore.ChunkMetadata;
+import com.SpringAI.RAG.vectorstore.DocumentRetriever;
+import com.SpringAI.RAG.vectorstore.SummaryIndex;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 @Service
 public class WebDataServiceImpl implements WebDataService {
@@ -32,6 +50,7 @@ public class WebDataServiceImpl implements WebDataService {
     private static final int MAX_CRAWL_DEPTH = 3;
     private static final int RETRY_LIMIT = 3;
     private static final int THREAD_POOL_SIZE = 10;
+    private static final String NO_CONTENT_FOUND = "No similar content found in the vector store.";
 
     private final VectorStore vectorStore;
     private final JdbcTemplate jdbcTemplate;
@@ -39,12 +58,28 @@ public class WebDataServiceImpl implements WebDataService {
     private final ExecutorService executorService;
     private final Semaphore semaphore;
     private final ChatService chatService;
+    private final ContextAssembler contextAssembler;
+    private final DocumentRetriever documentRetriever;
+    private final SummaryIndex summaryIndex;
+    private final TenantRegistry tenantRegistry;
+    private final PromptTemplateRegistry promptTemplates;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final ModelRouter modelRouter;
 
-    public WebDataServiceImpl(VectorStore vectorStore, JdbcTemplate jdbcTemplate, ChatClient.Builder chatClientBuilder, ChatService chatService) {
+    public WebDataServiceImpl(@Qualifier("customVectorStore") VectorStore vectorStore, JdbcTemplate jdbcTemplate, ChatClient.Builder chatClientBuilder, ChatService chatService, ContextAssembler contextAssembler, DocumentRetriever documentRetriever, SummaryIndex summaryIndex, TenantRegistry tenantRegistry, PromptTemplateRegistry promptTemplates, RequestCoalescer requestCoalescer, RequestHedger requestHedger, ModelRouter modelRouter) {
         this.vectorStore = vectorStore;
         this.jdbcTemplate = jdbcTemplate;
         this.chatClient = chatClientBuilder.build();
         this.chatService = chatService;
+        this.contextAssembler = contextAssembler;
+        this.documentRetriever = documentRetriever;
+        this.summaryIndex = summaryIndex;
+        this.tenantRegistry = tenantRegistry;
+        this.promptTemplates = promptTemplates;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.modelRouter = modelRouter;
         this.executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
         this.semaphore = new Semaphore(THREAD_POOL_SIZE);
     }
@@ -150,20 +185,28 @@ public class WebDataServiceImpl implements WebDataService {
 
     @Override
     @Transactional
-    public void storeContent(List<String> contentList) {
+    public void storeContent(List<String> contentList, String source, String collection) {
         if (contentList == null || contentList.isEmpty()) {
             log.warn("Received an empty content list for storage.");
             return;
         }
         try {
-            jdbcTemplate.update("DELETE FROM vector_store");
+            // Replace this collection only; rows from before collections existed are cleared as well
+            jdbcTemplate.update("DELETE FROM " + tenantRegistry.currentTable() + " WHERE metadata::jsonb ->> 'collection' = ? "
+                    + "OR metadata::jsonb ->> 'collection' IS NULL", collection);
+            summaryIndex.clear(collection);
+            Instant ingestedAt = Instant.now();
             int batchSize = 100;
             List<Document> batchDocuments = new ArrayList<>();
             for (int i = 0; i < contentList.size(); i++) {
-                batchDocuments.add(new Document(contentList.get(i)));
+                String content = contentList.get(i);
+                batchDocuments.add(new Document(content,
+                        ChunkMetadata.of(source, collection, null, ChunkMetadata.sectionOf(content), ingestedAt)));
                 if (batchDocuments.size() >= batchSize || i == contentList.size() - 1) {
                     log.info("Storing {} content items into the vector_store.", batchDocuments.size());
-                    vectorStore.add(batchDocuments);
+                    List<Document> tagged = summaryIndex.assignDocumentIds(batchDocuments);
+                    vectorStore.add(tagged);
+                    summaryIndex.index(tagged);
                     batchDocuments.clear();
                 }
             }
@@ -175,29 +218,52 @@ public class WebDataServiceImpl implements WebDataService {
     }
 
     @Override
-    public String queryContent(String query) {
+    public String queryContent(String query, String filter) {
         try {
-            List<Document> similarDocuments = vectorStore.similaritySearch(query);
+            List<Document> similarDocuments = documentRetriever.retrieve(query, filter);
             if (similarDocuments.isEmpty()) {
-                return "No similar content found in the vector store.";
+                return NO_CONTENT_FOUND;
             }
-            String documents = similarDocuments.stream()
-                    .map(Document::getFormattedContent)
-                    .collect(Collectors.joining("\n"));
-            String prompt = """
-                    Based on the DOCUMENTS below, respond to the QUERY.
-                    If the answer is not available, state: "The data is not available in the provided document."
-
-                    DOCUMENTS:
-                    {documents}
-
-                    QUERY:
-                    {query}
-                    """.replace("{documents}", documents).replace("{query}", query);
-            return chatClient.prompt(new Prompt(List.of(new SystemMessage(prompt), new UserMessage(query)))).call().content();
+            RoutedPrompt routed = queryPrompt(query, similarDocuments);
+            return requestCoalescer.coalesce("web", routed.prompt(), () -> modelRouter.call("web", routed.route(),
+                    route -> requestHedger.call("web", () -> chatClient.prompt(routed.prompt())
+                            .options(modelRouter.options(route))
+                            .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.WEB_QUERY)
+                                    .param(ModelRouter.ROUTE, route.name()))
+                            .call()
+                            .content()),
+                    modelRouter::isConfident));
+        } catch (InvalidFilterException | UpstreamOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error occurred while querying the content: {}", e.getMessage());
             throw new ContentExtractionException("Error while querying content", e);
         }
     }
+
+    @Override
+    public Flux<ChatResponse> queryContentStream(String query, String filter) {
+        List<Document> similarDocuments = documentRetriever.retrieve(query, filter);
+        if (similarDocuments.isEmpty()) {
+            return Flux.just(new ChatResponse(List.of(new Generation(new AssistantMessage(NO_CONTENT_FOUND)))));
+        }
+        RoutedPrompt routed = queryPrompt(query, similarDocuments);
+        return chatClient.prompt(routed.prompt())
+                .options(modelRouter.options(routed.route()))
+                .advisors(a -> a.param(PromptCacheMetricsAdvisor.TEMPLATE, PromptTemplateRegistry.WEB_QUERY)
+                        .param(ModelRouter.ROUTE, routed.route().name()))
+                .stream()
+                .chatResponse();
+    }
+
+    private RoutedPrompt queryPrompt(String query, List<Document> similarDocuments) {
+        ContextAssembler.AssembledContext context = contextAssembler.assemble("web", similarDocuments);
+        PromptTemplate template = promptTemplates.get(PromptTemplateRegistry.WEB_QUERY);
+        Prompt prompt = new Prompt(List.of(new SystemMessage(template.instructions()),
+                new UserMessage(template.render(Map.of("documents", context.text(), "query", query)))));
+        return new RoutedPrompt(prompt, modelRouter.classify("web", query, context.tokensUsed()));
+    }
+
+    private record RoutedPrompt(Prompt prompt, ModelRouter.Route route) {
+    }
 }
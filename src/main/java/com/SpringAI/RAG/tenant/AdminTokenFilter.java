@@ -0,0 +1,71 @@
+package com.SpringAI.RAG.tenant;
+
+import com.SpringAI.RAG.config.AdminProperties;
+import com.SpringAI.RAG.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards {@code /api/admin/**}, which creates and drops tenant tables: the request must carry
+ * {@code rag.admin.token} in the {@code rag.admin.header} header, compared in constant time. Without a
+ * configured token every admin request is refused, so the endpoints are closed by default.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminTokenFilter.class);
+
+    private final AdminProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public AdminTokenFilter(AdminProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    // The servlet path is decoded and normalised by the container, so "/api/./admin" or ";" tricks still match.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !path.equals("/api/admin") && !path.startsWith("/api/admin/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (properties.token() == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Admin endpoints are disabled (rag.admin.token is not set)");
+            return;
+        }
+        String presented = request.getHeader(properties.header());
+        if (presented == null || !MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8),
+                properties.token().getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected admin request {} {} from {}", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            reject(response, HttpStatus.UNAUTHORIZED, "Missing or invalid admin token");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message, status.value()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.SpringAI.RAG.tenant;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Tenant of the request being served on the current thread, or {@code null} for the shared store.
+ * Set by {@link TenantInterceptor}; work handed to other threads must be wrapped with {@link #wrap}.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static void set(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Runs {@code task} on another thread under the tenant captured here. */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String tenantId = current();
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(tenantId);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.SpringAI.RAG.tenant;
+
+import com.SpringAI.RAG.admission.ApiClients;
+import com.SpringAI.RAG.config.TenantProperties;
+import com.SpringAI.RAG.exception.TenantAccessDeniedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Binds the tenant of the calling client to the handling thread. The tenant comes from the client's
+ * configuration ({@code rag.admission.clients.<name>.tenant}), found by its API key, not from the request:
+ * the tenant header is only accepted when it names that same tenant, so a caller cannot read or ingest into
+ * another tenant's table by choosing a header value. Requests from clients without a tenant use the shared
+ * store; unknown tenants are rejected before the handler runs.
+ */
+@Component
+public class TenantInterceptor implements HandlerInterceptor {
+
+    private final TenantRegistry registry;
+    private final TenantProperties properties;
+    private final ApiClients apiClients;
+
+    public TenantInterceptor(TenantRegistry registry, TenantProperties properties, ApiClients apiClients) {
+        this.registry = registry;
+        this.properties = properties;
+        this.apiClients = apiClients;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!registry.isEnabled()) {
+            return true;
+        }
+        String clientName = apiClients.clientOf(request);
+        String bound = clientName != null ? apiClients.tenantOf(clientName) : null;
+        String header = request.getHeader(properties.header());
+        if (header != null && !header.isBlank() && (bound == null || !registry.normalize(header).equals(registry.normalize(bound)))) {
+            throw new TenantAccessDeniedException("This API key may not use tenant " + header.strip());
+        }
+        if (bound == null) {
+            return true;
+        }
+        String tenantId = registry.normalize(bound);
+        registry.requireExists(tenantId);
+        TenantContext.set(tenantId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        TenantContext.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package com.SpringAI.RAG.tenant;
+
+import com.SpringAI.RAG.config.TenantProperties;
+import com.SpringAI.RAG.exception.TenantNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Tenants that own a vector table, persisted in {@code rag_tenants} so every instance routes the same way.
+ * Known ids are cached in memory; a miss is checked against the database once (a tenant created through
+ * another instance) and the cache is refreshed every minute so drops propagate.
+ */
+@Component
+public class TenantRegistry {
+
+    public static final String SHARED_TABLE = "vector_store";
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRegistry.class);
+    // Tenant ids end up in table names, so they are restricted to identifier-safe characters.
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9_]{1,40}");
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS rag_tenants (
+                tenant_id text PRIMARY KEY,
+                table_name text NOT NULL,
+                created_at timestamptz NOT NULL DEFAULT now()
+            )""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantProperties properties;
+    private final Set<String> tenants = ConcurrentHashMap.newKeySet();
+    private volatile boolean schemaReady;
+
+    public TenantRegistry(JdbcTemplate jdbcTemplate, TenantProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public String normalize(String tenantId) {
+        String normalized = tenantId == null ? "" : tenantId.strip().toLowerCase(Locale.ROOT);
+        if (!TENANT_ID.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("Tenant id must match " + TENANT_ID.pattern() + ": " + tenantId);
+        }
+        return normalized;
+    }
+
+    public String tableFor(String tenantId) {
+        return tenantId == null ? SHARED_TABLE : properties.tablePrefix() + tenantId;
+    }
+
+    /** Table of the tenant bound to the current request, or the shared table. */
+    public String currentTable() {
+        return tableFor(TenantContext.current());
+    }
+
+    public void requireExists(String tenantId) {
+        if (tenants.contains(tenantId)) {
+            return;
+        }
+        ensureSchema();
+        Integer rows = jdbcTemplate.queryForObject("SELECT count(*) FROM rag_tenants WHERE tenant_id = ?", Integer.class, tenantId);
+        if (rows == null || rows == 0) {
+            throw new TenantNotFoundException("Unknown tenant: " + tenantId);
+        }
+        tenants.add(tenantId);
+    }
+
+    public List<String> list() {
+        ensureSchema();
+        return jdbcTemplate.queryForList("SELECT tenant_id FROM rag_tenants ORDER BY tenant_id", String.class);
+    }
+
+    public void register(String tenantId) {
+        ensureSchema();
+        jdbcTemplate.update("INSERT INTO rag_tenants (tenant_id, table_name) VALUES (?, ?) ON CONFLICT (tenant_id) DO NOTHING",
+                tenantId, tableFor(tenantId));
+        tenants.add(tenantId);
+    }
+
+    public void unregister(String tenantId) {
+        ensureSchema();
+        jdbcTemplate.update("DELETE FROM rag_tenants WHERE tenant_id = ?", tenantId);
+        tenants.remove(tenantId);
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void refresh() {
+        if (!isEnabled() || !schemaReady) {
+            return;
+        }
+        try {
+            List<String> current = list();
+            tenants.retainAll(current);
+            tenants.addAll(current);
+        } catch (Exception e) {
+            log.warn("Tenant registry refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void ensureSchema() {
+        if (!schemaReady) {
+            jdbcTemplate.execute(CREATE_TABLE);
+            schemaReady = true;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.LimiterProperties;
+import com.SpringAI.RAG.exception.UpstreamOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit per OpenAI model family, applied to every outbound call (including retries) by the
+ * HTTP interceptors in {@code OpenAiClientConfig}.
+ * <p>
+ * A family's limit grows by about one per round of successful calls while it is being used, and is cut by
+ * {@code backoff-ratio} only when the API answers 429/503 or times out (at most once per baseline latency, so
+ * one burst of 429s counts once). Latency alone never lowers the limit: chat latency varies by an order of
+ * magnitude with output length, and a latency rule would pin the limit far below the API's real capacity.
+ * Calls over the limit wait in a FIFO queue until {@code queue-timeout-ms}; a full queue or an expired wait
+ * fails with {@link UpstreamOverloadedException} instead of adding to the 429s. Waiting is asynchronous
+ * ({@link #acquireAsync}), so reactive callers do not park a thread while queued.
+ * <p>
+ * Metrics per family: {@code rag.limiter.limit}, {@code rag.limiter.inflight}, {@code rag.limiter.queue},
+ * {@code rag.limiter.rejections} (reason) and {@code rag.limiter.drops}.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    public enum Signal {
+        /** The API answered; its latency feeds the limit. */
+        SUCCESS,
+        /** The API pushed back (429, 503, timeout): multiplicative decrease. */
+        DROPPED,
+        /** Released without a usable signal (client error, cancelled stream). */
+        IGNORE
+    }
+
+    private final LimiterProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, FamilyLimit> families = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(LimiterProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /** Model family of an OpenAI API endpoint, or {@code null} for any other URL (e.g. the weather API). */
+    public static String familyOf(URI uri) {
+        String path = uri.getPath();
+        if (path == null) {
+            return null;
+        }
+        if (path.endsWith("/chat/completions")) {
+            return "chat";
+        }
+        if (path.endsWith("/embeddings")) {
+            return "embedding";
+        }
+        if (path.endsWith("/moderations")) {
+            return "moderation";
+        }
+        if (path.contains("/images/")) {
+            return "image";
+        }
+        if (path.contains("/audio/")) {
+            return "audio";
+        }
+        return null;
+    }
+
+    /**
+     * Blocks until the family has a free slot or the queue deadline passes.
+     *
+     * @throws UpstreamOverloadedException if the queue is full or the deadline passed
+     */
+    public Permit acquire(String family) {
+        CompletableFuture<Permit> pending = acquireAsync(family);
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!pending.cancel(false)) {
+                pending.thenAccept(permit -> permit.release(Signal.IGNORE));
+            }
+            throw new UpstreamOverloadedException("interrupted while waiting for a " + family + " slot");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A permit once the family has a free slot. The future fails with {@link UpstreamOverloadedException} if the
+     * queue is full or the deadline passes; cancelling it gives up the place in the queue.
+     */
+    public CompletableFuture<Permit> acquireAsync(String family) {
+        return families.computeIfAbsent(family, this::register).acquire();
+    }
+
+    private FamilyLimit register(String family) {
+        FamilyLimit limit = new FamilyLimit(family, properties.initialLimitFor(family),
+                Counter.builder("rag.limiter.rejections").tag("family", family).tag("reason", "queue-full").register(meterRegistry),
+                Counter.builder("rag.limiter.rejections").tag("family", family).tag("reason", "timeout").register(meterRegistry),
+                Counter.builder("rag.limiter.drops").tag("family", family).register(meterRegistry));
+        Gauge.builder("rag.limiter.limit", limit, FamilyLimit::limit).tag("family", family).register(meterRegistry);
+        Gauge.builder("rag.limiter.inflight", limit, FamilyLimit::inFlight).tag("family", family).register(meterRegistry);
+        Gauge.builder("rag.limiter.queue", limit, FamilyLimit::queued).tag("family", family).register(meterRegistry);
+        return limit;
+    }
+
+    /** One slot of a family's limit. Release exactly once; later calls are ignored. */
+    public static final class Permit {
+
+        private final FamilyLimit owner;
+        private final long acquired = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long responded;
+
+        private Permit(FamilyLimit owner) {
+            this.owner = owner;
+        }
+
+        /** Marks the time response headers arrived, so a long streamed body does not count as latency. */
+        public void responded() {
+            responded = System.nanoTime();
+        }
+
+        public void release(Signal signal) {
+            if (released.compareAndSet(false, true)) {
+                long end = responded != 0 ? responded : System.nanoTime();
+                owner.release(signal, end - acquired);
+            }
+        }
+    }
+
+    private final class FamilyLimit {
+
+        private final String family;
+        private final Counter queueFull;
+        private final Counter timedOut;
+        private final Counter drops;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+        private double limit;
+        private int inFlight;
+        private long baselineNanos;
+        private long lastDecrease;
+
+        FamilyLimit(String family, int initialLimit, Counter queueFull, Counter timedOut, Counter drops) {
+            this.family = family;
+            this.limit = Math.max(properties.minLimit(), Math.min(properties.maxLimit(), initialLimit));
+            this.queueFull = queueFull;
+            this.timedOut = timedOut;
+            this.drops = drops;
+        }
+
+        CompletableFuture<Permit> acquire() {
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (waiters.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    return CompletableFuture.completedFuture(new Permit(this));
+                }
+                if (waiters.size() >= properties.maxQueue()) {
+                    queueFull.increment();
+                    return CompletableFuture.failedFuture(new UpstreamOverloadedException("too many queued " + family + " requests"));
+                }
+                waiters.add(waiter);
+            } finally {
+                lock.unlock();
+            }
+            CompletableFuture.delayedExecutor(properties.queueTimeoutMs(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (dequeue(waiter)) {
+                    timedOut.increment();
+                    waiter.completeExceptionally(new UpstreamOverloadedException("timed out waiting for a " + family + " slot"));
+                }
+            });
+            waiter.whenComplete((permit, error) -> {
+                if (error instanceof CancellationException) {
+                    dequeue(waiter);
+                }
+            });
+            return waiter;
+        }
+
+        private boolean dequeue(CompletableFuture<Permit> waiter) {
+            lock.lock();
+            try {
+                return waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Signal signal, long latencyNanos) {
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            lock.lock();
+            try {
+                inFlight--;
+                if (signal == Signal.DROPPED) {
+                    drops.increment();
+                    long now = System.nanoTime();
+                    if (now - lastDecrease > Math.max(baselineNanos, TimeUnit.MILLISECONDS.toNanos(100))) {
+                        limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+                        lastDecrease = now;
+                        log.info("{} limit cut to {} after upstream pushback", family, (int) limit);
+                    }
+                } else if (signal == Signal.SUCCESS) {
+                    onSuccess(latencyNanos);
+                }
+                while (!waiters.isEmpty() && inFlight < (int) limit) {
+                    granted.add(waiters.poll());
+                    inFlight++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Completed outside the lock: callbacks may run inline and acquire or release again
+            for (CompletableFuture<Permit> waiter : granted) {
+                Permit permit = new Permit(this);
+                if (!waiter.complete(permit)) {
+                    permit.release(Signal.IGNORE);
+                }
+            }
+        }
+
+        private void onSuccess(long latencyNanos) {
+            if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+                baselineNanos = latencyNanos;
+            } else {
+                // Let the baseline drift up slowly so a lucky early sample does not pin it forever
+                baselineNanos += (latencyNanos - baselineNanos) / 100;
+            }
+            if (inFlight + 1 >= limit / 2) {
+                // Additive increase only while the limit is actually being used
+                limit = Math.min(properties.maxLimit(), limit + 1 / limit);
+            }
+        }
+
+        double limit() {
+            return limit;
+        }
+
+        double inFlight() {
+            return inFlight;
+        }
+
+        double queued() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
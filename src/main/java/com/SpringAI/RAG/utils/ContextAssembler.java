@@ -0,0 +1,172 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ContextBudgetProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the DOCUMENTS section of RAG prompts under a per-bot token budget.
+ * <p>
+ * Chunks are ranked by retrieval score, near-duplicates (high shingle overlap, common with crawled pages and
+ * overlapping PDF splits) are removed, and chunks are admitted in relevance order until the budget is spent,
+ * truncating the last one if enough room is left. Admitted chunks are then grouped by source, in the order of
+ * each source's best chunk, so related passages read contiguously.
+ */
+@Component
+public class ContextAssembler {
+
+    private static final Logger log = LoggerFactory.getLogger(ContextAssembler.class);
+    private static final int SHINGLE_SIZE = 5;
+    private static final String SEPARATOR = System.lineSeparator();
+
+    private final TokenCounter tokenCounter;
+    private final ContextBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public record AssembledContext(String text, int tokensUsed, int tokensDropped, int chunksUsed, int chunksDropped) {}
+
+    private record Chunk(int rank, String text, String source, double position, double score, int tokens) {}
+
+    public ContextAssembler(TokenCounter tokenCounter, ContextBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.tokenCounter = tokenCounter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AssembledContext assemble(String bot, List<Document> documents) {
+        int budget = properties.budgetFor(bot);
+        List<Chunk> ranked = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            String text = document.getText();
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            Map<String, Object> metadata = document.getMetadata();
+            Object source = metadata.getOrDefault("source", metadata.getOrDefault("file_name", document.getId()));
+            double score = document.getScore() != null ? document.getScore() : -i;
+            ranked.add(new Chunk(i, text.strip(), String.valueOf(source), position(metadata), score, tokenCounter.count(text)));
+        }
+        ranked.sort(Comparator.comparingDouble(Chunk::score).reversed().thenComparingInt(Chunk::rank));
+
+        int tokensDropped = 0;
+        int chunksDropped = 0;
+        List<Chunk> unique = new ArrayList<>(ranked.size());
+        List<long[]> uniqueShingles = new ArrayList<>(ranked.size());
+        for (Chunk chunk : ranked) {
+            long[] shingles = shingles(chunk.text());
+            boolean duplicate = false;
+            for (long[] kept : uniqueShingles) {
+                if (overlap(shingles, kept) >= properties.overlapThreshold()) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) {
+                tokensDropped += chunk.tokens();
+                chunksDropped++;
+            } else {
+                unique.add(chunk);
+                uniqueShingles.add(shingles);
+            }
+        }
+
+        int separatorTokens = tokenCounter.count(SEPARATOR);
+        int tokensUsed = 0;
+        List<Chunk> admitted = new ArrayList<>(unique.size());
+        for (Chunk chunk : unique) {
+            int cost = chunk.tokens() + (admitted.isEmpty() ? 0 : separatorTokens);
+            if (tokensUsed + cost <= budget) {
+                admitted.add(chunk);
+                tokensUsed += cost;
+                continue;
+            }
+            int separator = admitted.isEmpty() ? 0 : separatorTokens;
+            int remaining = budget - tokensUsed - separator;
+            if (remaining >= properties.minPartialChunkTokens()) {
+                String partial = tokenCounter.truncate(chunk.text(), remaining);
+                int partialTokens = tokenCounter.count(partial);
+                admitted.add(new Chunk(chunk.rank(), partial, chunk.source(), chunk.position(), chunk.score(), partialTokens));
+                tokensUsed += separator + partialTokens;
+                tokensDropped += chunk.tokens() - partialTokens;
+            } else {
+                tokensDropped += chunk.tokens();
+                chunksDropped++;
+            }
+        }
+
+        Map<String, List<Chunk>> bySource = new LinkedHashMap<>();
+        for (Chunk chunk : admitted) {
+            bySource.computeIfAbsent(chunk.source(), key -> new ArrayList<>()).add(chunk);
+        }
+        StringBuilder text = new StringBuilder(tokensUsed * 4);
+        for (List<Chunk> group : bySource.values()) {
+            group.sort(Comparator.comparingDouble(Chunk::position).thenComparing(Comparator.comparingDouble(Chunk::score).reversed()));
+            for (Chunk chunk : group) {
+                if (!text.isEmpty()) {
+                    text.append(SEPARATOR);
+                }
+                text.append(chunk.text());
+            }
+        }
+
+        DistributionSummary.builder("rag.context.tokens").tag("bot", bot).tag("kind", "used").register(meterRegistry).record(tokensUsed);
+        DistributionSummary.builder("rag.context.tokens").tag("bot", bot).tag("kind", "dropped").register(meterRegistry).record(tokensDropped);
+        log.info("Context for {}: {} chunks / {} tokens used, {} chunks / {} tokens dropped (budget {})",
+                bot, admitted.size(), tokensUsed, chunksDropped, tokensDropped, budget);
+        return new AssembledContext(text.toString(), tokensUsed, tokensDropped, admitted.size(), chunksDropped);
+    }
+
+    // Keeps chunks of one source in document order when page or chunk metadata is present.
+    private static double position(Map<String, Object> metadata) {
+        Object page = metadata.getOrDefault("page_number", metadata.get("chunk_index"));
+        if (page instanceof Number number) {
+            return number.doubleValue();
+        }
+        return Double.MAX_VALUE;
+    }
+
+    private static long[] shingles(String text) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("\\W+");
+        int count = Math.max(1, words.length - SHINGLE_SIZE + 1);
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            long hash = 1125899906842597L;
+            for (int w = i; w < Math.min(words.length, i + SHINGLE_SIZE); w++) {
+                hash = 31 * hash + words[w].hashCode();
+            }
+            hashes[i] = hash;
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+    // Overlap coefficient |A ∩ B| / min(|A|, |B|): a chunk fully contained in another scores 1.0.
+    private static double overlap(long[] a, long[] b) {
+        int i = 0, j = 0, shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / Math.min(a.length, b.length);
+    }
+}
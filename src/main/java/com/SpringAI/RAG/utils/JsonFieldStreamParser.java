@@ -0,0 +1,154 @@
+package com.SpringAI.RAG.utils;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental parser for a model's JSON answer, fed chunk by chunk as tokens stream in.
+ * <p>
+ * Each top-level field is reported as soon as its value closes, as the raw JSON text of that value (a quoted
+ * string, a number, a nested object...), so callers can forward it before the rest of the object has been
+ * written. Anything before the opening brace, such as a markdown fence, is skipped, as is anything after the
+ * closing one. The parser only finds value boundaries; {@link #objectText()} is what gets parsed and
+ * validated once the stream ends. Not thread-safe; a stream feeds it from a single subscriber.
+ */
+public final class JsonFieldStreamParser {
+
+    private enum State { BEFORE_OBJECT, BEFORE_KEY, KEY, BEFORE_COLON, BEFORE_VALUE, STRING, NESTED, SCALAR, AFTER_VALUE, DONE }
+
+    private final BiConsumer<String, String> onField;
+    private final StringBuilder object = new StringBuilder();
+    private final StringBuilder token = new StringBuilder();
+    private State state = State.BEFORE_OBJECT;
+    private String key;
+    private boolean escaped;
+    private boolean nestedString;
+    private int depth;
+
+    /** @param onField called with the field name and the raw JSON text of its value */
+    public JsonFieldStreamParser(BiConsumer<String, String> onField) {
+        this.onField = onField;
+    }
+
+    public void feed(CharSequence chunk) {
+        for (int i = 0; i < chunk.length() && state != State.DONE; i++) {
+            accept(chunk.charAt(i));
+        }
+    }
+
+    /** Whether the closing brace of the top-level object has been seen. */
+    public boolean isComplete() {
+        return state == State.DONE;
+    }
+
+    /** The top-level object seen so far, from its opening brace. */
+    public String objectText() {
+        return object.toString();
+    }
+
+    private void accept(char c) {
+        if (state == State.BEFORE_OBJECT) {
+            if (c == '{') {
+                object.append(c);
+                state = State.BEFORE_KEY;
+            }
+            return;
+        }
+        object.append(c);
+        switch (state) {
+            case BEFORE_KEY -> {
+                if (c == '"') {
+                    token.setLength(0);
+                    state = State.KEY;
+                } else if (c == '}') {
+                    state = State.DONE;
+                }
+            }
+            case KEY -> {
+                if (escaped) {
+                    escaped = false;
+                    token.append(c);
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    key = token.toString();
+                    state = State.BEFORE_COLON;
+                } else {
+                    token.append(c);
+                }
+            }
+            case BEFORE_COLON -> {
+                if (c == ':') {
+                    state = State.BEFORE_VALUE;
+                }
+            }
+            case BEFORE_VALUE -> {
+                if (Character.isWhitespace(c)) {
+                    return;
+                }
+                token.setLength(0);
+                token.append(c);
+                if (c == '"') {
+                    state = State.STRING;
+                } else if (c == '{' || c == '[') {
+                    depth = 1;
+                    nestedString = false;
+                    state = State.NESTED;
+                } else {
+                    state = State.SCALAR;
+                }
+            }
+            case STRING -> {
+                token.append(c);
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    emit();
+                }
+            }
+            case NESTED -> {
+                token.append(c);
+                if (nestedString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        nestedString = false;
+                    }
+                } else if (c == '"') {
+                    nestedString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    emit();
+                }
+            }
+            case SCALAR -> {
+                if (c == ',' || c == '}' || Character.isWhitespace(c)) {
+                    emit();
+                    afterValue(c);
+                } else {
+                    token.append(c);
+                }
+            }
+            case AFTER_VALUE -> afterValue(c);
+            default -> {
+            }
+        }
+    }
+
+    private void afterValue(char c) {
+        if (c == ',') {
+            state = State.BEFORE_KEY;
+        } else if (c == '}') {
+            state = State.DONE;
+        }
+    }
+
+    private void emit() {
+        state = State.AFTER_VALUE;
+        onField.accept(key, token.toString());
+    }
+}
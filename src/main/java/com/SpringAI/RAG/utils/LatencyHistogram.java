@@ -0,0 +1,86 @@
+package com.SpringAI.RAG.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram over the last one to two windows, with log-spaced buckets (10% wide, 1 ms to
+ * about 10 minutes). Recording is one atomic increment; a percentile query walks the ~140 buckets of the
+ * current and previous window, so old traffic ages out after two windows.
+ */
+final class LatencyHistogram {
+
+    private static final double GROWTH = 1.1;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 140;
+
+    private final long windowNanos;
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private volatile long windowStart = System.nanoTime();
+
+    LatencyHistogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    void record(long millis) {
+        rotateIfDue();
+        current.incrementAndGet(bucket(millis));
+    }
+
+    long count() {
+        rotateIfDue();
+        long count = 0;
+        AtomicLongArray now = current;
+        AtomicLongArray before = previous;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += now.get(i) + before.get(i);
+        }
+        return count;
+    }
+
+    /** Upper bound in milliseconds of the bucket holding the {@code quantile}, or -1 without samples. */
+    long percentile(double quantile) {
+        rotateIfDue();
+        AtomicLongArray now = current;
+        AtomicLongArray before = previous;
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = now.get(i) + before.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (long) Math.ceil(Math.pow(GROWTH, i));
+            }
+        }
+        return (long) Math.ceil(Math.pow(GROWTH, BUCKETS - 1));
+    }
+
+    private static int bucket(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(millis) / LOG_GROWTH));
+    }
+
+    private void rotateIfDue() {
+        if (System.nanoTime() - windowStart < windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= windowNanos) {
+                previous = current;
+                current = new AtomicLongArray(BUCKETS);
+                windowStart = now;
+            }
+        }
+    }
+}
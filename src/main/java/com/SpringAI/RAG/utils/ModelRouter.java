@@ -0,0 +1,147 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModelRoutingProperties;
+import com.fasterxml.jackson.core.JacksonException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sends each bot request to a fast or a strong model profile.
+ * <p>
+ * Classification is a few integer checks on data the bot already has: its bias (blog and code lean strong,
+ * weather leans fast), the question's token count, the size of the retrieved context, complexity keywords
+ * and multi-part questions. A request scoring {@code rag.routing.strong-score} or more goes to the strong
+ * model. A fast answer that comes back empty, unparseable or hedging ("I'm not sure...") is asked
+ * again on the strong model.
+ * <p>
+ * Latency is recorded per route in {@code rag.routing.latency} (route=fast|strong|fallback); token usage per
+ * route is recorded by {@link PromptCacheMetricsAdvisor} from the {@link #ROUTE} advisor param.
+ */
+@Component
+public class ModelRouter {
+
+    public static final String ROUTE = "rag.routing.route";
+
+    public record Route(String name, String model, int score) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final ModelRoutingProperties properties;
+    private final TokenCounter tokenCounter;
+    private final MeterRegistry meterRegistry;
+    private final Route fast;
+    private final Route strong;
+    private final Route pinned;
+
+    public ModelRouter(ModelRoutingProperties properties, TokenCounter tokenCounter, MeterRegistry meterRegistry,
+                       @Value("${spring.ai.openai.chat.options.model:gpt-3.5-turbo}") String defaultModel) {
+        this.properties = properties;
+        this.tokenCounter = tokenCounter;
+        this.meterRegistry = meterRegistry;
+        this.fast = new Route("fast", properties.fastModel(), 0);
+        this.strong = new Route("strong", properties.strongModel(), 0);
+        this.pinned = new Route("default", defaultModel, 0);
+    }
+
+    /** Picks the profile for a request; {@code contextTokens} is the size of the retrieved context, if any. */
+    public Route classify(String bot, String question, int contextTokens) {
+        if (!properties.enabled()) {
+            return pinned;
+        }
+        int score = properties.biasFor(bot);
+        int questionTokens = tokenCounter.count(question);
+        if (questionTokens > properties.maxFastQuestionTokens()) {
+            score += questionTokens > 3 * properties.maxFastQuestionTokens() ? 2 : 1;
+        }
+        if (contextTokens > properties.maxFastContextTokens()) {
+            score++;
+        }
+        if (question != null) {
+            String lower = question.toLowerCase(Locale.ROOT);
+            int keywords = 0;
+            for (String keyword : properties.complexKeywords()) {
+                if (lower.contains(keyword)) {
+                    keywords++;
+                }
+            }
+            score += Math.min(2, keywords);
+            if (lower.chars().filter(c -> c == '?').count() > 1) {
+                score++;
+            }
+        }
+        Route route = score >= properties.strongScore() ? strong : fast;
+        return new Route(route.name(), route.model(), score);
+    }
+
+    public ChatOptions options(Route route) {
+        return OpenAiChatOptions.builder().model(route.model()).build();
+    }
+
+    /**
+     * Runs {@code call} on the chosen route. A fast answer that is null or fails {@code acceptable} (or throws
+     * while being parsed, for entity calls) is retried once on the strong route.
+     */
+    public <T> T call(String bot, Route route, Function<Route, T> call, Predicate<T> acceptable) {
+        if (!"fast".equals(route.name())) {
+            return timed(bot, route.name(), () -> call.apply(route));
+        }
+        T result;
+        try {
+            result = timed(bot, "fast", () -> call.apply(route));
+        } catch (RuntimeException e) {
+            if (!isParseFailure(e)) {
+                throw e;
+            }
+            result = null;
+        }
+        if (result != null && acceptable.test(result)) {
+            return result;
+        }
+        Counter.builder("rag.routing.fallbacks").tag("bot", bot).register(meterRegistry).increment();
+        log.debug("Fast {} answer was not usable (score {}), asking {}", bot, route.score(), strong.model());
+        Route fallback = new Route("fallback", strong.model(), route.score());
+        return timed(bot, "fallback", () -> call.apply(fallback));
+    }
+
+    /** Default acceptance check for text answers: long enough and not hedging. */
+    public boolean isConfident(String answer) {
+        if (answer == null || answer.strip().length() < properties.minAnswerLength()) {
+            return false;
+        }
+        String lower = answer.toLowerCase(Locale.ROOT);
+        for (String marker : properties.uncertaintyMarkers()) {
+            if (lower.contains(marker)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> T timed(String bot, String route, Supplier<T> call) {
+        Timer timer = Timer.builder("rag.routing.latency").tag("bot", bot).tag("route", route).register(meterRegistry);
+        return timer.record(call);
+    }
+
+    // Structured-output conversion failures surface as runtime exceptions wrapping Jackson's
+    private static boolean isParseFailure(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JacksonException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModerationBatchProperties;
+import com.SpringAI.RAG.exception.ChatServiceException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects concurrent moderation checks into one array request to the moderations endpoint and hands each
+ * caller its own scores.
+ * <p>
+ * The window adapts to load the way Nagle's algorithm does: while fewer than {@code rag.moderation-batch.max-in-flight}
+ * batches are outstanding, whatever is queued is sent at once, so an idle service adds no delay. Once the
+ * endpoint is busy, checks accumulate until the batch is full ({@code max-batch-size}) or the oldest one has
+ * waited {@code max-wait-ms}; the busier the service, the larger the batches. Metrics:
+ * {@code rag.moderation.batch.size} and {@code rag.moderation.batch.wait} (enqueue to send), both with
+ * histogram buckets.
+ */
+@Component
+public class ModerationBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationBatcher.class);
+
+    private record Pending(String text, long enqueuedAt, CompletableFuture<ModerationCache.Scores> result) {
+    }
+
+    private final ModerationClient moderationClient;
+    private final ModerationBatchProperties properties;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary batchSize;
+    private final Timer waitTime;
+    private final Thread dispatcher;
+
+    public ModerationBatcher(ModerationClient moderationClient, ModerationBatchProperties properties, MeterRegistry meterRegistry) {
+        this.moderationClient = moderationClient;
+        this.properties = properties;
+        this.batchSize = DistributionSummary.builder("rag.moderation.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("rag.moderation.batch.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dispatcher = Thread.ofVirtual().name("moderation-batcher").start(this::dispatch);
+    }
+
+    /** Moderates {@code text} as part of the next batch; blocks until its batch returns. */
+    public ModerationCache.Scores moderate(String text) {
+        Pending pending = new Pending(text, System.nanoTime(), new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.result().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new ChatServiceException("Moderation check failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Interrupted while waiting for moderation", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        senders.shutdownNow();
+    }
+
+    private void dispatch() {
+        long maxWait = TimeUnit.MILLISECONDS.toNanos(properties.maxWaitMs());
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Pending first = queue.take();
+                List<Pending> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = first.enqueuedAt() + maxWait;
+                while (batch.size() < properties.maxBatchSize()) {
+                    // Only wait for companions while the endpoint already has enough batches to work on
+                    long wait = inFlight.get() < properties.maxInFlight() ? 0 : deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        long now = System.nanoTime();
+        batchSize.record(batch.size());
+        for (Pending pending : batch) {
+            waitTime.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        inFlight.incrementAndGet();
+        try {
+            senders.execute(() -> {
+                try {
+                    List<ModerationCache.Scores> scores = moderationClient.moderate(batch.stream().map(Pending::text).toList());
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).result().complete(scores.get(i));
+                    }
+                } catch (Throwable e) {
+                    // Errors too: every caller is blocked on its future until the batch resolves
+                    log.warn("Moderation batch of {} failed: {}", batch.size(), e.getMessage());
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                    throw e;
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModerationCacheProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moderation results by text, so a retried message or a stock prompt is moderated once per TTL instead of
+ * on every request. Keys are a SHA-256 of the moderation model and exactly the text the model scores (the
+ * trimmed input). Nothing else is normalised: texts that differ only in compatibility characters or inner
+ * whitespace can score differently, and a shared key would let one stand in for the other. Entries hold the
+ * category scores, not the verdict, so changed {@code moderation.thresholds} apply to cached entries at once.
+ * <p>
+ * The memory tier is an LRU of {@code rag.moderation-cache.size}. With {@code rag.moderation-cache.shared-enabled}
+ * misses fall through to {@code rag_moderation_cache} in Postgres, which new entries are written behind to,
+ * so every instance benefits from the others' calls. Metrics: {@code rag.moderation.cache}
+ * (outcome=hit|shared-hit|miss).
+ */
+@Component
+public class ModerationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationCache.class);
+    // Bumped when the key derivation changes, so shared rows under an old key are never read again
+    private static final String KEY_VERSION = "2";
+    private static final TypeReference<LinkedHashMap<String, Double>> SCORES = new TypeReference<>() {
+    };
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS rag_moderation_cache (
+                cache_key text PRIMARY KEY,
+                scores jsonb NOT NULL,
+                moderation_id text,
+                model text,
+                created_at timestamptz NOT NULL DEFAULT now()
+            )""";
+    private static final String UPSERT = """
+            INSERT INTO rag_moderation_cache (cache_key, scores, moderation_id, model, created_at)
+            VALUES (?, ?::jsonb, ?, ?, now())
+            ON CONFLICT (cache_key) DO UPDATE
+            SET scores = EXCLUDED.scores, moderation_id = EXCLUDED.moderation_id, model = EXCLUDED.model, created_at = now()""";
+
+    /** Category scores of one moderated text, indexed by {@link ModerationCategory#ordinal()}. */
+    public record Scores(double[] categories, String moderationId, String model) {
+    }
+
+    private record Entry(Scores scores, long expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ModerationCacheProperties properties;
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private volatile boolean schemaReady;
+
+    public ModerationCache(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ModerationCacheProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        int capacity = properties.size();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.ttlNanos = Duration.ofMinutes(properties.ttlMinutes()).toNanos();
+        this.hits = Counter.builder("rag.moderation.cache").tag("outcome", "hit").register(meterRegistry);
+        this.sharedHits = Counter.builder("rag.moderation.cache").tag("outcome", "shared-hit").register(meterRegistry);
+        this.misses = Counter.builder("rag.moderation.cache").tag("outcome", "miss").register(meterRegistry);
+    }
+
+    public static String keyOf(String model, String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((KEY_VERSION + '\u0000' + model + '\u0000').getBytes(StandardCharsets.UTF_8));
+        digest.update(text.trim().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** The cached scores, or {@code null}. */
+    public Scores get(String key) {
+        if (!properties.enabled()) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt() < 0) {
+            hits.increment();
+            return entry.scores();
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        Scores shared = properties.sharedEnabled() ? loadShared(key) : null;
+        if (shared != null) {
+            entries.put(key, new Entry(shared, System.nanoTime() + ttlNanos));
+            sharedHits.increment();
+            return shared;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, Scores scores) {
+        if (!properties.enabled()) {
+            return;
+        }
+        entries.put(key, new Entry(scores, System.nanoTime() + ttlNanos));
+        if (properties.sharedEnabled()) {
+            Thread.ofVirtual().name("moderation-cache-store").start(() -> storeShared(key, scores));
+        }
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpired() {
+        if (!schemaReady) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM rag_moderation_cache WHERE created_at < now() - make_interval(mins => ?)",
+                    properties.ttlMinutes());
+            if (purged > 0) {
+                log.info("Purged {} expired moderation cache entries", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Moderation cache purge failed: {}", e.getMessage());
+        }
+    }
+
+    // The shared tier is an optimisation: when Postgres is unavailable the text is simply moderated again
+    private Scores loadShared(String key) {
+        try {
+            ensureSchema();
+            List<Scores> rows = jdbcTemplate.query("SELECT scores, moderation_id, model FROM rag_moderation_cache "
+                            + "WHERE cache_key = ? AND created_at >= now() - make_interval(mins => ?)",
+                    (rs, rowNum) -> new Scores(readScores(rs.getString("scores")), rs.getString("moderation_id"),
+                            rs.getString("model")), key, properties.ttlMinutes());
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (Exception e) {
+            log.warn("Could not read shared moderation cache: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeShared(String key, Scores scores) {
+        try {
+            ensureSchema();
+            jdbcTemplate.update(UPSERT, key, objectMapper.writeValueAsString(labelled(scores.categories())), scores.moderationId(),
+                    scores.model());
+        } catch (Exception e) {
+            log.warn("Could not write shared moderation cache: {}", e.getMessage());
+        }
+    }
+
+    // Stored by label rather than position, so rows survive a change in category order
+    private static Map<String, Double> labelled(double[] categories) {
+        Map<String, Double> labelled = new LinkedHashMap<>();
+        for (int i = 0; i < categories.length; i++) {
+            labelled.put(ModerationCategory.at(i).label(), categories[i]);
+        }
+        return labelled;
+    }
+
+    private double[] readScores(String json) {
+        Map<String, Double> labelled;
+        try {
+            labelled = objectMapper.readValue(json, SCORES);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable moderation scores", e);
+        }
+        double[] categories = new double[ModerationCategory.count()];
+        labelled.forEach((label, score) -> {
+            ModerationCategory category = ModerationCategory.ofLabel(label);
+            if (category != null && score != null) {
+                categories[category.ordinal()] = score;
+            }
+        });
+        return categories;
+    }
+
+    private void ensureSchema() {
+        if (!schemaReady) {
+            jdbcTemplate.execute(CREATE_TABLE);
+            schemaReady = true;
+        }
+    }
+}
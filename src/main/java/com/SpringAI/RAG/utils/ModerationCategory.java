@@ -0,0 +1,85 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModerationThresholds;
+
+/**
+ * The moderation categories in a fixed order, so scores and thresholds can be plain {@code double[]} indexed
+ * by {@link #ordinal()}. {@code label} is the name reported in violations; {@code key} is the property name
+ * used by {@code moderation.thresholds} and the policy profiles.
+ */
+public enum ModerationCategory {
+
+    HATE("Hate", "hate"),
+    SEXUAL("Sexual", "sexual"),
+    SELF_HARM("Self-Harm", "self-harm"),
+    VIOLENCE("Violence", "violence"),
+    HARASSMENT("Harassment", "harassment"),
+    SEXUAL_MINORS("SexualMinors", "sexual-minors"),
+    HATE_THREATENING("HateThreatening", "hate-threatening"),
+    VIOLENCE_GRAPHIC("ViolenceGraphic", "violence-graphic"),
+    SELF_HARM_INTENT("SelfHarmIntent", "self-harm-intent"),
+    SELF_HARM_INSTRUCTIONS("SelfHarmInstructions", "self-harm-instructions"),
+    HARASSMENT_THREATENING("HarassmentThreatening", "harassment-threatening");
+
+    private static final ModerationCategory[] VALUES = values();
+
+    private final String label;
+    private final String key;
+
+    ModerationCategory(String label, String key) {
+        this.label = label;
+        this.key = key;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static ModerationCategory at(int index) {
+        return VALUES[index];
+    }
+
+    /** The category with this property name, or {@code null}. */
+    public static ModerationCategory ofKey(String key) {
+        for (ModerationCategory category : VALUES) {
+            if (category.key.equals(key)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /** The category with this violation label, or {@code null}. */
+    public static ModerationCategory ofLabel(String label) {
+        for (ModerationCategory category : VALUES) {
+            if (category.label.equals(label)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    public static double[] thresholdsOf(ModerationThresholds thresholds) {
+        double[] values = new double[VALUES.length];
+        values[HATE.ordinal()] = thresholds.hate();
+        values[SEXUAL.ordinal()] = thresholds.sexual();
+        values[SELF_HARM.ordinal()] = thresholds.selfHarm();
+        values[VIOLENCE.ordinal()] = thresholds.violence();
+        values[HARASSMENT.ordinal()] = thresholds.harassment();
+        values[SEXUAL_MINORS.ordinal()] = thresholds.sexualMinors();
+        values[HATE_THREATENING.ordinal()] = thresholds.hateThreatening();
+        values[VIOLENCE_GRAPHIC.ordinal()] = thresholds.violenceGraphic();
+        values[SELF_HARM_INTENT.ordinal()] = thresholds.selfHarmIntent();
+        values[SELF_HARM_INSTRUCTIONS.ordinal()] = thresholds.selfHarmInstructions();
+        values[HARASSMENT_THREATENING.ordinal()] = thresholds.harassmentThreatening();
+        return values;
+    }
+}
@@ -0,0 +1,87 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.exception.ChatServiceException;
+import org.springframework.ai.model.openai.autoconfigure.OpenAiConnectionProperties;
+import org.springframework.ai.model.openai.autoconfigure.OpenAiModerationProperties;
+import org.springframework.ai.openai.OpenAiModerationModel;
+import org.springframework.ai.openai.api.OpenAiModerationApi;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calls the moderations endpoint with an array input, which Spring AI's {@link OpenAiModerationModel} does
+ * not expose, so many texts cost one request. Uses the same connection settings as the Spring AI model and
+ * the Boot {@code RestClient.Builder}, so the calls share the limiter's moderation permits.
+ */
+@Component
+public class ModerationClient {
+
+    private record BatchRequest(String model, List<String> input) {
+    }
+
+    private final RestClient restClient;
+    private final RetryTemplate retryTemplate;
+    private final String model;
+
+    public ModerationClient(RestClient.Builder restClientBuilder, RetryTemplate retryTemplate,
+                            OpenAiConnectionProperties connection, OpenAiModerationProperties moderation) {
+        this.retryTemplate = retryTemplate;
+        String baseUrl = StringUtils.hasText(moderation.getBaseUrl()) ? moderation.getBaseUrl() : connection.getBaseUrl();
+        String apiKey = StringUtils.hasText(moderation.getApiKey()) ? moderation.getApiKey() : connection.getApiKey();
+        this.restClient = restClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .defaultHeaders(headers -> headers.setBearerAuth(apiKey))
+                .build();
+        String configured = moderation.getOptions() != null ? moderation.getOptions().getModel() : null;
+        this.model = StringUtils.hasText(configured) ? configured : OpenAiModerationApi.DEFAULT_MODERATION_MODEL;
+    }
+
+    /** The moderation model, part of every cache key. */
+    public String model() {
+        return model;
+    }
+
+    /** Scores for each of {@code texts}, in order, from one request. */
+    public List<ModerationCache.Scores> moderate(List<String> texts) {
+        OpenAiModerationApi.OpenAiModerationResponse response;
+        try {
+            BatchRequest request = new BatchRequest(model, texts.stream().map(String::trim).toList());
+            response = retryTemplate.execute(context -> restClient.post()
+                    .uri("/v1/moderations")
+                    .body(request)
+                    .retrieve()
+                    .body(OpenAiModerationApi.OpenAiModerationResponse.class));
+        } catch (Exception e) {
+            throw new ChatServiceException("Moderation check failed", e);
+        }
+        if (response == null || response.results() == null || response.results().length != texts.size()) {
+            throw new ChatServiceException("Moderation check returned an unexpected number of results");
+        }
+        List<ModerationCache.Scores> scores = new ArrayList<>(texts.size());
+        for (OpenAiModerationApi.OpenAiModerationResult result : response.results()) {
+            scores.add(new ModerationCache.Scores(categoriesOf(result.categoryScores()), response.id(), response.model()));
+        }
+        return scores;
+    }
+
+    private static double[] categoriesOf(OpenAiModerationApi.CategoryScores scores) {
+        double[] categories = new double[ModerationCategory.count()];
+        categories[ModerationCategory.HATE.ordinal()] = scores.hate();
+        categories[ModerationCategory.SEXUAL.ordinal()] = scores.sexual();
+        categories[ModerationCategory.SELF_HARM.ordinal()] = scores.selfHarm();
+        categories[ModerationCategory.VIOLENCE.ordinal()] = scores.violence();
+        categories[ModerationCategory.HARASSMENT.ordinal()] = scores.harassment();
+        categories[ModerationCategory.SEXUAL_MINORS.ordinal()] = scores.sexualMinors();
+        categories[ModerationCategory.HATE_THREATENING.ordinal()] = scores.hateThreatening();
+        categories[ModerationCategory.VIOLENCE_GRAPHIC.ordinal()] = scores.violenceGraphic();
+        categories[ModerationCategory.SELF_HARM_INTENT.ordinal()] = scores.selfHarmIntent();
+        categories[ModerationCategory.SELF_HARM_INSTRUCTIONS.ordinal()] = scores.selfHarmInstructions();
+        categories[ModerationCategory.HARASSMENT_THREATENING.ordinal()] = scores.harassmentThreatening();
+        return categories;
+    }
+}
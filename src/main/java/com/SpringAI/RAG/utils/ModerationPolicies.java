@@ -0,0 +1,146 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModerationPolicyProperties;
+import com.SpringAI.RAG.config.ModerationThresholds;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-bot moderation profiles, compiled to {@link ModerationPolicy} threshold vectors when loaded.
+ * <p>
+ * Profiles come from {@code rag.moderation-policy.location} as {@code <bot>.<category>=<threshold>} lines on
+ * top of {@code moderation.thresholds}; {@code default.<category>} applies to every bot without its own
+ * value. With {@code rag.moderation-policy.reload-enabled} the file is checked every 10 seconds and a changed
+ * file replaces all profiles at once. A file that does not parse fails startup, but only logs and keeps
+ * the current profiles on reload. Metrics: {@code rag.moderation.policy.reloads} (outcome=applied|rejected).
+ */
+@Component
+public class ModerationPolicies {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationPolicies.class);
+    public static final String DEFAULT = "default";
+
+    private record Profiles(ModerationPolicy defaults, Map<String, ModerationPolicy> byBot) {
+    }
+
+    private final ModerationThresholds thresholds;
+    private final ModerationPolicyProperties properties;
+    private final Resource resource;
+    private final MeterRegistry meterRegistry;
+    private volatile Profiles profiles;
+    private volatile long loadedModified;
+
+    public ModerationPolicies(ModerationThresholds thresholds, ModerationPolicyProperties properties, ResourceLoader resourceLoader,
+                              MeterRegistry meterRegistry) {
+        this.thresholds = thresholds;
+        this.properties = properties;
+        this.resource = resourceLoader.getResource(properties.location());
+        this.meterRegistry = meterRegistry;
+        this.loadedModified = lastModified();
+        this.profiles = compile(read());
+        log.info("Loaded moderation profiles for {}", profiles.byBot().keySet());
+    }
+
+    /** The bot's policy, or the default one for a bot without a profile. */
+    public ModerationPolicy forBot(String bot) {
+        Profiles current = profiles;
+        return bot == null ? current.defaults() : current.byBot().getOrDefault(bot, current.defaults());
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.SECONDS)
+    public void reloadIfChanged() {
+        if (!properties.reloadEnabled()) {
+            return;
+        }
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        try {
+            profiles = compile(read());
+            count("applied");
+            log.info("Reloaded moderation profiles for {}", profiles.byBot().keySet());
+        } catch (RuntimeException e) {
+            count("rejected");
+            log.error("Moderation profiles in {} rejected, keeping the current ones: {}", properties.location(), e.getMessage());
+        }
+        loadedModified = modified;
+    }
+
+    private Properties read() {
+        Properties values = new Properties();
+        if (!resource.exists()) {
+            log.warn("Moderation profiles {} not found, every bot uses moderation.thresholds", properties.location());
+            return values;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            values.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Moderation profiles " + properties.location() + " could not be read", e);
+        }
+        return values;
+    }
+
+    private Profiles compile(Properties values) {
+        Map<String, Map<ModerationCategory, Double>> overrides = new HashMap<>();
+        for (String name : values.stringPropertyNames()) {
+            int dot = name.lastIndexOf('.');
+            ModerationCategory category = dot > 0 ? ModerationCategory.ofKey(name.substring(dot + 1)) : null;
+            if (category == null) {
+                throw new IllegalStateException("Moderation profile entry " + name + " is not <bot>.<category>");
+            }
+            double threshold;
+            try {
+                threshold = Double.parseDouble(values.getProperty(name).strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Moderation profile entry " + name + " is not a number");
+            }
+            if (!(threshold >= 0.0 && threshold <= 1.0)) {
+                throw new IllegalStateException("Moderation profile entry " + name + " must be between 0.0 and 1.0");
+            }
+            overrides.computeIfAbsent(name.substring(0, dot), bot -> new HashMap<>()).put(category, threshold);
+        }
+        double[] base = ModerationCategory.thresholdsOf(thresholds);
+        apply(base, overrides.remove(DEFAULT));
+        ModerationPolicy defaults = new ModerationPolicy(DEFAULT, base);
+        Map<String, ModerationPolicy> byBot = new HashMap<>();
+        overrides.forEach((bot, botOverrides) -> {
+            double[] vector = base.clone();
+            apply(vector, botOverrides);
+            byBot.put(bot, new ModerationPolicy(bot, vector));
+        });
+        return new Profiles(defaults, Map.copyOf(byBot));
+    }
+
+    private static void apply(double[] vector, Map<ModerationCategory, Double> overrides) {
+        if (overrides != null) {
+            overrides.forEach((category, threshold) -> vector[category.ordinal()] = threshold);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return resource.exists() ? resource.lastModified() : -1;
+        } catch (IOException e) {
+            // Inside a jar there is no timestamp; such a file cannot change anyway
+            return 0;
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("rag.moderation.policy.reloads").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+}
@@ -0,0 +1,61 @@
+package com.SpringAI.RAG.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A moderation profile compiled to one threshold per {@link ModerationCategory}. {@link #firstViolation} is
+ * a loop over two primitive arrays and allocates nothing; the violation report is only built for a score
+ * above its threshold.
+ */
+public final class ModerationPolicy {
+
+    private final String name;
+    private final double[] thresholds;
+
+    public ModerationPolicy(String name, double[] thresholds) {
+        if (thresholds.length != ModerationCategory.count()) {
+            throw new IllegalArgumentException("Policy " + name + " needs " + ModerationCategory.count() + " thresholds");
+        }
+        this.name = name;
+        this.thresholds = thresholds.clone();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public double threshold(ModerationCategory category) {
+        return thresholds[category.ordinal()];
+    }
+
+    /** Index of the first category scored above its threshold, or -1 if the scores pass. */
+    public int firstViolation(double[] scores) {
+        for (int i = 0; i < thresholds.length; i++) {
+            if (scores[i] > thresholds[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Violated categories by label, with score, threshold and percentage, starting at {@code first}. */
+    public Map<String, Object> violations(double[] scores, int first) {
+        Map<String, Object> violations = new LinkedHashMap<>();
+        for (int i = first; i < thresholds.length; i++) {
+            if (scores[i] > thresholds[i]) {
+                violations.put(ModerationCategory.at(i).label(), Map.of(
+                        "score", scores[i],
+                        "threshold", thresholds[i],
+                        "percentage", String.format("%.2f%%", scores[i] * 100)));
+            }
+        }
+        return violations;
+    }
+
+    @Override
+    public String toString() {
+        return name + Arrays.toString(thresholds);
+    }
+}
@@ -0,0 +1,137 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.ModerationPrefilterProperties;
+import com.SpringAI.RAG.config.ModerationPrefilterProperties.Mode;
+import com.SpringAI.RAG.exception.ContentModerationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local first stage of moderation. A {@link MultiPatternMatcher} over the blocklist rejects obvious violations
+ * without a remote call; a short input (at most {@code rag.moderation-prefilter.safe-max-chars}) that is mostly
+ * plain text and contains none of the sensitive terms counts as clearly safe. Everything else is left to the
+ * remote model.
+ * <p>
+ * In {@code SHADOW} mode (the default) the local decision is only recorded next to the remote verdict under
+ * {@code rag.moderation.prefilter.shadow} (decision=block|allow, remote=flagged|passed), so the lists can be
+ * tuned on real traffic before {@code ENFORCE} lets them skip the remote call. Every decision is counted
+ * under {@code rag.moderation.prefilter} (decision, mode).
+ */
+@Component
+public class ModerationPrefilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ModerationPrefilter.class);
+    private static final double MIN_PLAIN_TEXT_RATIO = 0.8;
+
+    public enum Decision { BLOCK, ALLOW, REMOTE }
+
+    private final ModerationPrefilterProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final MultiPatternMatcher blocklist;
+    private final MultiPatternMatcher sensitiveTerms;
+
+    public ModerationPrefilter(ModerationPrefilterProperties properties, ResourceLoader resourceLoader, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        List<String> blocked = new ArrayList<>(readTerms(resourceLoader, properties.blocklistLocation()));
+        blocked.addAll(properties.blocklist());
+        this.blocklist = MultiPatternMatcher.of(blocked);
+        this.sensitiveTerms = MultiPatternMatcher.of(readTerms(resourceLoader, properties.sensitiveTermsLocation()));
+        log.info("Moderation prefilter in {} mode with {} blocked terms", properties.mode(), blocked.size());
+    }
+
+    public boolean isEnforcing() {
+        return properties.mode() == Mode.ENFORCE;
+    }
+
+    public Decision classify(String text) {
+        if (properties.mode() == Mode.OFF) {
+            return Decision.REMOTE;
+        }
+        Decision decision;
+        String blocked = blocklist.findFirst(text);
+        if (blocked != null) {
+            log.debug("Moderation prefilter matched blocked term '{}'", blocked);
+            decision = Decision.BLOCK;
+        } else if (properties.allowShortInputs() && isClearlySafe(text)) {
+            decision = Decision.ALLOW;
+        } else {
+            decision = Decision.REMOTE;
+        }
+        Counter.builder("rag.moderation.prefilter")
+                .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                .tag("mode", properties.mode().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+        return decision;
+    }
+
+    /** Records a local decision against the remote verdict for the same text; only local decisions count. */
+    public void compare(Decision local, boolean remoteFlagged) {
+        if (local == Decision.REMOTE) {
+            return;
+        }
+        Counter.builder("rag.moderation.prefilter.shadow")
+                .tag("decision", local.name().toLowerCase(Locale.ROOT))
+                .tag("remote", remoteFlagged ? "flagged" : "passed")
+                .register(meterRegistry)
+                .increment();
+        if ((local == Decision.ALLOW) == remoteFlagged) {
+            log.debug("Moderation prefilter decided {} but the remote model {} the input", local,
+                    remoteFlagged ? "flagged" : "passed");
+        }
+    }
+
+    // The matched term is not echoed back, so the blocklist cannot be probed through error responses
+    public ContentModerationException violation() {
+        return new ContentModerationException(
+                "Your message contains content that violates our community guidelines. Detected violations: Blocklist. "
+                        + "Please rephrase your question.",
+                Map.of("Blocklist", Map.of("source", "local-prefilter")), null, "local-prefilter");
+    }
+
+    private boolean isClearlySafe(String text) {
+        String trimmed = text.strip();
+        if (trimmed.length() > properties.safeMaxChars()) {
+            return false;
+        }
+        // Obfuscated spellings ("k1ll", "s.e.x") are not for the local path to judge
+        int plain = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isLetter(c) || Character.isWhitespace(c)) {
+                plain++;
+            }
+        }
+        return plain >= MIN_PLAIN_TEXT_RATIO * trimmed.length() && sensitiveTerms.findFirst(trimmed) == null;
+    }
+
+    private static List<String> readTerms(ResourceLoader resourceLoader, String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            log.warn("Moderation term list {} not found, using none", location);
+            return List.of();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Moderation term list " + location + " could not be read", e);
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package com.SpringAI.RAG.utils;
 
-import com.SpringAI.RAG.config.ModerationThresholds;
+import com.SpringAI.RAG.config.ModerationBatchProperties;
 import com.SpringAI.RAG.exception.ContentModerationException;
 import com.SpringAI.RAG.exception.ChatServiceException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.moderation.*;
 import org.springframework.ai.openai.OpenAiModerationModel;
@@ -13,72 +12,155 @@ import java.util.*;
 
 /**
  * Reusable moderation service for all bots.
+ * <p>
+ * {@link #screen} moderates many inputs in one {@link ModerationClient} call; {@link #validate} goes through
+ * the {@link ModerationBatcher}, so concurrent checks share a request too (with
+ * {@code rag.moderation-batch.enabled=false} it calls the Spring AI model directly). Both consult the
+ * {@link ModerationCache} first and only send the texts it does not know. Before any of that, the
+ * {@link ModerationPrefilter} classifies the text locally; when it enforces, its block and allow decisions
+ * skip the remote call, otherwise they are compared with the remote verdict.
+ * <p>
+ * Scores are judged against the calling bot's {@link ModerationPolicy} from {@link ModerationPolicies}, so
+ * one cached score vector can pass for one bot and fail for another.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ModerationService {
 
     private final OpenAiModerationModel moderationModel;
-    private final ModerationThresholds thresholds;
+    private final ModerationPolicies policies;
+    private final ModerationCache moderationCache;
+    private final ModerationClient moderationClient;
+    private final ModerationBatcher moderationBatcher;
+    private final ModerationBatchProperties batchProperties;
+    private final ModerationPrefilter prefilter;
 
-    private record CategoryCheck(double score, double threshold) {
-        public boolean isViolated() { return score > threshold; }
-        public String getPercentage() { return String.format("%.2f%%", score * 100); }
+    public ModerationService(OpenAiModerationModel moderationModel, ModerationPolicies policies,
+                             ModerationCache moderationCache, ModerationClient moderationClient,
+                             ModerationBatcher moderationBatcher, ModerationBatchProperties batchProperties,
+                             ModerationPrefilter prefilter) {
+        this.moderationModel = moderationModel;
+        this.policies = policies;
+        this.moderationCache = moderationCache;
+        this.moderationClient = moderationClient;
+        this.moderationBatcher = moderationBatcher;
+        this.batchProperties = batchProperties;
+        this.prefilter = prefilter;
     }
 
     /**
-     * Throws ContentModerationException if flagged.
+     * Throws ContentModerationException if flagged under the default policy.
      */
     public void validate(String text) {
+        validate(ModerationPolicies.DEFAULT, text);
+    }
+
+    /**
+     * Throws ContentModerationException if flagged under {@code bot}'s policy.
+     */
+    public void validate(String bot, String text) {
         log.info("Validating user input for content violations.");
         if (text == null || text.trim().isEmpty())
             throw new ChatServiceException("Message cannot be empty");
 
+        ModerationPrefilter.Decision local = prefilter.classify(text);
+        if (prefilter.isEnforcing() && local == ModerationPrefilter.Decision.BLOCK) {
+            throw prefilter.violation();
+        }
+        if (prefilter.isEnforcing() && local == ModerationPrefilter.Decision.ALLOW) {
+            return;
+        }
+        String key = ModerationCache.keyOf(moderationClient.model(), text);
+        ModerationCache.Scores scores = moderationCache.get(key);
+        if (scores == null) {
+            // Concurrent checks share one request through the batcher
+            scores = batchProperties.enabled() ? moderationBatcher.moderate(text) : moderateAlone(text);
+            moderationCache.put(key, scores);
+        }
+        ContentModerationException violation = check(scores, policies.forBot(bot));
+        prefilter.compare(local, violation != null);
+        if (violation != null) {
+            throw violation;
+        }
+    }
+
+    /**
+     * Moderates all {@code texts} in a single request. The result has one entry per text, in order:
+     * the violation for a flagged text, {@code null} for one that passes under {@code bot}'s policy.
+     */
+    public List<ContentModerationException> screen(String bot, List<String> texts) {
+        log.info("Validating {} inputs for content violations.", texts.size());
+        if (texts.stream().anyMatch(text -> text == null || text.trim().isEmpty()))
+            throw new ChatServiceException("Message cannot be empty");
+
+        ModerationPolicy policy = policies.forBot(bot);
+        List<ModerationPrefilter.Decision> local = texts.stream().map(prefilter::classify).toList();
+        List<String> keys = texts.stream().map(text -> ModerationCache.keyOf(moderationClient.model(), text)).toList();
+        List<ContentModerationException> violations = new ArrayList<>(texts.size());
+        List<ModerationCache.Scores> scores = new ArrayList<>(texts.size());
+        List<Integer> uncached = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            boolean decidedLocally = prefilter.isEnforcing() && local.get(i) != ModerationPrefilter.Decision.REMOTE;
+            violations.add(decidedLocally && local.get(i) == ModerationPrefilter.Decision.BLOCK ? prefilter.violation() : null);
+            ModerationCache.Scores cached = decidedLocally ? null : moderationCache.get(keys.get(i));
+            scores.add(cached);
+            if (cached == null && !decidedLocally) {
+                uncached.add(i);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            List<ModerationCache.Scores> fresh = moderationClient.moderate(uncached.stream().map(texts::get).toList());
+            for (int r = 0; r < uncached.size(); r++) {
+                moderationCache.put(keys.get(uncached.get(r)), fresh.get(r));
+                scores.set(uncached.get(r), fresh.get(r));
+            }
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            if (scores.get(i) != null) {
+                violations.set(i, check(scores.get(i), policy));
+                prefilter.compare(local.get(i), violations.get(i) != null);
+            }
+        }
+        return violations;
+    }
+
+    private ModerationCache.Scores moderateAlone(String text) {
         try {
             ModerationPrompt prompt = new ModerationPrompt(text.trim());
             ModerationResponse response = moderationModel.call(prompt);
             Moderation moderation = response.getResult().getOutput();
             ModerationResult result = moderation.getResults().getFirst();
-            CategoryScores scores = result.getCategoryScores();
-
-            Map<String, CategoryCheck> checks = Map.ofEntries(
-                Map.entry("Hate", new CategoryCheck(scores.getHate(), thresholds.hate())),
-                Map.entry("Sexual", new CategoryCheck(scores.getSexual(), thresholds.sexual())),
-                Map.entry("Self-Harm", new CategoryCheck(scores.getSelfHarm(), thresholds.selfHarm())),
-                Map.entry("Violence", new CategoryCheck(scores.getViolence(), thresholds.violence())),
-                Map.entry("Harassment", new CategoryCheck(scores.getHarassment(), thresholds.harassment())),
-                Map.entry("SexualMinors", new CategoryCheck(scores.getSexualMinors(), thresholds.sexualMinors())),
-                Map.entry("HateThreatening", new CategoryCheck(scores.getHateThreatening(), thresholds.hateThreatening())),
-                Map.entry("ViolenceGraphic", new CategoryCheck(scores.getViolenceGraphic(), thresholds.violenceGraphic())),
-                Map.entry("SelfHarmIntent", new CategoryCheck(scores.getSelfHarmIntent(), thresholds.selfHarmIntent())),
-                Map.entry("SelfHarmInstructions", new CategoryCheck(scores.getSelfHarmInstructions(), thresholds.selfHarmInstructions())),
-                Map.entry("HarassmentThreatening", new CategoryCheck(scores.getHarassmentThreatening(), thresholds.harassmentThreatening()))
-            );
-            Map<String, Object> violations = new LinkedHashMap<>();
-            boolean flagged = false;
-
-            for (var entry : checks.entrySet()) {
-                CategoryCheck check = entry.getValue();
-                if (check.isViolated()) {
-                    violations.put(entry.getKey(), Map.of(
-                        "score", check.score(),
-                        "threshold", check.threshold(),
-                        "percentage", check.getPercentage()
-                    ));
-                    flagged = true;
-                }
-            }
-
-            if (flagged) {
-                String message = "Your message contains content that violates our community guidelines. Detected violations: "
-                        + String.join(", ", violations.keySet()) + ". Please rephrase your question.";
-                throw new ContentModerationException(message, violations, moderation.getId(), moderation.getModel());
-            }
-        } catch (ContentModerationException e) {
-            throw e;
+            return new ModerationCache.Scores(categoriesOf(result.getCategoryScores()), moderation.getId(), moderation.getModel());
         } catch (Exception e) {
             throw new ChatServiceException("Moderation check failed", e);
         }
     }
+
+    // Scores are cached, thresholds are not: a policy change applies to cached texts at once
+    private ContentModerationException check(ModerationCache.Scores scores, ModerationPolicy policy) {
+        int first = policy.firstViolation(scores.categories());
+        if (first < 0) {
+            return null;
+        }
+        Map<String, Object> violations = policy.violations(scores.categories(), first);
+        String message = "Your message contains content that violates our community guidelines. Detected violations: "
+                + String.join(", ", violations.keySet()) + ". Please rephrase your question.";
+        return new ContentModerationException(message, violations, scores.moderationId(), scores.model());
+    }
+
+    private static double[] categoriesOf(CategoryScores scores) {
+        double[] categories = new double[ModerationCategory.count()];
+        categories[ModerationCategory.HATE.ordinal()] = scores.getHate();
+        categories[ModerationCategory.SEXUAL.ordinal()] = scores.getSexual();
+        categories[ModerationCategory.SELF_HARM.ordinal()] = scores.getSelfHarm();
+        categories[ModerationCategory.VIOLENCE.ordinal()] = scores.getViolence();
+        categories[ModerationCategory.HARASSMENT.ordinal()] = scores.getHarassment();
+        categories[ModerationCategory.SEXUAL_MINORS.ordinal()] = scores.getSexualMinors();
+        categories[ModerationCategory.HATE_THREATENING.ordinal()] = scores.getHateThreatening();
+        categories[ModerationCategory.VIOLENCE_GRAPHIC.ordinal()] = scores.getViolenceGraphic();
+        categories[ModerationCategory.SELF_HARM_INTENT.ordinal()] = scores.getSelfHarmIntent();
+        categories[ModerationCategory.SELF_HARM_INSTRUCTIONS.ordinal()] = scores.getSelfHarmInstructions();
+        categories[ModerationCategory.HARASSMENT_THREATENING.ordinal()] = scores.getHarassmentThreatening();
+        return categories;
+    }
 }
@@ -0,0 +1,190 @@
+package com.SpringAI.RAG.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed set of terms: one pass over the text finds every term, however many
+ * there are. Terms and text are compared after NFKC normalization and lower-casing, and a hit must sit on
+ * word boundaries, so "class" does not match inside "classification". Whitespace inside a term matches any
+ * run of whitespace in the text.
+ * <p>
+ * Immutable once built; safe to share between threads.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int ROOT = 0;
+
+    // Per node: sorted edge labels and targets, failure link, length of the term ending here (0 if none)
+    // and the next node on the failure chain that ends a term.
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    private final int[] termLength;
+    private final int[] outputLink;
+    private final String[] terms;
+
+    private MultiPatternMatcher(char[][] labels, int[][] targets, int[] failure, int[] termLength, int[] outputLink, String[] terms) {
+        this.labels = labels;
+        this.targets = targets;
+        this.failure = failure;
+        this.termLength = termLength;
+        this.outputLink = outputLink;
+        this.terms = terms;
+    }
+
+    public static MultiPatternMatcher of(Collection<String> terms) {
+        List<Map<Character, Integer>> edges = new ArrayList<>();
+        List<String> termAt = new ArrayList<>();
+        edges.add(new HashMap<>());
+        termAt.add(null);
+        for (String term : terms) {
+            String normalized = normalize(term).strip().replaceAll("\\s+", " ");
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < normalized.length(); i++) {
+                char c = normalized.charAt(i);
+                Integer next = edges.get(node).get(c);
+                if (next == null) {
+                    next = edges.size();
+                    edges.add(new HashMap<>());
+                    termAt.add(null);
+                    edges.get(node).put(c, next);
+                }
+                node = next;
+            }
+            termAt.set(node, normalized);
+        }
+
+        int size = edges.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        int[] termLength = new int[size];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> out = edges.get(node);
+            char[] keys = new char[out.size()];
+            int k = 0;
+            for (char c : out.keySet()) {
+                keys[k++] = c;
+            }
+            Arrays.sort(keys);
+            int[] next = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                next[i] = out.get(keys[i]);
+            }
+            labels[node] = keys;
+            targets[node] = next;
+            termLength[node] = termAt.get(node) == null ? 0 : termAt.get(node).length();
+        }
+
+        // Breadth-first, so a node's failure target is final before its children are linked
+        int[] failure = new int[size];
+        int[] outputLink = new int[size];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < labels[node].length; i++) {
+                char c = labels[node][i];
+                int child = targets[node][i];
+                int fallback = failure[node];
+                int target = step(labels, targets, fallback, c);
+                while (target < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                    target = step(labels, targets, fallback, c);
+                }
+                failure[child] = target < 0 || target == child ? ROOT : target;
+                int f = failure[child];
+                outputLink[child] = termLength[f] > 0 ? f : outputLink[f];
+                queue.add(child);
+            }
+        }
+        return new MultiPatternMatcher(labels, targets, failure, termLength, outputLink, termAt.toArray(String[]::new));
+    }
+
+    public boolean isEmpty() {
+        return labels[ROOT].length == 0;
+    }
+
+    /** The first term found on word boundaries, or {@code null}. */
+    public String findFirst(String text) {
+        List<String> found = find(text, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /** Up to {@code limit} distinct terms found on word boundaries, in order of their end in the text. */
+    public List<String> find(String text, int limit) {
+        List<String> found = new ArrayList<>();
+        if (isEmpty() || text == null) {
+            return found;
+        }
+        String normalized = normalize(text);
+        int node = ROOT;
+        char previous = ' ';
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            // Collapse whitespace runs so "how  to" meets the term "how to"
+            if (Character.isWhitespace(c)) {
+                if (Character.isWhitespace(previous)) {
+                    continue;
+                }
+                c = ' ';
+            }
+            previous = c;
+            int next = step(labels, targets, node, c);
+            while (next < 0 && node != ROOT) {
+                node = failure[node];
+                next = step(labels, targets, node, c);
+            }
+            node = next < 0 ? ROOT : next;
+            for (int hit = termLength[node] > 0 ? node : outputLink[node]; hit >= 0; hit = outputLink[hit]) {
+                if (atBoundaries(normalized, i, termLength[hit]) && !found.contains(terms[hit])) {
+                    found.add(terms[hit]);
+                    if (found.size() >= limit) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int step(char[][] labels, int[][] targets, int node, char c) {
+        int i = Arrays.binarySearch(labels[node], c);
+        return i < 0 ? -1 : targets[node][i];
+    }
+
+    // The match ends at {@code end} (inclusive); collapsed whitespace means the start is found by walking back
+    private static boolean atBoundaries(String text, int end, int length) {
+        if (end + 1 < text.length() && Character.isLetterOrDigit(text.charAt(end + 1))) {
+            return false;
+        }
+        int start = end;
+        for (int matched = 1; matched < length && start > 0; matched++) {
+            start--;
+            if (Character.isWhitespace(text.charAt(start))) {
+                while (start > 0 && Character.isWhitespace(text.charAt(start - 1))) {
+                    start--;
+                }
+            }
+        }
+        return start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+}
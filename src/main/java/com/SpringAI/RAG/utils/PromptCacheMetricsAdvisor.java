@@ -0,0 +1,94 @@
+package com.SpringAI.RAG.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Records how much of each prompt the provider served from its prefix cache.
+ * <p>
+ * OpenAI reports {@code prompt_tokens_details.cached_tokens} per response; this advisor adds prompt and
+ * cached tokens to {@code rag.prompt.tokens} (tagged by template and kind) and the per-call ratio to
+ * {@code rag.prompt.cache.hit-ratio}. Callers name the template with {@code a.param(TEMPLATE, name)};
+ * untagged calls are recorded as "untagged". Calls sent through the {@link ModelRouter} also add their prompt
+ * and completion tokens to {@code rag.routing.tokens} under the route they took.
+ */
+@Component
+public class PromptCacheMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+    public static final String TEMPLATE = "rag.prompt.template";
+
+    private final MeterRegistry meterRegistry;
+
+    public PromptCacheMetricsAdvisor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return "PromptCacheMetricsAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        ChatClientResponse response = chain.nextCall(request);
+        record(templateOf(request), routeOf(request), response.chatResponse());
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        String template = templateOf(request);
+        String route = routeOf(request);
+        // Usage arrives on the last chunk only; record() ignores chunks without it
+        return chain.nextStream(request).doOnNext(response -> record(template, route, response.chatResponse()));
+    }
+
+    private static String templateOf(ChatClientRequest request) {
+        Object template = request.context().get(TEMPLATE);
+        return template != null ? template.toString() : "untagged";
+    }
+
+    private static String routeOf(ChatClientRequest request) {
+        Object route = request.context().get(ModelRouter.ROUTE);
+        return route != null ? route.toString() : null;
+    }
+
+    private void record(String template, String route, ChatResponse response) {
+        if (response == null || response.getMetadata() == null || response.getMetadata().getUsage() == null
+                || !(response.getMetadata().getUsage().getNativeUsage() instanceof OpenAiApi.Usage usage)
+                || usage.promptTokens() == null || usage.promptTokens() == 0) {
+            return;
+        }
+        int cached = usage.promptTokensDetails() != null && usage.promptTokensDetails().cachedTokens() != null
+                ? usage.promptTokensDetails().cachedTokens() : 0;
+        Counter.builder("rag.prompt.tokens").tag("template", template).tag("kind", "prompt").register(meterRegistry)
+                .increment(usage.promptTokens());
+        Counter.builder("rag.prompt.tokens").tag("template", template).tag("kind", "cached").register(meterRegistry)
+                .increment(cached);
+        DistributionSummary.builder("rag.prompt.cache.hit-ratio").tag("template", template).register(meterRegistry)
+                .record((double) cached / usage.promptTokens());
+        if (route != null) {
+            Counter.builder("rag.routing.tokens").tag("template", template).tag("route", route).tag("kind", "prompt")
+                    .register(meterRegistry).increment(usage.promptTokens());
+            Counter.builder("rag.routing.tokens").tag("template", template).tag("route", route).tag("kind", "completion")
+                    .register(meterRegistry).increment(usage.completionTokens() != null ? usage.completionTokens() : 0);
+        }
+    }
+}
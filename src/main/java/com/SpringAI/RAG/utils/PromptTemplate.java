@@ -0,0 +1,85 @@
+package com.SpringAI.RAG.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A prompt split into static {@code instructions} and a variable {@code tail}.
+ * <p>
+ * The instructions never contain placeholders, so every request for the same bot sends a byte-identical
+ * system message that the provider can serve from its prompt cache; request-specific content (retrieved
+ * documents, the user's question) is rendered into the tail, which goes last. The tail is parsed once into
+ * literal and placeholder segments and rendered into a builder sized up front.
+ */
+public final class PromptTemplate {
+
+    static final Pattern PLACEHOLDER = Pattern.compile("\\{([a-zA-Z][a-zA-Z0-9]*)}");
+
+    private final String name;
+    private final String instructions;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    PromptTemplate(String name, String instructions, String tail) {
+        this.name = name;
+        this.instructions = instructions;
+        List<String> literalParts = new ArrayList<>();
+        List<String> placeholderParts = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(tail);
+        int last = 0;
+        while (matcher.find()) {
+            literalParts.add(tail.substring(last, matcher.start()));
+            placeholderParts.add(matcher.group(1));
+            last = matcher.end();
+        }
+        literalParts.add(tail.substring(last));
+        this.literals = literalParts.toArray(String[]::new);
+        this.placeholders = placeholderParts.toArray(String[]::new);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** The cacheable, placeholder-free part; send it as the system message. */
+    public String instructions() {
+        return instructions;
+    }
+
+    public Set<String> placeholders() {
+        return new LinkedHashSet<>(List.of(placeholders));
+    }
+
+    /** Renders the variable tail; every placeholder must have a value. */
+    public String render(Map<String, String> values) {
+        int capacity = literalLength;
+        for (String placeholder : placeholders) {
+            String value = values.get(placeholder);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for {" + placeholder + "} in prompt template " + name);
+            }
+            capacity += value.length();
+        }
+        StringBuilder rendered = new StringBuilder(capacity);
+        for (int i = 0; i < placeholders.length; i++) {
+            rendered.append(literals[i]).append(values.get(placeholders[i]));
+        }
+        return rendered.append(literals[placeholders.length]).toString();
+    }
+
+    /** Instructions followed by the rendered tail, for single-string prompts such as image generation. */
+    public String renderFull(Map<String, String> values) {
+        return instructions + "\n" + render(values);
+    }
+}
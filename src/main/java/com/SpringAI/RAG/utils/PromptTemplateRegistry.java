@@ -0,0 +1,81 @@
+package com.SpringAI.RAG.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the bot prompts from {@code classpath:prompts/<name>.st} once at startup and validates them.
+ * <p>
+ * A template file holds the static instructions, a line containing only {@code ---}, and the variable tail.
+ * Startup fails if a template is missing, if its instructions contain a placeholder (which would break the
+ * cacheable prefix), or if its tail placeholders differ from what the calling code supplies.
+ */
+@Component
+public class PromptTemplateRegistry {
+
+    public static final String CHAT = "chat";
+    public static final String BLOG = "blog";
+    public static final String IMAGE_DETECTION = "image-detection";
+    public static final String IMAGE_GENERATION = "image-generation";
+    public static final String CODE = "code";
+    public static final String WEB_QUERY = "web-query";
+    public static final String CONVERSATION_SUMMARY = "conversation-summary";
+
+    private static final Logger log = LoggerFactory.getLogger(PromptTemplateRegistry.class);
+    private static final String SEPARATOR = "\n---\n";
+    private static final Map<String, Set<String>> EXPECTED_PLACEHOLDERS = Map.of(
+            CHAT, Set.of("documents", "question"),
+            BLOG, Set.of("documents", "topic"),
+            IMAGE_DETECTION, Set.of("question"),
+            IMAGE_GENERATION, Set.of("request"),
+            CODE, Set.of("request"),
+            WEB_QUERY, Set.of("documents", "query"),
+            CONVERSATION_SUMMARY, Set.of("summary", "turns"));
+
+    private final Map<String, PromptTemplate> templates = new HashMap<>();
+
+    public PromptTemplateRegistry() {
+        EXPECTED_PLACEHOLDERS.forEach((name, expected) -> templates.put(name, load(name, expected)));
+        log.info("Loaded {} prompt templates", templates.size());
+    }
+
+    public PromptTemplate get(String name) {
+        PromptTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + name);
+        }
+        return template;
+    }
+
+    private static PromptTemplate load(String name, Set<String> expected) {
+        String text;
+        try (InputStream in = new ClassPathResource("prompts/" + name + ".st").getInputStream()) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("Prompt template " + name + " could not be read", e);
+        }
+        int separator = text.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalStateException("Prompt template " + name + " has no '---' line between instructions and variables");
+        }
+        String instructions = text.substring(0, separator);
+        if (PromptTemplate.PLACEHOLDER.matcher(instructions).find()) {
+            throw new IllegalStateException("Prompt template " + name + " has a placeholder in its static instructions");
+        }
+        PromptTemplate template = new PromptTemplate(name, instructions, text.substring(separator + SEPARATOR.length()));
+        if (!template.placeholders().equals(expected)) {
+            throw new IllegalStateException("Prompt template " + name + " uses placeholders " + template.placeholders()
+                    + " but callers supply " + expected);
+        }
+        return template;
+    }
+}
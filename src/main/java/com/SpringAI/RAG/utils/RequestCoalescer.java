@@ -0,0 +1,171 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Single-flight for blocking model calls: while a call is in flight, identical requests wait for it and get
+ * its result (or its exception) instead of starting their own completion.
+ * <p>
+ * Requests are identical when bot, tenant, model, options and the whitespace-normalized message texts
+ * match; the key is a SHA-256 of those, so large RAG prompts are not kept as map keys. Nothing is cached
+ * once the call returns. {@code rag.coalescer.requests} counts leaders and followers per bot, and
+ * {@code rag.coalescer.ratio} is the share of requests that were served by another request's call.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, BotStats> stats = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final String defaultModel;
+    private final boolean enabled;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${spring.ai.openai.chat.options.model:gpt-3.5-turbo}") String defaultModel,
+                            @Value("${rag.coalescing.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.defaultModel = defaultModel;
+        this.enabled = enabled;
+    }
+
+    /** Runs {@code call} once for all concurrent callers with an identical {@code prompt}. */
+    public <T> T coalesce(String bot, Prompt prompt, Supplier<T> call) {
+        StringBuilder key = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            key.append(message.getMessageType().getValue()).append('\u0000').append(normalize(message.getText())).append('\u0000');
+        }
+        return coalesce(bot, prompt.getOptions(), key.toString(), call);
+    }
+
+    /** Runs {@code call} once for all concurrent callers with an identical single user message. */
+    public <T> T coalesce(String bot, String userText, Supplier<T> call) {
+        return coalesce(bot, null, "user\u0000" + normalize(userText), call);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String bot, ChatOptions options, String request, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        BotStats botStats = stats.computeIfAbsent(bot, this::register);
+        String key = digest(bot, options, request);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, own);
+        if (leader != null) {
+            botStats.follower();
+            return (T) await(leader);
+        }
+        botStats.leader();
+        try {
+            T result = call.get();
+            own.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: followers wait on this future without a timeout
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatServiceException("Coalesced request failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Interrupted while waiting for a coalesced request", e);
+        }
+    }
+
+    private String digest(String bot, ChatOptions options, String request) {
+        String model = options != null && options.getModel() != null ? options.getModel() : defaultModel;
+        String tenantId = TenantContext.current();
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update((bot + '\u0000' + (tenantId == null ? "" : tenantId) + '\u0000' + model + '\u0000').getBytes(StandardCharsets.UTF_8));
+        if (options != null) {
+            digest.update((options.getTemperature() + "\u0000" + options.getTopP() + "\u0000" + options.getMaxTokens() + "\u0000")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(request.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").strip();
+    }
+
+    private BotStats register(String bot) {
+        BotStats botStats = new BotStats(
+                Counter.builder("rag.coalescer.requests").tag("bot", bot).tag("role", "leader").register(meterRegistry),
+                Counter.builder("rag.coalescer.requests").tag("bot", bot).tag("role", "follower").register(meterRegistry));
+        Gauge.builder("rag.coalescer.ratio", botStats, BotStats::ratio).tag("bot", bot).register(meterRegistry);
+        return botStats;
+    }
+
+    private static final class BotStats {
+
+        private final Counter leaders;
+        private final Counter followers;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+
+        private BotStats(Counter leaders, Counter followers) {
+            this.leaders = leaders;
+            this.followers = followers;
+        }
+
+        void leader() {
+            leaders.increment();
+            total.increment();
+        }
+
+        void follower() {
+            followers.increment();
+            total.increment();
+            coalesced.increment();
+        }
+
+        double ratio() {
+            long requests = total.sum();
+            return requests == 0 ? 0 : (double) coalesced.sum() / requests;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.HedgingProperties;
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hedged blocking model calls for the bots listed in {@code rag.hedging.bots}.
+ * <p>
+ * The call runs on a virtual thread; if it has not answered by the configured percentile of the bot's recent
+ * latency (from a live {@link LatencyHistogram}), an identical second call is fired and the first successful
+ * answer wins. The other attempt is cancelled, which interrupts its thread and aborts the HTTP exchange.
+ * Hedges are paid from a per-bot budget that earns {@code budget-percent} of a hedge per request, so extra
+ * upstream calls stay bounded even when the whole distribution shifts. Until a bot has {@code min-samples}
+ * recent latencies no hedge is fired.
+ * <p>
+ * Metrics: {@code rag.hedging.delay} (current trigger in ms), {@code rag.hedging.hedges} by outcome
+ * (fired, won, skipped-budget).
+ */
+@Component
+public class RequestHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final HedgingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, BotHedging> bots = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RequestHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T call(String bot, Supplier<T> call) {
+        if (!properties.bots().contains(bot)) {
+            return call.get();
+        }
+        BotHedging hedging = bots.computeIfAbsent(bot, this::register);
+        hedging.budget.deposit();
+        CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        long started = System.nanoTime();
+        Future<T> primary = attempts.submit(TenantContext.wrap(() -> attempt(call, hedging)));
+        Future<T> hedge = null;
+        try {
+            Future<T> first;
+            long delay = hedging.delayMillis();
+            if (delay < 0) {
+                first = attempts.take();
+            } else {
+                first = attempts.poll(delay, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (hedging.budget.withdraw()) {
+                        hedging.fired.increment();
+                        hedge = attempts.submit(TenantContext.wrap(() -> attempt(call, hedging)));
+                        log.debug("Hedged {} call after {} ms", bot, delay);
+                    } else {
+                        hedging.skipped.increment();
+                    }
+                    first = attempts.take();
+                }
+            }
+            T result;
+            try {
+                result = first.get();
+            } catch (ExecutionException e) {
+                if (hedge == null) {
+                    throw e;
+                }
+                // One attempt failed; the answer of the other one still counts
+                result = attempts.take().get();
+            }
+            if (hedge != null && first == hedge) {
+                hedging.won.increment();
+            }
+            return result;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatServiceException("Hedged " + bot + " call failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Interrupted while waiting for the " + bot + " call", e);
+        } finally {
+            cancelLoser(primary, hedging, started);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T attempt(Supplier<T> call, BotHedging hedging) {
+        long started = System.nanoTime();
+        T value = call.get();
+        hedging.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return value;
+    }
+
+    // A cancelled primary took at least this long, so it still counts towards the tail of the histogram.
+    private static void cancelLoser(Future<?> attempt, BotHedging hedging, long started) {
+        if (!attempt.isDone() && attempt.cancel(true)) {
+            hedging.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    private BotHedging register(String bot) {
+        BotHedging hedging = new BotHedging(
+                new LatencyHistogram(TimeUnit.SECONDS.toNanos(properties.windowSeconds())),
+                new HedgeBudget(properties.budgetPercent() / 100.0, properties.budgetBurst()),
+                properties.percentile(), properties.minSamples(), properties.minDelayMs(),
+                Counter.builder("rag.hedging.hedges").tag("bot", bot).tag("outcome", "fired").register(meterRegistry),
+                Counter.builder("rag.hedging.hedges").tag("bot", bot).tag("outcome", "won").register(meterRegistry),
+                Counter.builder("rag.hedging.hedges").tag("bot", bot).tag("outcome", "skipped-budget").register(meterRegistry));
+        Gauge.builder("rag.hedging.delay", hedging, BotHedging::delayMillis).tag("bot", bot).register(meterRegistry);
+        return hedging;
+    }
+
+    private record BotHedging(LatencyHistogram latency, HedgeBudget budget, double percentile, int minSamples,
+                              long minDelayMs, Counter fired, Counter won, Counter skipped) {
+
+        /** Hedge trigger in ms, or -1 while there are too few recent samples to trust the percentile. */
+        long delayMillis() {
+            if (latency.count() < minSamples) {
+                return -1;
+            }
+            return Math.max(minDelayMs, latency.percentile(percentile));
+        }
+    }
+
+    /** Token bucket: each request earns {@code ratio} of a hedge, each hedge spends one, capped at {@code burst}. */
+    private static final class HedgeBudget {
+
+        private final double ratio;
+        private final double burst;
+        private double balance;
+
+        HedgeBudget(double ratio, double burst) {
+            this.ratio = ratio;
+            this.burst = burst;
+        }
+
+        synchronized void deposit() {
+            balance = Math.min(burst, balance + ratio);
+        }
+
+        synchronized boolean withdraw() {
+            if (balance < 1) {
+                return false;
+            }
+            balance -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.exception.ContentModerationException;
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.SpringAI.RAG.vectorstore.DocumentRetriever;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-LLM stage of the RAG bots: moderation and retrieval (query embedding plus vector search and rerank)
+ * run concurrently on virtual threads instead of back to back, so the LLM call starts roughly one remote
+ * round trip earlier.
+ * <p>
+ * Moderation gates the result: retrieval output is only used once moderation has passed, and a flagged
+ * input cancels (interrupts) the in-flight retrieval and rethrows the moderation error. Each stage and the
+ * combined wall time are recorded under {@code rag.pipeline.latency}.
+ * <p>
+ * Batches take the same shape with one moderation call and one multi-query retrieval for all questions;
+ * there a flagged question only fails itself, so both stages always run to the end.
+ */
+@Component
+public class RequestPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPipeline.class);
+
+    private final ModerationService moderationService;
+    private final DocumentRetriever documentRetriever;
+    private final MeterRegistry meterRegistry;
+    // Not closed per request: close() would wait for a cancelled retrieval to notice its interrupt.
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Per question, in order: its moderation violation (or {@code null}) and its retrieved documents. */
+    public record BatchRetrieval(List<ContentModerationException> violations, List<List<Document>> documents) {
+    }
+
+    public RequestPipeline(ModerationService moderationService, DocumentRetriever documentRetriever, MeterRegistry meterRegistry) {
+        this.moderationService = moderationService;
+        this.documentRetriever = documentRetriever;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Validates {@code question} and retrieves its documents concurrently.
+     *
+     * @throws com.SpringAI.RAG.exception.ContentModerationException if moderation flags the input
+     */
+    public List<Document> moderateAndRetrieve(String bot, String question, String filter) {
+        long started = System.nanoTime();
+        Future<?> moderation = executor.submit(TenantContext.wrap(() -> {
+            timer(bot, "moderation").record(() -> moderationService.validate(bot, question));
+            return null;
+        }));
+        Future<List<Document>> retrieval = executor.submit(TenantContext.wrap(
+                () -> timer(bot, "retrieval").record(() -> documentRetriever.retrieve(question, filter))));
+        try {
+            moderation.get();
+            List<Document> documents = retrieval.get();
+            long elapsed = System.nanoTime() - started;
+            timer(bot, "total").record(elapsed, TimeUnit.NANOSECONDS);
+            log.debug("Moderation and retrieval for {} finished in {} ms", bot, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return documents;
+        } catch (ExecutionException e) {
+            retrieval.cancel(true);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatServiceException("Request pipeline failed", e.getCause());
+        } catch (InterruptedException e) {
+            moderation.cancel(true);
+            retrieval.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Request pipeline interrupted", e);
+        }
+    }
+
+    /** Moderates and retrieves for all {@code questions} at once, each stage in a single remote call. */
+    public BatchRetrieval screenAndRetrieveAll(String bot, List<String> questions, String filter) {
+        long started = System.nanoTime();
+        Future<List<ContentModerationException>> moderation = executor.submit(TenantContext.wrap(
+                () -> timer(bot, "moderation").record(() -> moderationService.screen(bot, questions))));
+        Future<List<List<Document>>> retrieval = executor.submit(TenantContext.wrap(
+                () -> timer(bot, "retrieval").record(() -> documentRetriever.retrieveAll(questions, filter))));
+        try {
+            BatchRetrieval result = new BatchRetrieval(moderation.get(), retrieval.get());
+            timer(bot, "total").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (ExecutionException e) {
+            moderation.cancel(true);
+            retrieval.cancel(true);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatServiceException("Request pipeline failed", e.getCause());
+        } catch (InterruptedException e) {
+            moderation.cancel(true);
+            retrieval.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ChatServiceException("Request pipeline interrupted", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Timer timer(String bot, String stage) {
+        return Timer.builder("rag.pipeline.latency").tag("bot", bot).tag("stage", stage).register(meterRegistry);
+    }
+}
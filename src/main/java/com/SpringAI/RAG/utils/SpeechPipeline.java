@@ -0,0 +1,210 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.SpeechProperties;
+import com.SpringAI.RAG.exception.ChatServiceException;
+import com.SpringAI.RAG.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.OpenAiAudioSpeechModel;
+import org.springframework.ai.openai.OpenAiAudioSpeechOptions;
+import org.springframework.ai.openai.api.OpenAiAudioApi;
+import org.springframework.ai.openai.audio.speech.SpeechPrompt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Turns a streamed script into a streamed MP3 response.
+ * <p>
+ * A producer thread reads the script as the model writes it and cuts it at sentence boundaries; each segment
+ * is synthesized on its own virtual thread while the response thread writes finished segments in script
+ * order, flushing after each, so playback starts once the first sentence is spoken. At most
+ * {@code rag.speech.max-in-flight} segments are being synthesized or waiting to be written, which bounds
+ * both memory and speech calls per request regardless of script length. The MP3 of each segment is written
+ * as is; MP3 is a sequence of self-contained frames, so the concatenation plays as one file.
+ * <p>
+ * If the client goes away, pending segments are cancelled and the script stream is disposed.
+ * Metrics: {@code rag.speech.first-audio} and {@code rag.speech.segments}.
+ */
+@Component
+public class SpeechPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(SpeechPipeline.class);
+
+    private static final Future<byte[]> END = CompletableFuture.completedFuture(new byte[0]);
+
+    private final OpenAiAudioSpeechModel speechModel;
+    private final SpeechProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final OpenAiAudioSpeechOptions options;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SpeechPipeline(OpenAiAudioSpeechModel speechModel, SpeechProperties properties, MeterRegistry meterRegistry) {
+        this.speechModel = speechModel;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.options = OpenAiAudioSpeechOptions.builder()
+                .model(properties.model())
+                .voice(OpenAiAudioApi.SpeechRequest.Voice.ALLOY)
+                .responseFormat(OpenAiAudioApi.SpeechRequest.AudioResponseFormat.MP3)
+                .speed(1.0f)
+                .build();
+    }
+
+    /** The script is subscribed to only when the response body is written. */
+    public StreamingResponseBody stream(Flux<ChatResponse> script) {
+        BlockingQueue<Future<byte[]>> segments = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(properties.maxInFlight());
+        Callable<Void> producer = TenantContext.wrap(() -> {
+            try {
+                produce(script, segments, inFlight);
+                segments.put(END);
+            } catch (InterruptedException e) {
+                // The response was abandoned; nobody is left to read the queue
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                segments.put(CompletableFuture.failedFuture(e));
+            }
+            return null;
+        });
+        return out -> {
+            long started = System.nanoTime();
+            Future<?> production = executor.submit(producer);
+            try {
+                boolean first = true;
+                for (Future<byte[]> segment = segments.take(); segment != END; segment = segments.take()) {
+                    byte[] audio = segment.get();
+                    inFlight.release();
+                    out.write(audio);
+                    out.flush();
+                    if (first) {
+                        first = false;
+                        Timer.builder("rag.speech.first-audio").register(meterRegistry)
+                                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                }
+            } catch (ExecutionException e) {
+                log.error("Voice stream failed: {}", e.getCause().getMessage());
+                throw e.getCause() instanceof RuntimeException cause ? cause
+                        : new ChatServiceException("Voice generation failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ChatServiceException("Interrupted while streaming voice", e);
+            } finally {
+                production.cancel(true);
+                segments.forEach(segment -> segment.cancel(true));
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void produce(Flux<ChatResponse> script, BlockingQueue<Future<byte[]>> segments, Semaphore inFlight)
+            throws InterruptedException {
+        Counter counter = Counter.builder("rag.speech.segments").register(meterRegistry);
+        SentenceSegmenter segmenter = new SentenceSegmenter(properties.minSegmentChars(), properties.maxSegmentChars());
+        // Closing the stream cancels the model call if we stop early
+        try (Stream<ChatResponse> responses = script.toStream()) {
+            Iterator<ChatResponse> iterator = responses.iterator();
+            while (iterator.hasNext()) {
+                ChatResponse response = iterator.next();
+                if (response.getResult() == null || response.getResult().getOutput().getText() == null) {
+                    continue;
+                }
+                for (String segment : segmenter.add(response.getResult().getOutput().getText())) {
+                    segments.put(synthesize(segment, inFlight));
+                    counter.increment();
+                }
+            }
+        }
+        String rest = segmenter.flush();
+        if (rest != null) {
+            segments.put(synthesize(rest, inFlight));
+            counter.increment();
+        }
+    }
+
+    private Future<byte[]> synthesize(String segment, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        return executor.submit(() -> speechModel.call(new SpeechPrompt(segment, options)).getResult().getOutput());
+    }
+
+    /**
+     * Cuts streamed text into speech segments: the first sentence boundary past {@code min} characters,
+     * or the last space before {@code max} for a run-on sentence. A boundary needs the whitespace after the
+     * punctuation, so "3." at the end of a chunk waits for the next one.
+     */
+    static final class SentenceSegmenter {
+
+        private static final Pattern SENTENCE_END = Pattern.compile("[.!?…]+[\"')\\]]*\\s+|\\n+");
+
+        private final int min;
+        private final int max;
+        private final StringBuilder pending = new StringBuilder();
+
+        SentenceSegmenter(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        List<String> add(String text) {
+            pending.append(text);
+            List<String> segments = new ArrayList<>();
+            for (int cut = nextCut(); cut > 0; cut = nextCut()) {
+                String segment = pending.substring(0, cut).strip();
+                pending.delete(0, cut);
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments;
+        }
+
+        /** The remaining text once the script is complete, or {@code null} if there is none. */
+        String flush() {
+            String rest = pending.toString().strip();
+            pending.setLength(0);
+            return rest.isEmpty() ? null : rest;
+        }
+
+        private int nextCut() {
+            Matcher matcher = SENTENCE_END.matcher(pending);
+            while (matcher.find()) {
+                if (matcher.end() >= min) {
+                    return matcher.end() <= max ? matcher.end() : wrapPoint();
+                }
+            }
+            return pending.length() > max ? wrapPoint() : -1;
+        }
+
+        private int wrapPoint() {
+            int space = pending.lastIndexOf(" ", max);
+            return space > 0 ? space + 1 : max;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.SpringAI.RAG.utils;
+
+import com.SpringAI.RAG.config.StreamingProperties;
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Bridges a {@link ChatResponse} stream to a Server-Sent-Events response.
+ * <p>
+ * The emitter is returned to the client immediately; prompt preparation (moderation, retrieval) runs on a
+ * virtual thread and its stream is relayed as {@code token} events with data {@code {"text": "..."}}. The
+ * text is JSON-encoded, not sent raw, because EventSource drops one leading space after {@code data:} and
+ * a token such as {@code " world"} would run into the previous word. Idle streams get a heartbeat comment,
+ * the stream ends with a {@code usage} event (token counts, time to first token, total time), and failures
+ * are reported as an {@code error} event. When the client disconnects or the stream times out, the
+ * subscription is disposed, which cancels the upstream model call.
+ * <p>
+ * {@link #streamStructured} is for answers that are a single JSON object: instead of raw tokens it sends a
+ * {@code field} event as each top-level field closes and a validated {@code result} event at the end.
+ */
+@Component
+public class SseStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(SseStreamer.class);
+
+    private final StreamingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("sse-heartbeat").daemon().factory());
+
+    public SseStreamer(StreamingProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    public SseEmitter stream(String endpoint, Callable<Flux<ChatResponse>> responses) {
+        return stream(endpoint, responses, TokenRelay::new);
+    }
+
+    /**
+     * Streams a JSON answer of type {@code type} field by field. Each {@code field} event carries
+     * {@code {"name", "value"}} for a top-level field the moment its value is complete; when the model is done
+     * the whole object is bound to {@code type} (every field must be present and non-null) and sent as a
+     * {@code result} event before the usage event. An incomplete or invalid object ends with an {@code error} event.
+     */
+    public <T> SseEmitter streamStructured(String endpoint, Callable<Flux<ChatResponse>> responses, Class<T> type) {
+        return stream(endpoint, responses, emitter -> new StructuredRelay<>(endpoint, emitter, type));
+    }
+
+    private SseEmitter stream(String endpoint, Callable<Flux<ChatResponse>> responses, Function<SseEmitter, Relay> relays) {
+        SseEmitter emitter = new SseEmitter(properties.timeoutMs());
+        AtomicReference<Disposable> subscription = new AtomicReference<>();
+        long started = System.nanoTime();
+        Relay relay = relays.apply(emitter);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> send(emitter, SseEmitter.event().comment("heartbeat")),
+                properties.heartbeatIntervalMs(), properties.heartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+        Runnable cancel = () -> {
+            heartbeat.cancel(false);
+            Disposable disposable = subscription.getAndSet(Disposables.disposed());
+            if (disposable != null) {
+                disposable.dispose();
+            }
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+
+        Callable<Void> start = TenantContext.wrap(() -> {
+            Flux<ChatResponse> flux = responses.call();
+            StreamState state = new StreamState(relay);
+            Disposable disposable = flux.subscribe(
+                    response -> relay(endpoint, emitter, response, state, started),
+                    error -> fail(endpoint, emitter, error),
+                    () -> finish(endpoint, emitter, state, started));
+            // Already cancelled while preparing: drop the upstream call straight away
+            if (!subscription.compareAndSet(null, disposable)) {
+                disposable.dispose();
+            }
+            return null;
+        });
+        Thread.ofVirtual().name("sse-" + endpoint).start(() -> {
+            try {
+                start.call();
+            } catch (Exception e) {
+                fail(endpoint, emitter, e);
+            }
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private void relay(String endpoint, SseEmitter emitter, ChatResponse response, StreamState state, long started) {
+        if (response.getMetadata() != null && response.getMetadata().getUsage() != null
+                && response.getMetadata().getUsage().getTotalTokens() != null && response.getMetadata().getUsage().getTotalTokens() > 0) {
+            state.usage = response.getMetadata().getUsage();
+        }
+        if (response.getResult() == null || response.getResult().getOutput() == null) {
+            return;
+        }
+        String text = response.getResult().getOutput().getText();
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        if (state.firstTokenNanos == 0) {
+            state.firstTokenNanos = System.nanoTime() - started;
+            Timer.builder("rag.stream.first-token").tag("endpoint", endpoint).register(meterRegistry)
+                    .record(state.firstTokenNanos, TimeUnit.NANOSECONDS);
+        }
+        state.relay.text(text);
+    }
+
+    private void finish(String endpoint, SseEmitter emitter, StreamState state, long started) {
+        try {
+            state.relay.complete();
+        } catch (Exception e) {
+            fail(endpoint, emitter, e);
+            return;
+        }
+        long elapsed = System.nanoTime() - started;
+        Timer.builder("rag.stream.duration").tag("endpoint", endpoint).register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (state.usage != null) {
+            summary.put("promptTokens", state.usage.getPromptTokens());
+            summary.put("completionTokens", state.usage.getCompletionTokens());
+            summary.put("totalTokens", state.usage.getTotalTokens());
+        }
+        summary.put("firstTokenMs", TimeUnit.NANOSECONDS.toMillis(state.firstTokenNanos));
+        summary.put("totalMs", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (send(emitter, SseEmitter.event().name("usage").data(summary, MediaType.APPLICATION_JSON))) {
+            emitter.complete();
+        }
+    }
+
+    private void fail(String endpoint, SseEmitter emitter, Throwable error) {
+        log.error("Stream for {} failed: {}", endpoint, error.getMessage());
+        if (send(emitter, SseEmitter.event().name("error").data(Map.of("message", String.valueOf(error.getMessage())), MediaType.APPLICATION_JSON))) {
+            emitter.complete();
+        }
+    }
+
+    // A failed send means the client is gone; completing with the error triggers the cancel callback.
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static final class StreamState {
+        private final Relay relay;
+        private long firstTokenNanos;
+        private Usage usage;
+
+        StreamState(Relay relay) {
+            this.relay = relay;
+        }
+    }
+
+    /** Turns streamed text into events; {@link #complete()} runs once the model is done, before the usage event. */
+    private interface Relay {
+
+        void text(String text);
+
+        void complete() throws Exception;
+    }
+
+    private record TokenRelay(SseEmitter emitter) implements Relay {
+
+        @Override
+        public void text(String text) {
+            send(emitter, SseEmitter.event().name("token").data(Map.of("text", text), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void complete() {
+        }
+    }
+
+    private final class StructuredRelay<T> implements Relay {
+
+        private final String endpoint;
+        private final SseEmitter emitter;
+        private final Class<T> type;
+        private final JsonFieldStreamParser parser = new JsonFieldStreamParser(this::field);
+        private final long started = System.nanoTime();
+        private boolean firstField = true;
+
+        StructuredRelay(String endpoint, SseEmitter emitter, Class<T> type) {
+            this.endpoint = endpoint;
+            this.emitter = emitter;
+            this.type = type;
+        }
+
+        @Override
+        public void text(String text) {
+            parser.feed(text);
+        }
+
+        @Override
+        public void complete() throws JsonProcessingException {
+            if (!parser.isComplete()) {
+                throw new IllegalStateException("The model's answer ended before its JSON object was complete");
+            }
+            T result = objectMapper.readerFor(type)
+                    .with(DeserializationFeature.FAIL_ON_MISSING_CREATOR_PROPERTIES, DeserializationFeature.FAIL_ON_NULL_CREATOR_PROPERTIES)
+                    .readValue(parser.objectText());
+            send(emitter, SseEmitter.event().name("result").data(result, MediaType.APPLICATION_JSON));
+        }
+
+        private void field(String name, String rawValue) {
+            JsonNode value;
+            try {
+                value = objectMapper.readTree(rawValue);
+            } catch (JsonProcessingException e) {
+                // Left to the final validation, which reports the whole object
+                log.debug("Skipping unparseable {} field {}: {}", endpoint, name, e.getOriginalMessage());
+                return;
+            }
+            if (firstField) {
+                firstField = false;
+                Timer.builder("rag.stream.first-field").tag("endpoint", endpoint).register(meterRegistry)
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            send(emitter, SseEmitter.event().name("field").data(Map.of("name", name, "value", value), MediaType.APPLICATION_JSON));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.SpringAI.RAG.utils;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.knuddels.jtokkit.api.IntArrayList;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts and truncates text with the BPE tokenizer of the configured OpenAI chat model.
+ * Unknown models (e.g. DeepSeek through the OpenAI-compatible API) fall back to cl100k_base.
+ */
+@Component
+public class TokenCounter {
+
+    private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+    private final Map<String, Encoding> encodingsByModel = new ConcurrentHashMap<>();
+    private final String defaultModel;
+
+    public TokenCounter(@Value("${spring.ai.openai.chat.options.model:gpt-3.5-turbo}") String defaultModel) {
+        this.defaultModel = defaultModel;
+    }
+
+    public int count(String text) {
+        return count(defaultModel, text);
+    }
+
+    public int count(String model, String text) {
+        return text == null || text.isEmpty() ? 0 : encodingFor(model).countTokens(text);
+    }
+
+    /**
+     * Returns the longest prefix of {@code text} that fits in {@code maxTokens}.
+     */
+    public String truncate(String text, int maxTokens) {
+        if (text == null || maxTokens <= 0) {
+            return "";
+        }
+        Encoding encoding = encodingFor(defaultModel);
+        IntArrayList tokens = encoding.encode(text);
+        if (tokens.size() <= maxTokens) {
+            return text;
+        }
+        IntArrayList prefix = new IntArrayList(maxTokens);
+        for (int i = 0; i < maxTokens; i++) {
+            prefix.add(tokens.get(i));
+        }
+        return encoding.decode(prefix);
+    }
+
+    private Encoding encodingFor(String model) {
+        return encodingsByModel.computeIfAbsent(model == null ? defaultModel : model, name -> registry.getEncodingForModel(name)
+                .orElseGet(() -> registry.getEncoding(EncodingType.CL100K_BASE)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.SpringAI.RAG.vectorstore;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Metadata keys written on every ingested document and chunk. They are the fields REST filter expressions
+ * can use (e.g. {@code collection == 'docs' && page_number >= 10}) and the ones covered by
+ * {@link MetadataIndexInitializer}.
+ */
+public final class ChunkMetadata {
+
+    public static final String SOURCE = "source";
+    public static final String PAGE_NUMBER = "page_number";
+    public static final String SECTION_PATH = "section_path";
+    public static final String INGESTED_AT = "ingested_at";
+    public static final String COLLECTION = "collection";
+
+    public static final String DOCS_COLLECTION = "docs";
+    public static final String WEB_COLLECTION = "web";
+
+    /** The only keys a client filter may reference. */
+    public static final Set<String> FILTERABLE_KEYS = Set.of(SOURCE, PAGE_NUMBER, SECTION_PATH, INGESTED_AT, COLLECTION);
+
+    private static final int MAX_SECTION_LENGTH = 200;
+
+    private ChunkMetadata() {
+    }
+
+    /**
+     * Metadata for one ingested document. {@code pageNumber} and {@code sectionPath} are optional;
+     * {@code ingested_at} is stored as epoch seconds so range filters compare numbers.
+     */
+    public static Map<String, Object> of(String source, String collection, Integer pageNumber, String sectionPath,
+                                         Instant ingestedAt) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(SOURCE, source);
+        metadata.put(COLLECTION, collection);
+        metadata.put(INGESTED_AT, ingestedAt.getEpochSecond());
+        if (pageNumber != null) {
+            metadata.put(PAGE_NUMBER, pageNumber);
+        }
+        if (sectionPath != null && !sectionPath.isBlank()) {
+            metadata.put(SECTION_PATH, sectionPath);
+        }
+        return metadata;
+    }
+
+    /** Heading of crawled content, which {@code WebDataUtils.aggregateContent} writes as "Section:\n...". */
+    public static String sectionOf(String content) {
+        int end = content.indexOf(":\n");
+        if (end <= 0 || end > MAX_SECTION_LENGTH) {
+            return null;
+        }
+        return content.substring(0, end).strip();
+    }
+}
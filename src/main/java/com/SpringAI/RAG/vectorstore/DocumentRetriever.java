@@ -0,0 +1,191 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.config.RetrievalProperties;
+import com.SpringAI.RAG.exception.InvalidFilterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieval pipeline used by the RAG bots: over-fetch candidates from the vector store, then keep the
+ * best few after local lexical reranking. Lets the prompt use a small k without relying on the raw
+ * vector order alone.
+ * <p>
+ * With {@code rag.retrieval.two-tier-enabled} the candidates come from a coarse-to-fine search instead:
+ * the {@link SummaryIndex} picks the closest documents, and the chunk search is restricted to them with an
+ * iterative HNSW scan. Fewer than {@code final-top-k} chunks from that search count as a miss and fall back
+ * to the flat search, so a starved filtered scan never reaches the prompt as "no context".
+ * <p>
+ * {@link #retrieveAll} serves batches through {@link MultiQueryVectorSearch}, one embedding call and one
+ * query for the whole batch, with the same over-fetch and rerank per question.
+ */
+@Component
+public class DocumentRetriever {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentRetriever.class);
+    private static final int MAX_FILTER_LENGTH = 512;
+
+    private final VectorStore vectorStore;
+    private final LexicalReranker reranker;
+    private final SummaryIndex summaryIndex;
+    private final MultiQueryVectorSearch multiQuerySearch;
+    private final RetrievalProperties properties;
+    private final Timer searchTimer;
+    private final Timer summaryTimer;
+    private final Timer chunkTimer;
+    private final Timer rerankTimer;
+    private final Timer batchTimer;
+
+    public DocumentRetriever(@Qualifier("customVectorStore") VectorStore vectorStore, LexicalReranker reranker,
+                             SummaryIndex summaryIndex, MultiQueryVectorSearch multiQuerySearch,
+                             RetrievalProperties properties, MeterRegistry meterRegistry) {
+        this.vectorStore = vectorStore;
+        this.reranker = reranker;
+        this.summaryIndex = summaryIndex;
+        this.multiQuerySearch = multiQuerySearch;
+        this.properties = properties;
+        this.searchTimer = Timer.builder("rag.retrieval.latency").tag("stage", "vector-search").register(meterRegistry);
+        this.summaryTimer = Timer.builder("rag.retrieval.latency").tag("stage", "summary-search").register(meterRegistry);
+        this.chunkTimer = Timer.builder("rag.retrieval.latency").tag("stage", "chunk-search").register(meterRegistry);
+        this.rerankTimer = Timer.builder("rag.retrieval.latency").tag("stage", "rerank").register(meterRegistry);
+        this.batchTimer = Timer.builder("rag.retrieval.latency").tag("stage", "batch-search").register(meterRegistry);
+    }
+
+    public List<Document> retrieve(String query) {
+        return retrieve(query, null);
+    }
+
+    /**
+     * Retrieves with an optional metadata filter in Spring AI's text syntax, e.g.
+     * {@code collection == 'docs' && page_number >= 10}. The filter is pushed down into the vector store
+     * query (and the summary tier) rather than applied to the results. Keys are limited to
+     * {@link ChunkMetadata#FILTERABLE_KEYS}, and string values may not contain quotes or backslashes,
+     * because {@code PgVectorStore} splices the converted jsonpath into its SQL as a literal.
+     */
+    public List<Document> retrieve(String query, String filter) {
+        Filter.Expression filterExpression = parseFilter(filter);
+        int fetch = fetchSize();
+        List<Document> candidates = summaryIndex.isEnabled() ? searchTwoTier(query, filterExpression, fetch) : null;
+        if (candidates == null) {
+            SearchRequest request = SearchRequest.builder().query(query).topK(fetch).filterExpression(filterExpression).build();
+            candidates = searchTimer.record(() -> vectorStore.similaritySearch(request));
+        }
+        return rerank(query, candidates);
+    }
+
+    /** Retrieves for every query in one search; the result lists are in query order. */
+    public List<List<Document>> retrieveAll(List<String> queries, String filter) {
+        Filter.Expression filterExpression = parseFilter(filter);
+        List<List<Document>> candidates = batchTimer.record(() -> multiQuerySearch.search(queries, filterExpression, fetchSize()));
+        List<List<Document>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            results.add(rerank(queries.get(i), candidates.get(i)));
+        }
+        return results;
+    }
+
+    private int fetchSize() {
+        return properties.rerankEnabled() ? Math.max(properties.candidateCount(), properties.finalTopK()) : properties.finalTopK();
+    }
+
+    private List<Document> rerank(String query, List<Document> candidates) {
+        if (candidates == null || candidates.isEmpty() || !properties.rerankEnabled()) {
+            return candidates == null ? List.of() : candidates;
+        }
+        long started = System.nanoTime();
+        List<Document> reranked = reranker.rerank(query, candidates, properties.finalTopK());
+        long elapsed = System.nanoTime() - started;
+        rerankTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.debug("Reranked {} candidates to {} in {} µs", candidates.size(), reranked.size(), TimeUnit.NANOSECONDS.toMicros(elapsed));
+        return reranked;
+    }
+
+    // Returns null when the summary tier has nothing to offer (e.g. data ingested before it was enabled)
+    // or the restricted chunk search comes back short.
+    private List<Document> searchTwoTier(String query, Filter.Expression filter, int fetch) {
+        List<String> documentIds;
+        try {
+            documentIds = summaryTimer.record(() -> summaryIndex.topDocumentIds(query, filter));
+        } catch (RuntimeException e) {
+            log.warn("Summary tier search failed, using a flat chunk search: {}", e.getMessage());
+            return null;
+        }
+        if (documentIds == null || documentIds.isEmpty()) {
+            return null;
+        }
+        Filter.Expression documents = new FilterExpressionBuilder().in(SummaryIndex.DOCUMENT_ID, documentIds.toArray()).build();
+        Filter.Expression chunkFilter = filter == null ? documents : new Filter.Expression(Filter.ExpressionType.AND, filter, documents);
+        List<Document> chunks;
+        try {
+            chunks = chunkTimer.record(() -> multiQuerySearch.searchFiltered(query, chunkFilter, fetch));
+        } catch (RuntimeException e) {
+            log.warn("Chunk tier search failed, using a flat chunk search: {}", e.getMessage());
+            return null;
+        }
+        if (chunks.size() < properties.finalTopK()) {
+            log.debug("Chunk tier returned {} of {} chunks, using a flat chunk search", chunks.size(), fetch);
+            return null;
+        }
+        return chunks;
+    }
+
+    // A fresh parser per call: the parser's cache is unbounded and filters come straight from requests.
+    private static Filter.Expression parseFilter(String filter) {
+        if (filter == null || filter.isBlank()) {
+            return null;
+        }
+        if (filter.length() > MAX_FILTER_LENGTH) {
+            throw new InvalidFilterException("Filter expression is longer than " + MAX_FILTER_LENGTH + " characters");
+        }
+        Filter.Expression expression;
+        try {
+            expression = new FilterExpressionTextParser().parse(filter);
+        } catch (RuntimeException e) {
+            throw new InvalidFilterException("Invalid filter expression: " + filter, e);
+        }
+        validate(expression);
+        return expression;
+    }
+
+    private static void validate(Filter.Operand operand) {
+        switch (operand) {
+            case Filter.Expression expression -> {
+                validate(expression.left());
+                if (expression.right() != null) {
+                    validate(expression.right());
+                }
+            }
+            case Filter.Group group -> validate(group.content());
+            case Filter.Key key -> {
+                if (!ChunkMetadata.FILTERABLE_KEYS.contains(key.key())) {
+                    throw new InvalidFilterException("Unknown filter key '" + key.key() + "', expected one of "
+                            + ChunkMetadata.FILTERABLE_KEYS);
+                }
+            }
+            case Filter.Value value -> validateValue(value.value());
+            default -> throw new InvalidFilterException("Unsupported filter operand: " + operand);
+        }
+    }
+
+    private static void validateValue(Object value) {
+        if (value instanceof Collection<?> values) {
+            values.forEach(DocumentRetriever::validateValue);
+        } else if (value instanceof String text && (text.indexOf('\'') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\\') >= 0)) {
+            throw new InvalidFilterException("Filter values may not contain quotes or backslashes");
+        }
+    }
+}
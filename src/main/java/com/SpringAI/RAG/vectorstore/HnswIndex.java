@@ -0,0 +1,517 @@
+package com.SpringAI.RAG.vectorstore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph for cosine similarity search.
+ * <p>
+ * Vectors are L2-normalised on insert and kept in a direct (off-heap) float arena, so a replica of
+ * millions of 1536-d embeddings does not inflate the Java heap or GC pauses. The arena is split into
+ * segments of at most 64 MiB: a single direct buffer is int-indexed and would overflow past a few
+ * hundred thousand vectors, and growing by a new segment avoids copying the existing ones. The first
+ * segment starts small and doubles until it is full, so a small collection does not reserve a whole
+ * segment of direct memory; later segments are allocated full-size as they are needed. Graph links
+ * stay on-heap as small int arrays. Searches run concurrently under a read lock; inserts and removals
+ * take the write lock. Removed entries are tombstoned and skipped in results until the owner rebuilds.
+ */
+public class HnswIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int MAX_SEGMENT_NODES = 1 << 14;
+    private static final int INITIAL_SEGMENT_NODES = 64;
+
+    private final int dimensions;
+    private final int maxConnections;
+    private final int maxConnectionsLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final Random random = new Random(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> nodesById = new HashMap<>();
+
+    private FloatBuffer[] segments = new FloatBuffer[0];
+    private int[][][] links;
+    private String[] ids;
+    private boolean[] deleted;
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public record Neighbor(String id, double similarity) {}
+
+    public HnswIndex(int dimensions, int maxConnections, int efConstruction) {
+        this(dimensions, maxConnections, efConstruction,
+                Math.min(MAX_SEGMENT_NODES, Integer.highestOneBit(Math.max(1, SEGMENT_BYTES / Math.max(1, dimensions * Float.BYTES)))));
+    }
+
+    /** Visible for tests that need to cross segment boundaries with few vectors. */
+    HnswIndex(int dimensions, int maxConnections, int efConstruction, int segmentNodes) {
+        if (dimensions <= 0 || dimensions > SEGMENT_BYTES / Float.BYTES || maxConnections < 2 || efConstruction < 1
+                || Integer.bitCount(segmentNodes) != 1 || (long) segmentNodes * dimensions * Float.BYTES > SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentNodes);
+        this.segmentMask = segmentNodes - 1;
+        this.dimensions = dimensions;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLevel0 = maxConnections * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /** Number of searchable (non-removed) vectors. */
+    public int liveCount() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Fraction of graph nodes that are tombstones; callers rebuild once this grows too large. */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0.0 : (double) deletedCount / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Off-heap bytes held by the vector arena. */
+    public long arenaBytes() {
+        lock.readLock().lock();
+        try {
+            long floats = 0;
+            for (FloatBuffer segment : segments) {
+                floats += segment.capacity();
+            }
+            return floats * Float.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a vector, replacing any previous vector stored under the same id.
+     */
+    public void add(String id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.length);
+        }
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalStateException("HNSW index is full at " + size + " vectors");
+            }
+            if (size == ids.length) {
+                allocate((int) Math.min(Integer.MAX_VALUE, (long) ids.length * 2));
+            }
+            int node = size++;
+            ensureArena(node);
+            segmentOf(node).put(offsetOf(node), normalized);
+            ids[node] = id;
+            nodesById.put(id, node);
+            insert(node, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            return removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return nodesById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code k} nearest live vectors ordered by descending cosine similarity.
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + query.length);
+        }
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int ep = entryPoint;
+            float epDistance = distance(normalized, ep);
+            for (int level = maxLevel; level > 0; level--) {
+                boolean changed = true;
+                while (changed) {
+                    changed = false;
+                    int[] neighbours = links[ep][level];
+                    for (int i = 1; i <= neighbours[0]; i++) {
+                        float d = distance(normalized, neighbours[i]);
+                        if (d < epDistance) {
+                            epDistance = d;
+                            ep = neighbours[i];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            // Tombstones still route the search, so widen the beam to keep k live results.
+            int beam = Math.max(ef, k) + Math.min(deletedCount, k);
+            LongHeap results = searchLayer(normalized, ep, beam, 0, new BitSet(size));
+            long[] ordered = results.drainAscending();
+            List<Neighbor> neighbours = new ArrayList<>(Math.min(k, ordered.length));
+            for (int i = 0; i < ordered.length && neighbours.size() < k; i++) {
+                int node = nodeOf(ordered[i]);
+                if (!deleted[node]) {
+                    neighbours.add(new Neighbor(ids[node], 1.0 - distanceOf(ordered[i])));
+                }
+            }
+            return neighbours;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeInternal(String id) {
+        Integer node = nodesById.remove(id);
+        if (node == null) {
+            return false;
+        }
+        deleted[node] = true;
+        deletedCount++;
+        return true;
+    }
+
+    private void insert(int node, float[] vector) {
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[1 + connectionsFor(l)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int ep = entryPoint;
+        float epDistance = distance(vector, ep);
+        for (int l = maxLevel; l > level; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] neighbours = links[ep][l];
+                for (int i = 1; i <= neighbours[0]; i++) {
+                    float d = distance(vector, neighbours[i]);
+                    if (d < epDistance) {
+                        epDistance = d;
+                        ep = neighbours[i];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            long[] candidates = searchLayer(vector, ep, efConstruction, l, new BitSet(size)).drainAscending();
+            int[] selected = selectNeighbours(candidates, connectionsFor(l));
+            int[] own = links[node][l];
+            own[0] = selected.length;
+            System.arraycopy(selected, 0, own, 1, selected.length);
+            for (int neighbour : selected) {
+                connect(neighbour, node, l);
+            }
+            ep = nodeOf(candidates[0]);
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links[from][level];
+        int capacity = neighbours.length - 1;
+        if (neighbours[0] < capacity) {
+            neighbours[++neighbours[0]] = to;
+            return;
+        }
+        // Overflow: re-run the selection heuristic over the existing links plus the new one.
+        long[] candidates = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            candidates[i - 1] = pack(distance(from, neighbours[i]), neighbours[i]);
+        }
+        candidates[capacity] = pack(distance(from, to), to);
+        Arrays.sort(candidates);
+        int[] selected = selectNeighbours(candidates, capacity);
+        neighbours[0] = selected.length;
+        System.arraycopy(selected, 0, neighbours, 1, selected.length);
+    }
+
+    /**
+     * Neighbour selection heuristic from the HNSW paper: keep a candidate only if it is closer to the base
+     * than to any already selected neighbour, then back-fill with the pruned ones. Candidates are sorted.
+     */
+    private int[] selectNeighbours(long[] ascending, int m) {
+        int[] selected = new int[Math.min(m, ascending.length)];
+        int count = 0;
+        long[] pruned = new long[ascending.length];
+        int prunedCount = 0;
+        for (int i = 0; i < ascending.length && count < m; i++) {
+            int candidate = nodeOf(ascending[i]);
+            float candidateDistance = distanceOf(ascending[i]);
+            boolean keep = true;
+            for (int j = 0; j < count; j++) {
+                if (distance(candidate, selected[j]) < candidateDistance) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            } else {
+                pruned[prunedCount++] = ascending[i];
+            }
+        }
+        for (int i = 0; i < prunedCount && count < selected.length; i++) {
+            selected[count++] = nodeOf(pruned[i]);
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private LongHeap searchLayer(float[] query, int entry, int ef, int level, BitSet visited) {
+        LongHeap candidates = new LongHeap(ef * 2, false);
+        LongHeap results = new LongHeap(ef + 1, true);
+        visited.set(entry);
+        long first = pack(distance(query, entry), entry);
+        candidates.push(first);
+        results.push(first);
+        while (!candidates.isEmpty()) {
+            long current = candidates.pop();
+            if (distanceOf(current) > distanceOf(results.peek()) && results.size() >= ef) {
+                break;
+            }
+            int node = nodeOf(current);
+            if (links[node].length <= level) {
+                continue;
+            }
+            int[] neighbours = links[node][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d = distance(query, neighbour);
+                if (results.size() < ef || d < distanceOf(results.peek())) {
+                    long packed = pack(d, neighbour);
+                    candidates.push(packed);
+                    results.push(packed);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int connectionsFor(int level) {
+        return level == 0 ? maxConnectionsLevel0 : maxConnections;
+    }
+
+    private float distance(float[] query, int node) {
+        FloatBuffer segment = segmentOf(node);
+        int base = offsetOf(node);
+        float dot = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            dot += query[i] * segment.get(base + i);
+        }
+        return Math.max(0f, 1f - dot);
+    }
+
+    private float distance(int a, int b) {
+        FloatBuffer segmentA = segmentOf(a);
+        FloatBuffer segmentB = segmentOf(b);
+        int baseA = offsetOf(a);
+        int baseB = offsetOf(b);
+        float dot = 0f;
+        for (int i = 0; i < dimensions; i++) {
+            dot += segmentA.get(baseA + i) * segmentB.get(baseB + i);
+        }
+        return Math.max(0f, 1f - dot);
+    }
+
+    private FloatBuffer segmentOf(int node) {
+        return segments[node >>> segmentShift];
+    }
+
+    // Bounded by SEGMENT_BYTES / Float.BYTES, so the int product cannot overflow.
+    private int offsetOf(int node) {
+        return (node & segmentMask) * dimensions;
+    }
+
+    // Nodes are added in order, so a node is either in the last segment or starts the next one.
+    private void ensureArena(int node) {
+        int segment = node >>> segmentShift;
+        if (segment == segments.length) {
+            segments = Arrays.copyOf(segments, segment + 1);
+            segments[segment] = newSegment(segment == 0 ? Math.min(INITIAL_SEGMENT_NODES, segmentMask + 1) : segmentMask + 1);
+        } else if (offsetOf(node) == segments[segment].capacity()) {
+            FloatBuffer current = segments[segment];
+            FloatBuffer grown = newSegment(Math.min(segmentMask + 1, 2 * current.capacity() / dimensions));
+            grown.put(0, current, 0, current.capacity());
+            segments[segment] = grown;
+        }
+    }
+
+    private FloatBuffer newSegment(int nodes) {
+        return ByteBuffer.allocateDirect(nodes * dimensions * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    private void allocate(int capacity) {
+        links = links == null ? new int[capacity][][] : Arrays.copyOf(links, capacity);
+        ids = ids == null ? new String[capacity] : Arrays.copyOf(ids, capacity);
+        deleted = deleted == null ? new boolean[capacity] : Arrays.copyOf(deleted, capacity);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    // Distances are non-negative, so their IEEE bits sort like the floats and can share a long with the node.
+    private static long pack(float distance, int node) {
+        return ((long) Float.floatToIntBits(distance) << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private static int nodeOf(long packed) {
+        return (int) packed;
+    }
+
+    private static float distanceOf(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    /**
+     * Binary heap of packed (distance, node) longs, min- or max-ordered.
+     */
+    private static final class LongHeap {
+        private final boolean max;
+        private long[] heap;
+        private int size;
+
+        LongHeap(int capacity, boolean max) {
+            this.heap = new long[Math.max(capacity, 4)];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            heap[i] = value;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(heap[i], heap[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        long pop() {
+            long top = heap[0];
+            heap[0] = heap[--size];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int child = left + 1 < size && before(heap[left + 1], heap[left]) ? left + 1 : left;
+                if (!before(heap[child], heap[i])) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+            return top;
+        }
+
+        long[] drainAscending() {
+            long[] values = Arrays.copyOf(heap, size);
+            Arrays.sort(values);
+            size = 0;
+            return values;
+        }
+
+        private boolean before(long a, long b) {
+            return max ? a > b : a < b;
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
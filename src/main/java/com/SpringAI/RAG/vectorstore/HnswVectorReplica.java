@@ -0,0 +1,359 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.config.VectorReplicaProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pgvector.PGvector;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-JVM HNSW replica of selected vector_store collections.
+ * <p>
+ * A trigger on vector_store appends every insert, update and delete to vector_store_changes; the replica
+ * bulk-loads the table once and then polls that change log. Sequence values can commit out of order, so the
+ * watermark only moves past changes older than a short settle window; until then the replica remembers which
+ * sequence values it has applied and only looks for the missing ones, so each change reaches the graph once.
+ * A change is applied by re-reading the document's current row, which keeps a late-committing change from
+ * undoing a newer one. A periodic row-count reconciliation forces a full reload if anything was still missed. Postgres remains the source of truth: until the replica is ready,
+ * or for any search it does not cover, {@link ReplicatedVectorStore} falls back to pgvector.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rag.replica", name = "enabled", havingValue = "true")
+public class HnswVectorReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorReplica.class);
+
+    /** Shard key used when the replica mirrors the whole table. */
+    public static final String WHOLE_TABLE = "*";
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int CHANGE_BATCH_SIZE = 1000;
+    private static final int SETTLE_WINDOW_SECONDS = 30;
+
+    private static final String[] CHANGE_LOG_DDL = {
+            """
+            CREATE TABLE IF NOT EXISTS vector_store_changes (
+                seq bigserial PRIMARY KEY,
+                doc_id uuid NOT NULL,
+                op char(1) NOT NULL,
+                changed_at timestamptz NOT NULL DEFAULT clock_timestamp()
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS vector_store_changes_changed_at_idx ON vector_store_changes (changed_at)",
+            """
+            CREATE OR REPLACE FUNCTION vector_store_log_change() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP = 'DELETE' THEN
+                    INSERT INTO vector_store_changes (doc_id, op) VALUES (OLD.id, 'D');
+                    RETURN OLD;
+                END IF;
+                INSERT INTO vector_store_changes (doc_id, op) VALUES (NEW.id, 'U');
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """,
+            "DROP TRIGGER IF EXISTS vector_store_change_log ON vector_store",
+            """
+            CREATE TRIGGER vector_store_change_log AFTER INSERT OR UPDATE OR DELETE ON vector_store
+            FOR EACH ROW EXECUTE FUNCTION vector_store_log_change()
+            """
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VectorReplicaProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private volatile Map<String, Shard> shards = Map.of();
+    private volatile boolean ready;
+    private long lastSeq;
+    // Sequence values above lastSeq that were applied, with their change time; gaps below appliedSeq may still commit.
+    private final NavigableMap<Long, Instant> applied = new TreeMap<>();
+    private long appliedSeq;
+    private Instant lastSuccessfulPoll = Instant.EPOCH;
+
+    private record Shard(HnswIndex index, Map<String, Document> documents) {}
+
+    private record Row(String id, String content, Map<String, Object> metadata, float[] embedding) {}
+
+    private record Change(long seq, String docId, Instant changedAt) {}
+
+    public HnswVectorReplica(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             VectorReplicaProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        Gauge.builder("rag.replica.documents", this, replica -> replica.documentCount()).register(meterRegistry);
+        Gauge.builder("rag.replica.arena.bytes", this, replica -> replica.arenaBytes()).register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether searches against the given shard key can be answered locally.
+     */
+    public boolean covers(String shardKey) {
+        return ready && (properties.mirrorsWholeTable() ? WHOLE_TABLE.equals(shardKey) : properties.collections().contains(shardKey));
+    }
+
+    /**
+     * Approximate nearest neighbour search against one shard, shaped like PgVectorStore results.
+     */
+    public Optional<List<Document>> search(String shardKey, float[] queryEmbedding, int topK, double similarityThreshold) {
+        Shard shard = shards.get(shardKey);
+        if (!covers(shardKey)) {
+            return Optional.empty();
+        }
+        if (shard == null) {
+            return Optional.of(List.of());
+        }
+        List<HnswIndex.Neighbor> neighbours = shard.index().search(queryEmbedding, topK, Math.max(properties.efSearch(), topK));
+        List<Document> results = new ArrayList<>(neighbours.size());
+        for (HnswIndex.Neighbor neighbour : neighbours) {
+            if (neighbour.similarity() < similarityThreshold) {
+                continue;
+            }
+            Document document = shard.documents().get(neighbour.id());
+            if (document == null) {
+                continue;
+            }
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.put(DocumentMetadata.DISTANCE.value(), (float) (1.0 - neighbour.similarity()));
+            results.add(Document.builder()
+                    .id(document.getId())
+                    .text(document.getText())
+                    .metadata(metadata)
+                    .score(neighbour.similarity())
+                    .build());
+        }
+        return Optional.of(results);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("hnsw-replica-load").start(this::reloadQuietly);
+    }
+
+    @Scheduled(fixedDelayString = "${rag.replica.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        if (!ready) {
+            return;
+        }
+        try {
+            if (Instant.now().isAfter(lastSuccessfulPoll.plus(properties.changeLogRetentionMinutes(), TimeUnit.MINUTES.toChronoUnit()))) {
+                log.warn("Replica fell behind the change log retention window, reloading");
+                reload();
+                return;
+            }
+            applyChanges();
+            lastSuccessfulPoll = Instant.now();
+            if (shards.values().stream().anyMatch(shard -> shard.index().deletedRatio() > properties.rebuildDeletedRatio())) {
+                log.info("Replica tombstone ratio exceeded {}, rebuilding", properties.rebuildDeletedRatio());
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("Replica change poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public synchronized void reconcile() {
+        if (!ready) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM vector_store_changes WHERE changed_at < now() - make_interval(mins => ?)",
+                    properties.changeLogRetentionMinutes());
+            Long rows = properties.mirrorsWholeTable()
+                    ? jdbcTemplate.queryForObject("SELECT count(*) FROM vector_store", Long.class)
+                    : jdbcTemplate.queryForObject("SELECT count(*) FROM vector_store WHERE metadata::jsonb ->> 'collection' = ANY (?)",
+                            Long.class, (Object) properties.collections().toArray(String[]::new));
+            if (rows != null && rows != documentCount()) {
+                log.warn("Replica holds {} documents but Postgres has {}, reloading", documentCount(), rows);
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("Replica reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            synchronized (this) {
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("Replica load failed, searches will keep using pgvector: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        long started = System.nanoTime();
+        for (String ddl : CHANGE_LOG_DDL) {
+            jdbcTemplate.execute(ddl);
+        }
+        // Take the watermark before the snapshot so nothing committed in between is lost; replays are idempotent.
+        Long watermark = jdbcTemplate.queryForObject("SELECT coalesce(max(seq), 0) FROM vector_store_changes", Long.class);
+        Map<String, Shard> loaded = new ConcurrentHashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(properties.mirrorsWholeTable()
+                    ? "SELECT id, content, metadata, embedding FROM vector_store"
+                    : "SELECT id, content, metadata, embedding FROM vector_store WHERE metadata::jsonb ->> 'collection' = ANY (?)");
+            statement.setFetchSize(FETCH_SIZE);
+            if (!properties.mirrorsWholeTable()) {
+                statement.setArray(1, connection.createArrayOf("text", properties.collections().toArray()));
+            }
+            return statement;
+        }, resultSet -> {
+            Row row = mapRow(resultSet);
+            String key = shardKeyOf(row);
+            if (key != null) {
+                put(loaded, key, row);
+            }
+        }));
+        this.shards = loaded;
+        this.lastSeq = watermark != null ? watermark : 0L;
+        this.appliedSeq = lastSeq;
+        this.applied.clear();
+        this.lastSuccessfulPoll = Instant.now();
+        this.ready = true;
+        log.info("Replica loaded {} documents into {} shard(s) in {} ms", documentCount(), loaded.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void applyChanges() {
+        List<Change> changes = new ArrayList<>(jdbcTemplate.query(
+                "SELECT seq, doc_id, changed_at FROM vector_store_changes WHERE seq > ? ORDER BY seq LIMIT ?",
+                this::mapChange, appliedSeq, CHANGE_BATCH_SIZE));
+        Long[] gaps = unappliedGaps();
+        if (gaps.length > 0) {
+            changes.addAll(jdbcTemplate.query(
+                    "SELECT seq, doc_id, changed_at FROM vector_store_changes WHERE seq = ANY (?)",
+                    this::mapChange, (Object) gaps));
+        }
+        if (!changes.isEmpty()) {
+            apply(changes);
+        }
+        // Only move the watermark past changes old enough that no earlier sequence value can still commit.
+        Instant settled = Instant.now().minusSeconds(SETTLE_WINDOW_SECONDS);
+        for (Map.Entry<Long, Instant> change : applied.entrySet()) {
+            if (change.getValue().isAfter(settled)) {
+                break;
+            }
+            lastSeq = change.getKey();
+        }
+        applied.headMap(lastSeq, true).clear();
+    }
+
+    private void apply(List<Change> changes) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Change change : changes) {
+            ids.add(change.docId());
+            applied.put(change.seq(), change.changedAt());
+            appliedSeq = Math.max(appliedSeq, change.seq());
+        }
+        // The current row decides, not the op: a late-committing change must not undo a newer one.
+        List<Row> rows = jdbcTemplate.query(
+                "SELECT id, content, metadata, embedding FROM vector_store WHERE id = ANY (?)",
+                (rs, rowNum) -> mapRow(rs),
+                (Object) ids.stream().map(UUID::fromString).toArray(UUID[]::new));
+        Map<String, Shard> current = shards;
+        // A row may have moved between collections; drop it everywhere before re-adding.
+        for (String id : ids) {
+            current.values().forEach(shard -> {
+                shard.index().remove(id);
+                shard.documents().remove(id);
+            });
+        }
+        for (Row row : rows) {
+            String key = shardKeyOf(row);
+            if (key != null) {
+                put(current, key, row);
+            }
+        }
+        log.debug("Replica applied {} changes: {} upserts and {} deletes", changes.size(), rows.size(), ids.size() - rows.size());
+    }
+
+    // Sequence values between the settled watermark and the highest applied one that have not been seen yet.
+    private Long[] unappliedGaps() {
+        List<Long> gaps = new ArrayList<>();
+        for (long seq = lastSeq + 1; seq < appliedSeq && gaps.size() < CHANGE_BATCH_SIZE; seq++) {
+            if (!applied.containsKey(seq)) {
+                gaps.add(seq);
+            }
+        }
+        return gaps.toArray(Long[]::new);
+    }
+
+    private Change mapChange(ResultSet rs, int rowNum) throws SQLException {
+        return new Change(rs.getLong("seq"), rs.getString("doc_id"), rs.getTimestamp("changed_at").toInstant());
+    }
+
+    private void put(Map<String, Shard> target, String key, Row row) {
+        Shard shard = target.computeIfAbsent(key, k -> new Shard(
+                new HnswIndex(row.embedding().length, properties.maxConnections(), properties.efConstruction()),
+                new ConcurrentHashMap<>()));
+        shard.documents().put(row.id(), new Document(row.id(), row.content(), row.metadata()));
+        shard.index().add(row.id(), row.embedding());
+    }
+
+    private String shardKeyOf(Row row) {
+        if (properties.mirrorsWholeTable()) {
+            return WHOLE_TABLE;
+        }
+        Object collection = row.metadata().get("collection");
+        return collection != null && properties.collections().contains(collection.toString()) ? collection.toString() : null;
+    }
+
+    private Row mapRow(ResultSet rs) throws SQLException {
+        String json = rs.getString("metadata");
+        Map<String, Object> metadata;
+        try {
+            metadata = json == null ? new HashMap<>() : objectMapper.readValue(json, new TypeReference<HashMap<String, Object>>() {});
+        } catch (Exception e) {
+            throw new SQLException("Unreadable metadata for document " + rs.getString("id"), e);
+        }
+        return new Row(rs.getString("id"), rs.getString("content"), metadata, new PGvector(rs.getString("embedding")).toArray());
+    }
+
+    private long documentCount() {
+        return shards.values().stream().mapToLong(shard -> shard.index().liveCount()).sum();
+    }
+
+    private long arenaBytes() {
+        return shards.values().stream().mapToLong(shard -> shard.index().arenaBytes()).sum();
+    }
+}
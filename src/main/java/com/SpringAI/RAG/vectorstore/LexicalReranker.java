@@ -0,0 +1,292 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.config.RetrievalProperties;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process BM25 reranker for over-fetched vector search candidates.
+ * <p>
+ * The candidate set doubles as the corpus for IDF. Each chunk is scanned once against a small hash table of the
+ * query terms, so term frequencies live in one flat int array and no per-token strings are created. The scan
+ * stops at {@code rag.retrieval.rerank-max-chars}, which by default is above the splitter's chunk size, so only
+ * oversized chunks are cut short. Heading hits are collected in the same pass. The final score
+ * blends normalised BM25 with the vector similarity, plus boosts when query terms appear in a chunk's heading
+ * line ("Section:" prefix written by the crawler) or in its source/section metadata.
+ */
+@Component
+public class LexicalReranker {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "how", "in", "is", "it", "of", "on",
+            "or", "the", "to", "was", "what", "when", "where", "which", "who", "why", "with", "does", "do", "can");
+    private static final String[] METADATA_KEYS = {"title", "section_path", "source"};
+    private static final int MAX_HEADING_LENGTH = 200;
+    // Heading and metadata hits are tracked as bits of an int.
+    private static final int MAX_QUERY_TERMS = 32;
+    private static final char[] ASCII_FOLD = new char[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_FOLD[c] = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+        }
+    }
+
+    private final RetrievalProperties properties;
+
+    public LexicalReranker(RetrievalProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the {@code topK} best candidates, re-scored so downstream ordering by score keeps the rerank order.
+     */
+    public List<Document> rerank(String query, List<Document> candidates, int topK) {
+        int n = candidates.size();
+        String[] terms = queryTerms(query);
+        if (n == 0 || terms.length == 0) {
+            return n <= topK ? candidates : candidates.subList(0, topK);
+        }
+        int m = terms.length;
+        TermTable table = new TermTable(terms);
+        int maxChars = properties.rerankMaxChars();
+        int[] termFrequencies = new int[n * m];
+        int[] documentLengths = new int[n];
+        int[] documentFrequencies = new int[m];
+        double[] headingMatches = new double[n];
+        double[] metadataMatches = new double[n];
+        long totalLength = 0;
+        char[] buffer = new char[Math.min(maxChars, 4096)];
+
+        for (int d = 0; d < n; d++) {
+            Document document = candidates.get(d);
+            String text = document.getText() == null ? "" : document.getText();
+            int length = Math.min(text.length(), maxChars);
+            buffer = ensureCapacity(buffer, length);
+            long scanned = scan(text, length, headingEnd(text), table, termFrequencies, d * m, buffer);
+            documentLengths[d] = (int) (scanned >>> 32);
+            totalLength += documentLengths[d];
+            for (int t = 0; t < m; t++) {
+                if (termFrequencies[d * m + t] > 0) {
+                    documentFrequencies[t]++;
+                }
+            }
+            headingMatches[d] = (double) Integer.bitCount((int) scanned) / m;
+            metadataMatches[d] = metadataMatches(document.getMetadata(), table);
+        }
+
+        double k1 = properties.bm25K1();
+        double b = properties.bm25B();
+        double averageLength = Math.max(1.0, (double) totalLength / n);
+        double[] idf = new double[m];
+        for (int t = 0; t < m; t++) {
+            idf[t] = Math.log(1.0 + (n - documentFrequencies[t] + 0.5) / (documentFrequencies[t] + 0.5));
+        }
+        double[] bm25 = new double[n];
+        double maxBm25 = 0;
+        for (int d = 0; d < n; d++) {
+            double lengthNorm = k1 * (1 - b + b * documentLengths[d] / averageLength);
+            double score = 0;
+            for (int t = 0; t < m; t++) {
+                int tf = termFrequencies[d * m + t];
+                if (tf > 0) {
+                    score += idf[t] * tf * (k1 + 1) / (tf + lengthNorm);
+                }
+            }
+            bm25[d] = score;
+            maxBm25 = Math.max(maxBm25, score);
+        }
+
+        double vectorWeight = properties.vectorWeight();
+        double[] combined = new double[n];
+        for (int d = 0; d < n; d++) {
+            Double vectorScore = candidates.get(d).getScore();
+            double lexical = maxBm25 > 0 ? bm25[d] / maxBm25 : 0;
+            combined[d] = (1 - vectorWeight) * lexical
+                    + vectorWeight * (vectorScore != null ? vectorScore : 0)
+                    + properties.headingBoost() * headingMatches[d]
+                    + properties.metadataBoost() * metadataMatches[d];
+        }
+
+        int keep = Math.min(topK, n);
+        boolean[] taken = new boolean[n];
+        List<Document> reranked = new ArrayList<>(keep);
+        for (int k = 0; k < keep; k++) {
+            int best = -1;
+            for (int d = 0; d < n; d++) {
+                if (!taken[d] && (best < 0 || combined[d] > combined[best])) {
+                    best = d;
+                }
+            }
+            taken[best] = true;
+            reranked.add(candidates.get(best).mutate().score(combined[best]).build());
+        }
+        return reranked;
+    }
+
+    private static String[] queryTerms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+                if (terms.size() == MAX_QUERY_TERMS) {
+                    break;
+                }
+            }
+        }
+        return terms.toArray(String[]::new);
+    }
+
+    /**
+     * Tokenises the first {@code length} characters of {@code text} in a single pass over a bulk copy in
+     * {@code buffer} and adds query-term hits to {@code counts[offset + t]}. Each token's lower-case
+     * String-compatible hash is built while scanning and looked up in {@code table}, so no token strings are
+     * created and only hash hits are verified. Hits before {@code headingEnd} also set bit {@code t} of the low
+     * word of the result; the high word is the number of tokens seen.
+     */
+    private static long scan(String text, int length, int headingEnd, TermTable table, int[] counts, int offset,
+                             char[] buffer) {
+        text.getChars(0, length, buffer, 0);
+        int tokens = 0;
+        int headingHits = 0;
+        int start = -1;
+        int hash = 0;
+        for (int i = 0; i <= length; i++) {
+            int folded = i < length ? fold(buffer[i]) : 0;
+            if (folded != 0) {
+                if (start < 0) {
+                    start = i;
+                    hash = 0;
+                }
+                hash = 31 * hash + folded;
+                continue;
+            }
+            if (start < 0) {
+                continue;
+            }
+            tokens++;
+            int t = table.find(hash, buffer, start, i - start);
+            if (t >= 0) {
+                counts[offset + t]++;
+                if (i <= headingEnd) {
+                    headingHits |= 1 << t;
+                }
+            }
+            start = -1;
+        }
+        return ((long) tokens << 32) | (headingHits & 0xFFFFFFFFL);
+    }
+
+    private static double metadataMatches(Map<String, Object> metadata, TermTable table) {
+        int hits = 0;
+        for (String key : METADATA_KEYS) {
+            if (metadata.get(key) instanceof String string) {
+                char[] value = string.toCharArray();
+                int start = -1;
+                int hash = 0;
+                for (int i = 0; i <= value.length; i++) {
+                    int folded = i < value.length ? fold(value[i]) : 0;
+                    if (folded != 0) {
+                        if (start < 0) {
+                            start = i;
+                            hash = 0;
+                        }
+                        hash = 31 * hash + folded;
+                    } else if (start >= 0) {
+                        int t = table.find(hash, value, start, i - start);
+                        if (t >= 0) {
+                            hits |= 1 << t;
+                        }
+                        start = -1;
+                    }
+                }
+            }
+        }
+        return (double) Integer.bitCount(hits) / table.size();
+    }
+
+    private static char[] ensureCapacity(char[] buffer, int length) {
+        return buffer.length >= length ? buffer : new char[Math.max(length, buffer.length * 2)];
+    }
+
+    // Lower-cased word character, or 0 for a separator.
+    private static int fold(char c) {
+        if (c < 128) {
+            return ASCII_FOLD[c];
+        }
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+    }
+
+    private static int headingEnd(String text) {
+        int newline = text.indexOf('\n');
+        if (newline <= 0 || newline > MAX_HEADING_LENGTH) {
+            return -1;
+        }
+        return text.charAt(newline - 1) == ':' ? newline : -1;
+    }
+
+    /**
+     * Open-addressed map from a query term's lower-case hash to its index, sized to a power of two at least
+     * twice the term count so a probe usually ends at the first slot.
+     */
+    private static final class TermTable {
+        private final char[][] terms;
+        private final int[] hashes;
+        private final int[] slots;
+        private final int mask;
+
+        TermTable(String[] terms) {
+            this.terms = new char[terms.length][];
+            this.hashes = new int[terms.length];
+            this.slots = new int[Integer.highestOneBit(terms.length * 2 - 1) << 1];
+            this.mask = slots.length - 1;
+            for (int t = 0; t < terms.length; t++) {
+                this.terms[t] = terms[t].toCharArray();
+                hashes[t] = terms[t].hashCode();
+                int slot = spread(hashes[t]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = t + 1;
+            }
+        }
+
+        int size() {
+            return terms.length;
+        }
+
+        // Index of the term equal to the folded text[start, start + length), or -1.
+        int find(int hash, char[] text, int start, int length) {
+            for (int slot = spread(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                int t = slots[slot] - 1;
+                if (hashes[t] == hash && terms[t].length == length && matches(terms[t], text, start)) {
+                    return t;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean matches(char[] term, char[] text, int start) {
+            for (int i = 0; i < term.length; i++) {
+                if (fold(text[start + i]) != term[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int spread(int hash) {
+            return (hash * 0x9E3779B9) >>> 16 ^ hash;
+        }
+    }
+}
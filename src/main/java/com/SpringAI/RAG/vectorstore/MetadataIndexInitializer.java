@@ -0,0 +1,56 @@
+package com.SpringAI.RAG.vectorstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes behind metadata-filtered retrieval on {@code vector_store}.
+ * <p>
+ * pgvector pushes Spring AI filter expressions down as {@code metadata::jsonb @@ '<jsonpath>'}, which only a
+ * GIN index on the same jsonb cast can serve; with it, selective filters become a bitmap scan instead of a
+ * post-filter over the HNSW candidates. The btree expression indexes serve the plain {@code ->>} lookups used
+ * by collection-scoped deletes, the replica's shard loads and range scans on ingestion time.
+ * <p>
+ * Runs once on startup, off the main thread, with {@code CONCURRENTLY} so ingestion is not blocked. The first
+ * failure (no database, missing table, insufficient privileges) is logged and ends the run.
+ */
+@Component
+public class MetadataIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MetadataIndexInitializer.class);
+
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS vector_store_metadata_path_idx ON vector_store USING gin ((metadata::jsonb) jsonb_path_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS vector_store_collection_idx ON vector_store ((metadata::jsonb ->> 'collection'))",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS vector_store_source_idx ON vector_store ((metadata::jsonb ->> 'source'))",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS vector_store_ingested_at_idx ON vector_store (((metadata::jsonb ->> 'ingested_at')::bigint))");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MetadataIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("metadata-index-init").start(this::createIndexes);
+    }
+
+    void createIndexes() {
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                log.warn("Skipping metadata index, filtered searches may scan more rows: {}", e.getMessage());
+                return;
+            }
+        }
+        log.info("Metadata indexes on vector_store are in place");
+    }
+}
@@ -0,0 +1,175 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.pgvector.PgVectorFilterExpressionConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Similarity search for many queries at once: one embedding call for all query texts and one SQL statement
+ * that runs a {@code LATERAL} top-k search per query vector, so N questions cost two round trips instead of
+ * 2N. Each per-query subselect is the same {@code ORDER BY embedding <=> ? LIMIT k} that {@code PgVectorStore}
+ * issues, so it uses the HNSW index the same way.
+ * <p>
+ * It reads the current tenant's table directly, not the {@code customVectorStore}: the HNSW replica and the
+ * summary tier are single-query paths and are not consulted.
+ * <p>
+ * Selective filters (the summary tier's {@code document_id} list) starve a plain HNSW scan, which filters the
+ * {@code ef_search} candidates after the fact. {@link #searchFiltered} runs the statement in a short transaction
+ * with {@code SET LOCAL hnsw.iterative_scan = relaxed_order} (pgvector 0.8+) so the scan keeps walking the graph
+ * until {@code topK} rows pass the filter. On older pgvector the setting is rejected once and later calls run
+ * without it.
+ */
+@Component
+public class MultiQueryVectorSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiQueryVectorSearch.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingModel embeddingModel;
+    private final TenantRegistry tenantRegistry;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private volatile boolean iterativeScanSupported = true;
+
+    public MultiQueryVectorSearch(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel, TenantRegistry tenantRegistry,
+                                  ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.embeddingModel = embeddingModel;
+        this.tenantRegistry = tenantRegistry;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /** The {@code topK} nearest documents for each query, in query order, closest first. */
+    public List<List<Document>> search(List<String> queries, Filter.Expression filter, int topK) {
+        return search(embed(queries), filter, topK, false);
+    }
+
+    /**
+     * The {@code topK} nearest documents for one query under a selective filter, with an iterative HNSW scan
+     * where the database supports it.
+     */
+    public List<Document> searchFiltered(String query, Filter.Expression filter, int topK) {
+        String[] vectors = embed(List.of(query));
+        if (!iterativeScanSupported) {
+            return search(vectors, filter, topK, false).getFirst();
+        }
+        try {
+            return search(vectors, filter, topK, true).getFirst();
+        } catch (RuntimeException e) {
+            if (!iterativeScanSupported) {
+                log.warn("hnsw.iterative_scan is not supported (pgvector < 0.8), filtered scans may return fewer rows: {}",
+                        e.getMessage());
+                return search(vectors, filter, topK, false).getFirst();
+            }
+            throw e;
+        }
+    }
+
+    private String[] embed(List<String> queries) {
+        List<float[]> embeddings = embeddingModel.embed(queries);
+        String[] vectors = new String[embeddings.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = toVectorText(embeddings.get(i));
+        }
+        return vectors;
+    }
+
+    private List<List<Document>> search(String[] vectors, Filter.Expression filter, int topK, boolean iterativeScan) {
+        // The jsonpath is bound, not spliced into the statement as PgVectorStore does
+        String jsonPath = filter != null ? new PgVectorFilterExpressionConverter().convertExpression(filter) : null;
+        String sql = "SELECT q.ord, d.id, d.content, d.metadata, d.distance "
+                + "FROM unnest(?::text[]) WITH ORDINALITY AS q(embedding, ord) "
+                + "CROSS JOIN LATERAL (SELECT t.id, t.content, t.metadata, t.embedding <=> q.embedding::vector AS distance "
+                + "FROM " + tenantRegistry.currentTable() + " t "
+                + (jsonPath != null ? "WHERE t.metadata::jsonb @@ ?::jsonpath " : "")
+                + "ORDER BY distance LIMIT ?) d "
+                + "ORDER BY q.ord, d.distance";
+
+        List<List<Document>> results = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            results.add(new ArrayList<>());
+        }
+        if (!iterativeScan) {
+            query(sql, vectors, jsonPath, topK, results);
+            return results;
+        }
+        // Embedded by the caller so the connection is only held for the statements themselves
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                jdbcTemplate.execute("SET LOCAL hnsw.iterative_scan = relaxed_order");
+            } catch (RuntimeException e) {
+                iterativeScanSupported = false;
+                throw e;
+            }
+            query(sql, vectors, jsonPath, topK, results);
+        });
+        return results;
+    }
+
+    private void query(String sql, String[] vectors, String jsonPath, int topK, List<List<Document>> results) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            Array array = connection.createArrayOf("text", vectors);
+            int parameter = 1;
+            statement.setArray(parameter++, array);
+            if (jsonPath != null) {
+                statement.setString(parameter++, jsonPath);
+            }
+            statement.setInt(parameter, topK);
+            return statement;
+        }, rs -> {
+            results.get(rs.getInt("ord") - 1).add(mapRow(rs));
+        });
+    }
+
+    private Document mapRow(ResultSet rs) throws SQLException {
+        String json = rs.getString("metadata");
+        Map<String, Object> metadata;
+        try {
+            metadata = json == null ? new HashMap<>() : objectMapper.readValue(json, new TypeReference<HashMap<String, Object>>() {});
+        } catch (Exception e) {
+            throw new SQLException("Unreadable metadata for document " + rs.getString("id"), e);
+        }
+        double distance = rs.getDouble("distance");
+        metadata.put(DocumentMetadata.DISTANCE.value(), (float) distance);
+        return Document.builder()
+                .id(rs.getString("id"))
+                .text(rs.getString("content"))
+                .metadata(metadata)
+                .score(1.0 - distance)
+                .build();
+    }
+
+    private static String toVectorText(float[] vector) {
+        StringBuilder text = new StringBuilder(vector.length * 12).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(vector[i]);
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.SpringAI.RAG.vectorstore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * VectorStore that answers similarity searches from the in-process {@link HnswVectorReplica} when it covers
+ * the request, and otherwise (or on any local failure) delegates to pgvector. Writes always go to Postgres;
+ * the replica picks them up through the change log.
+ */
+public class ReplicatedVectorStore implements VectorStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicatedVectorStore.class);
+
+    private final VectorStore delegate;
+    private final HnswVectorReplica replica;
+    private final EmbeddingModel embeddingModel;
+    private final Counter localSearches;
+    private final Counter fallbackSearches;
+
+    public ReplicatedVectorStore(VectorStore delegate, HnswVectorReplica replica, EmbeddingModel embeddingModel, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.replica = replica;
+        this.embeddingModel = embeddingModel;
+        this.localSearches = Counter.builder("rag.replica.searches").tag("tier", "local").register(meterRegistry);
+        this.fallbackSearches = Counter.builder("rag.replica.searches").tag("tier", "pgvector").register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        delegate.add(documents);
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        delegate.delete(idList);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        delegate.delete(filterExpression);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        String shardKey = shardKeyOf(request.getFilterExpression());
+        if (shardKey != null && replica.covers(shardKey)) {
+            try {
+                float[] queryEmbedding = embeddingModel.embed(request.getQuery());
+                Optional<List<Document>> local = replica.search(shardKey, queryEmbedding, request.getTopK(), request.getSimilarityThreshold());
+                if (local.isPresent()) {
+                    localSearches.increment();
+                    return local.get();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Local replica search failed, falling back to pgvector: {}", e.getMessage());
+            }
+        }
+        fallbackSearches.increment();
+        return delegate.similaritySearch(request);
+    }
+
+    @Override
+    public <T> Optional<T> getNativeClient() {
+        return delegate.getNativeClient();
+    }
+
+    /**
+     * Unfiltered searches map to the whole-table shard; a single {@code collection == 'x'} filter maps to
+     * that collection's shard. Anything else is left to pgvector.
+     */
+    private static String shardKeyOf(Filter.Expression expression) {
+        if (expression == null) {
+            return HnswVectorReplica.WHOLE_TABLE;
+        }
+        if (expression.type() == Filter.ExpressionType.EQ
+                && expression.left() instanceof Filter.Key key && "collection".equals(key.key())
+                && expression.right() instanceof Filter.Value value && value.value() != null) {
+            return value.value().toString();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.config.RetrievalProperties;
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.SpringAI.RAG.utils.TokenCounter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Coarse tier of the two-tier index: one embedding per source document (PDF page or crawled item) kept in
+ * its own small pgvector table. Retrieval searches it first and then restricts the chunk search to the
+ * winning documents through the {@code document_id} metadata filter (served by the GIN index from
+ * {@link MetadataIndexInitializer}).
+ * <p>
+ * A document's embedding is the centroid ({@code avg}) of its chunk embeddings, computed in Postgres right
+ * after the chunks are stored, so content anywhere in a page can win the coarse tier and ingestion pays no
+ * extra embedding or chat call. The row's text is only the document's lead tokens, for inspection. The store
+ * is kept out of the bean graph so that unqualified {@code VectorStore} injection points keep resolving to
+ * {@code customVectorStore}.
+ */
+@Component
+public class SummaryIndex {
+
+    public static final String DOCUMENT_ID = "document_id";
+    static final String TABLE = "vector_store_summary";
+    // Only the shared table has a summary tier
+    private static final String CHUNK_TABLE = "vector_store";
+    private static final String UPSERT_CENTROID = "INSERT INTO " + TABLE + " (id, content, metadata, embedding) "
+            + "SELECT ?::uuid, ?, ?::json, avg(embedding) FROM " + CHUNK_TABLE + " WHERE metadata::jsonb @> ?::jsonb "
+            + "HAVING count(*) > 0 "
+            + "ON CONFLICT (id) DO UPDATE SET content = EXCLUDED.content, metadata = EXCLUDED.metadata, embedding = EXCLUDED.embedding";
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryIndex.class);
+
+    private final PgVectorStore summaryStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenCounter tokenCounter;
+    private final ObjectMapper objectMapper;
+    private final RetrievalProperties properties;
+    private volatile boolean available;
+
+    public SummaryIndex(EmbeddingModel embeddingModel, JdbcTemplate jdbcTemplate, TokenCounter tokenCounter,
+                        ObjectMapper objectMapper, RetrievalProperties properties) {
+        this.summaryStore = PgVectorStore.builder(jdbcTemplate, embeddingModel)
+                .vectorTableName(TABLE)
+                .initializeSchema(true)
+                .build();
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenCounter = tokenCounter;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSchema() {
+        if (!properties.twoTierEnabled()) {
+            return;
+        }
+        try {
+            summaryStore.afterPropertiesSet();
+            available = true;
+        } catch (Exception e) {
+            log.error("Could not initialize {}, retrieval stays single-tier: {}", TABLE, e.getMessage());
+        }
+    }
+
+    /** Only the shared table has a summary tier; tenant partitions are small enough for a flat search. */
+    public boolean isEnabled() {
+        return properties.twoTierEnabled() && available && TenantContext.current() == null;
+    }
+
+    /**
+     * Tags every document with a fresh {@code document_id} (kept by the splitter on each chunk) and returns
+     * the tagged copies. Call before splitting so chunks and summaries share the id.
+     */
+    public List<Document> assignDocumentIds(List<Document> documents) {
+        List<Document> tagged = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+            metadata.putIfAbsent(DOCUMENT_ID, UUID.randomUUID().toString());
+            tagged.add(new Document(document.getText(), metadata));
+        }
+        return tagged;
+    }
+
+    /**
+     * Writes one centroid row per document from its stored chunks. Call after the chunks are in
+     * {@code vector_store}; documents must already carry a {@code document_id}.
+     */
+    public void index(List<Document> documents) {
+        if (!isEnabled() || documents.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Object documentId = document.getMetadata().get(DOCUMENT_ID);
+            if (documentId == null) {
+                continue;
+            }
+            try {
+                rows.add(new Object[]{
+                        documentId.toString(),
+                        summarize(document.getText()),
+                        objectMapper.writeValueAsString(document.getMetadata()),
+                        objectMapper.writeValueAsString(Map.of(DOCUMENT_ID, documentId.toString()))});
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping summary of document {}: {}", documentId, e.getMessage());
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CENTROID, rows);
+        log.info("Indexed {} document centroids", rows.size());
+    }
+
+    /** Removes the summaries of one collection (and legacy rows written before collections existed). */
+    public void clear(String collection) {
+        if (isEnabled()) {
+            jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE metadata::jsonb ->> 'collection' = ? "
+                    + "OR metadata::jsonb ->> 'collection' IS NULL", collection);
+        }
+    }
+
+    /**
+     * Ids of the documents whose summaries are closest to the query, best first. Summaries carry their
+     * document's metadata, so the caller's filter narrows this tier too.
+     */
+    public List<String> topDocumentIds(String query, Filter.Expression filter) {
+        List<Document> hits = summaryStore.similaritySearch(SearchRequest.builder()
+                .query(query)
+                .topK(properties.summaryTopK())
+                .filterExpression(filter)
+                .build());
+        List<String> ids = new ArrayList<>(hits.size());
+        for (Document hit : hits) {
+            ids.add(hit.getId());
+        }
+        return ids;
+    }
+
+    // Leading tokens (heading plus lead sentences), kept as the row's readable text; ranking uses the centroid.
+    private String summarize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return tokenCounter.truncate(text.strip(), properties.summaryMaxTokens());
+    }
+}
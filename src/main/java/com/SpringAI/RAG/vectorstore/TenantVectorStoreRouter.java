@@ -0,0 +1,110 @@
+package com.SpringAI.RAG.vectorstore;
+
+import com.SpringAI.RAG.tenant.TenantContext;
+import com.SpringAI.RAG.tenant.TenantRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VectorStore that routes every call to the table of the tenant bound to the request ({@link TenantContext}),
+ * falling back to the shared store (pgvector or the replicated store) when no tenant is set.
+ * <p>
+ * Each tenant table carries its own HNSW index, so a small tenant's searches and index builds only touch
+ * its own graph, whatever the size of the largest tenant. Partitions are created and dropped online through
+ * {@link #createPartition} / {@link #dropPartition}.
+ */
+public class TenantVectorStoreRouter implements VectorStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantVectorStoreRouter.class);
+
+    private final VectorStore shared;
+    private final TenantRegistry registry;
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingModel embeddingModel;
+    private final Map<String, PgVectorStore> tenantStores = new ConcurrentHashMap<>();
+
+    public TenantVectorStoreRouter(VectorStore shared, TenantRegistry registry, JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel) {
+        this.shared = shared;
+        this.registry = registry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.embeddingModel = embeddingModel;
+    }
+
+    @Override
+    public String getName() {
+        return shared.getName();
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        current().add(documents);
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        current().delete(idList);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        current().delete(filterExpression);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        return current().similaritySearch(request);
+    }
+
+    @Override
+    public <T> Optional<T> getNativeClient() {
+        return shared.getNativeClient();
+    }
+
+    /** Creates the tenant's table with its HNSW and metadata indexes, then makes it routable. Idempotent. */
+    public void createPartition(String tenantId) {
+        PgVectorStore store = build(tenantId, true);
+        store.afterPropertiesSet();
+        String table = registry.tableFor(tenantId);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_metadata_path_idx ON " + table
+                + " USING gin ((metadata::jsonb) jsonb_path_ops)");
+        registry.register(tenantId);
+        log.info("Created vector partition {} for tenant {}", table, tenantId);
+    }
+
+    /** Unregisters the tenant first so no new request is routed to the table, then drops it. */
+    public void dropPartition(String tenantId) {
+        registry.unregister(tenantId);
+        tenantStores.remove(tenantId);
+        String table = registry.tableFor(tenantId);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        log.info("Dropped vector partition {} for tenant {}", table, tenantId);
+    }
+
+    private VectorStore current() {
+        String tenantId = TenantContext.current();
+        if (tenantId == null) {
+            return shared;
+        }
+        return tenantStores.computeIfAbsent(tenantId, id -> build(id, false));
+    }
+
+    private PgVectorStore build(String tenantId, boolean initializeSchema) {
+        return PgVectorStore.builder(jdbcTemplate, embeddingModel)
+                .vectorTableName(registry.tableFor(tenantId))
+                .indexType(PgVectorStore.PgIndexType.HNSW)
+                .initializeSchema(initializeSchema)
+                .build();
+    }
+}
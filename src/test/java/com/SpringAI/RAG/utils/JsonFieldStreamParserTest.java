@@ -0,0 +1,56 @@
+package com.SpringAI.RAG.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonFieldStreamParserTest {
+
+    private static final String ANSWER = """
+            ```json
+            {
+              "wordCount": 512,
+              "introductionContent": "Say \\"hi\\", {not} nested, really",
+              "tags": ["a", "b]"],
+              "meta": {"draft": false, "notes": {"x": "}"}},
+              "ctaText": "Subscribe!"
+            }
+            ```""";
+
+    @Test
+    void reportsEachFieldWhenItsValueCloses() {
+        List<String> fields = new ArrayList<>();
+        JsonFieldStreamParser parser = new JsonFieldStreamParser((name, value) -> fields.add(name + "=" + value));
+
+        // One character at a time, the worst case for split tokens
+        int lastValue = ANSWER.indexOf("Subscribe");
+        for (int i = 0; i < lastValue; i++) {
+            parser.feed(ANSWER.substring(i, i + 1));
+        }
+        assertThat(fields).hasSize(4);
+        parser.feed(ANSWER.substring(lastValue));
+
+        assertThat(fields).containsExactly(
+                "wordCount=512",
+                "introductionContent=\"Say \\\"hi\\\", {not} nested, really\"",
+                "tags=[\"a\", \"b]\"]",
+                "meta={\"draft\": false, \"notes\": {\"x\": \"}\"}}",
+                "ctaText=\"Subscribe!\"");
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(parser.objectText()).startsWith("{").endsWith("}");
+    }
+
+    @Test
+    void incompleteObjectIsNotComplete() {
+        List<String> fields = new ArrayList<>();
+        JsonFieldStreamParser parser = new JsonFieldStreamParser((name, value) -> fields.add(name));
+
+        parser.feed("{\"wordCount\":12,\"introductionContent\":\"half a sent");
+
+        assertThat(fields).containsExactly("wordCount");
+        assertThat(parser.isComplete()).isFalse();
+    }
+}
@@ -0,0 +1,28 @@
+package com.SpringAI.RAG.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiPatternMatcherTest {
+
+    @Test
+    void findsOverlappingTermsOnWordBoundaries() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.of(List.of("he", "she", "hers", "his", "make a bomb"));
+
+        assertThat(matcher.find("Ushers and HIS friend", 10)).containsExactly("his");
+        assertThat(matcher.find("she said hers", 10)).containsExactly("she", "hers");
+        assertThat(matcher.findFirst("how to  make   a\tBOMB?")).isEqualTo("make a bomb");
+        assertThat(matcher.findFirst("make a bomber jacket")).isNull();
+    }
+
+    @Test
+    void emptyMatcherFindsNothing() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.of(List.of(" ", ""));
+
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.findFirst("anything")).isNull();
+    }
+}
@@ -0,0 +1,121 @@
+package com.SpringAI.RAG.vectorstore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void searchRecallsExactNeighbours() {
+        Random random = new Random(1);
+        float[][] vectors = new float[2000][];
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add("doc-" + i, vectors[i]);
+        }
+
+        double recall = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            List<String> expected = IntStream.range(0, vectors.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -cosine(query, vectors[i])))
+                    .limit(10)
+                    .map(i -> "doc-" + i)
+                    .toList();
+            List<String> found = index.search(query, 10, 64).stream().map(HnswIndex.Neighbor::id).toList();
+            recall += found.stream().filter(expected::contains).count() / 10.0;
+        }
+
+        assertThat(recall / queries).isGreaterThan(0.9);
+    }
+
+    @Test
+    void removedAndReplacedVectorsAreNotReturned() {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        Random random = new Random(2);
+        float[] target = randomVector(random);
+        index.add("target", target);
+        for (int i = 0; i < 200; i++) {
+            index.add("doc-" + i, randomVector(random));
+        }
+
+        assertThat(index.search(target, 1, 32).getFirst().id()).isEqualTo("target");
+
+        index.remove("target");
+        assertThat(index.search(target, 5, 32)).extracting(HnswIndex.Neighbor::id).doesNotContain("target");
+        assertThat(index.liveCount()).isEqualTo(200);
+
+        index.add("doc-0", target);
+        assertThat(index.search(target, 1, 32).getFirst().id()).isEqualTo("doc-0");
+        assertThat(index.search(target, 1, 32).getFirst().similarity()).isCloseTo(1.0, offset(1e-5));
+        assertThat(index.liveCount()).isEqualTo(200);
+    }
+
+    @Test
+    void searchSpansArenaSegments() {
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50, 16);
+        float[][] vectors = new float[300][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add("doc-" + i, vectors[i]);
+        }
+
+        for (int i = 0; i < vectors.length; i += 37) {
+            HnswIndex.Neighbor nearest = index.search(vectors[i], 1, 64).getFirst();
+            assertThat(nearest.id()).isEqualTo("doc-" + i);
+            assertThat(nearest.similarity()).isCloseTo(1.0, offset(1e-5));
+        }
+        // 19 full segments of 16 nodes, none allocated ahead of use
+        assertThat(index.arenaBytes()).isEqualTo(304L * DIMENSIONS * Float.BYTES);
+    }
+
+    @Test
+    void arenaGrowsWithTheIndex() {
+        Random random = new Random(4);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50);
+        float[][] vectors = new float[200][];
+        for (int i = 0; i < 10; i++) {
+            vectors[i] = randomVector(random);
+            index.add("doc-" + i, vectors[i]);
+        }
+        assertThat(index.arenaBytes()).isEqualTo(64L * DIMENSIONS * Float.BYTES);
+
+        for (int i = 10; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add("doc-" + i, vectors[i]);
+        }
+        assertThat(index.arenaBytes()).isEqualTo(256L * DIMENSIONS * Float.BYTES);
+        // Vectors written before the segment grew were carried over
+        assertThat(index.search(vectors[3], 1, 64).getFirst().id()).isEqualTo("doc-3");
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}